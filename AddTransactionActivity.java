@@ -4,26 +4,38 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import android.app.AlertDialog;
 import android.app.DatePickerDialog;
+import android.graphics.Color;
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Button;
 import android.widget.DatePicker;
 import android.widget.EditText;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import com.example.personal_finance_manager.config.AppConfig;
 import com.example.personal_finance_manager.database.AppDatabase;
 import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.PeriodCache;
 import com.example.personal_finance_manager.model.Category;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.Money;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+import com.example.personal_finance_manager.repository.BudgetTracker;
 import com.example.personal_finance_manager.ui.CategoryAdapter;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -35,11 +47,14 @@ public class AddTransactionActivity extends AppCompatActivity {
     private RadioButton rbIncome, rbExpense;
     private RecyclerView rvCategories;
     private Button btnDate, btnSave, btnCancel;
+    private TextView btnAddCategory;
+    private TextView tvBudgetRemaining;
 
     private AppDatabase database;
     private Date selectedDate;
     private Category selectedCategory;
     private CategoryAdapter categoryAdapter;
+    private BudgetTracker budgetTracker;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,6 +62,7 @@ public class AddTransactionActivity extends AppCompatActivity {
         setContentView(R.layout.activity_add_transaction);
 
         database = DatabaseClient.getInstance(this).getAppDatabase();
+        budgetTracker = BudgetTracker.getInstance(this);
         selectedDate = new Date();
 
         initViews();
@@ -66,6 +82,8 @@ public class AddTransactionActivity extends AppCompatActivity {
         btnDate = findViewById(R.id.btnDate);
         btnSave = findViewById(R.id.btnSave);
         btnCancel = findViewById(R.id.btnCancel);
+        btnAddCategory = findViewById(R.id.btnAddCategory);
+        tvBudgetRemaining = findViewById(R.id.tvBudgetRemaining);
 
         // Set default date
         updateDateButton();
@@ -89,6 +107,7 @@ public class AddTransactionActivity extends AppCompatActivity {
             public void onCategoryClick(Category category, int position) {
                 selectedCategory = category;
                 categoryAdapter.setSelectedPosition(position);
+                updateBudgetRemaining();
                 Toast.makeText(AddTransactionActivity.this,
                         "Kategori dipilih: " + category.getName(),
                         Toast.LENGTH_SHORT).show();
@@ -109,15 +128,25 @@ public class AddTransactionActivity extends AppCompatActivity {
         btnSave.setOnClickListener(v -> saveTransaction());
 
         btnCancel.setOnClickListener(v -> finish());
+
+        btnAddCategory.setOnClickListener(v -> showAddCategoryDialog());
+
+        etAmount.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                updateBudgetRemaining();
+            }
+        });
     }
 
     private void updateCategories() {
-        List<Category> categories;
-        if (rbIncome.isChecked()) {
-            categories = AppConfig.getIncomeCategories();
-        } else {
-            categories = AppConfig.getExpenseCategories();
-        }
+        List<Category> categories = categoryListForType();
 
         categoryAdapter.setCategories(categories);
 
@@ -126,6 +155,97 @@ public class AddTransactionActivity extends AppCompatActivity {
             selectedCategory = categories.get(0);
             categoryAdapter.setSelectedPosition(0);
         }
+        updateBudgetRemaining();
+    }
+
+    private void selectCategory(Category category) {
+        int position = categoryListForType().indexOf(category);
+        if (position >= 0) {
+            selectedCategory = category;
+            categoryAdapter.setSelectedPosition(position);
+            updateBudgetRemaining();
+        }
+    }
+
+    // What is left of the budgets this expense would count against, read from BudgetTracker's snapshot;
+    // a map lookup, so it runs on every keystroke in the amount field
+    private void updateBudgetRemaining() {
+        if (rbIncome.isChecked() || selectedCategory == null) {
+            tvBudgetRemaining.setVisibility(View.GONE);
+            return;
+        }
+        // Empty or half-typed input counts as nothing yet
+        long amountMinor = Money.parseOrDefault(etAmount.getText(), 0);
+
+        StringBuilder text = new StringBuilder();
+        boolean over = false;
+        for (BudgetTracker.Status status : budgetTracker.forCategory(selectedCategory.getName())) {
+            if (!status.covers(selectedDate.getTime())) {
+                continue;
+            }
+            long remaining = status.getRemainingMinor();
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(status.getLabel()).append(": sisa ");
+            DisplayFormat.appendRupiah(text, Math.max(0, remaining)).append(" dari ");
+            DisplayFormat.appendRupiah(text, status.getLimitMinor());
+            if (amountMinor > remaining) {
+                text.append(" (terlampaui)");
+                over = true;
+            }
+        }
+        if (text.length() == 0) {
+            tvBudgetRemaining.setVisibility(View.GONE);
+            return;
+        }
+        tvBudgetRemaining.setText(text);
+        tvBudgetRemaining.setTextColor(over ? Color.parseColor("#D32F2F") : Color.parseColor("#616161"));
+        tvBudgetRemaining.setVisibility(View.VISIBLE);
+    }
+
+    private List<Category> categoryListForType() {
+        return rbIncome.isChecked() ? AppConfig.getIncomeCategories() : AppConfig.getExpenseCategories();
+    }
+
+    private void showAddCategoryDialog() {
+        String type = rbIncome.isChecked() ? TransactionType.INCOME_NAME : TransactionType.EXPENSE_NAME;
+        EditText input = new EditText(this);
+        input.setHint("Nama kategori");
+        input.setSingleLine(true);
+
+        new AlertDialog.Builder(this)
+                .setTitle(rbIncome.isChecked() ? "Kategori Pemasukan Baru" : "Kategori Pengeluaran Baru")
+                .setView(input)
+                .setPositiveButton("Simpan", (dialog, which) -> addCustomCategory(type, input.getText().toString().trim()))
+                .setNegativeButton("Batal", null)
+                .show();
+    }
+
+    // Stored in the `category` table first, then registered, so it is offered again after a restart
+    private void addCustomCategory(String type, String name) {
+        if (TextUtils.isEmpty(name)) {
+            Toast.makeText(this, "Nama kategori tidak boleh kosong", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Category existing = CategoryRegistry.byTypeAndName(type, name);
+        if (existing != null) {
+            selectCategory(existing);
+            return;
+        }
+
+        DatabaseClient.getInstance(this).getWriteExecutor().execute(() -> {
+            boolean added = database.transactionDao().addCustomCategory(name, TransactionType.codeOf(type));
+            Category category = added ? CategoryRegistry.registerCustom(type, name) : null;
+            runOnUiThread(() -> {
+                if (category == null) {
+                    Toast.makeText(this, "Nama kategori sudah dipakai", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                updateCategories();
+                selectCategory(category);
+            });
+        });
     }
 
     private void showDatePicker() {
@@ -145,6 +265,7 @@ public class AddTransactionActivity extends AppCompatActivity {
                         cal.set(year, month, dayOfMonth);
                         selectedDate = cal.getTime();
                         updateDateButton();
+                        updateBudgetRemaining();
                     }
                 },
                 year, month, day
@@ -174,14 +295,15 @@ public class AddTransactionActivity extends AppCompatActivity {
             return;
         }
 
-        double amount;
+        // Parsed straight to sen so the stored amount is exactly what was typed
+        long amountMinor;
         try {
-            amount = Double.parseDouble(amountStr);
-            if (amount <= 0) {
+            amountMinor = Money.parse(amountStr);
+            if (amountMinor <= 0) {
                 etAmount.setError("Jumlah harus lebih dari 0");
                 return;
             }
-        } catch (NumberFormatException e) {
+        } catch (NumberFormatException | ArithmeticException e) {
             etAmount.setError("Format jumlah tidak valid");
             return;
         }
@@ -198,7 +320,7 @@ public class AddTransactionActivity extends AppCompatActivity {
         // Create transaction
         Transaction transaction = new Transaction();
         transaction.setTitle(title);
-        transaction.setAmount(amount);
+        transaction.setAmountMinor(amountMinor);
         transaction.setType(type);
         transaction.setCategory(selectedCategory.getName());
         transaction.setDate(selectedDate);
@@ -208,19 +330,29 @@ public class AddTransactionActivity extends AppCompatActivity {
         }
 
         // Save to database
-        new Thread(() -> {
+        DatabaseClient.getInstance(this).getWriteExecutor().execute(() -> {
             long id = database.transactionDao().insert(transaction);
+            PeriodCache.getInstance().bump();
+            List<BudgetTracker.Status> crossed = id > 0
+                    ? budgetTracker.record(transaction, 1)
+                    : Collections.<BudgetTracker.Status>emptyList();
             runOnUiThread(() -> {
                 if (id > 0) {
                     Toast.makeText(AddTransactionActivity.this,
                             "Transaksi berhasil disimpan ✓",
                             Toast.LENGTH_SHORT).show();
+                    // Outlives this screen, which closes right away
+                    for (BudgetTracker.Status status : crossed) {
+                        Toast.makeText(getApplicationContext(),
+                                BudgetTracker.alertMessage(status),
+                                Toast.LENGTH_LONG).show();
+                    }
 
                     // Data akan auto-update di MainActivity via LiveData
                     setResult(RESULT_OK);
                     finish();
                 }
             });
-        }).start();
+        });
     }
 }
\ No newline at end of file
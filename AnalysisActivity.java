@@ -8,33 +8,64 @@ import android.os.Bundle;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
+import android.widget.LinearLayout;
 import android.widget.Spinner;
 import android.widget.TextView;
 
 import com.example.personal_finance_manager.database.AppDatabase;
 import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.PeriodCache;
 import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.DailySummary;
+import com.example.personal_finance_manager.model.DashboardSnapshot;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.PeriodRange;
+import com.example.personal_finance_manager.model.SpendStats;
+import com.example.personal_finance_manager.model.TrendSeries;
+import com.example.personal_finance_manager.repository.SpendingStatistics;
+import com.example.personal_finance_manager.repository.TimeSeriesEngine;
+import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.BarLineChartBase;
+import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.charts.PieChart;
 import com.github.mikephil.charting.components.Legend;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.data.BarData;
+import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.BarEntry;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.data.PieData;
 import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.data.PieEntry;
+import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
 import com.github.mikephil.charting.formatter.PercentFormatter;
 import com.github.mikephil.charting.utils.ColorTemplate;
 
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class AnalysisActivity extends AppCompatActivity {
+    private static final int COLOR_INCOME = Color.parseColor("#4CAF50");
+    private static final int COLOR_EXPENSE = Color.parseColor("#F44336");
+    private static final int COLOR_NET = Color.parseColor("#2196F3");
+
+    // Trend choices and how many buckets each shows, ending with the current one
+    private static final String[] TREND_LABELS = {"Harian", "Mingguan", "Bulanan", "Tahunan"};
+    private static final TrendSeries.Resolution[] TREND_RESOLUTIONS = {TrendSeries.Resolution.DAY,
+            TrendSeries.Resolution.WEEK, TrendSeries.Resolution.MONTH, TrendSeries.Resolution.YEAR};
+    private static final int[] TREND_BUCKETS = {30, 26, 60, 10};
 
     private PieChart pieChart;
-    private Spinner spinnerPeriod;
-    private TextView tvTotalExpense, tvAverageExpense;
+    private BarChart barChartTrend;
+    private LineChart lineChartNet;
+    private Spinner spinnerPeriod, spinnerTrend;
+    private TextView tvTotalExpense, tvAverageExpense, tvStatsOverview;
+    private LinearLayout layoutCategoryStats;
     private AppDatabase database;
 
     @Override
@@ -45,12 +76,18 @@ public class AnalysisActivity extends AppCompatActivity {
         database = DatabaseClient.getInstance(this).getAppDatabase();
 
         pieChart = findViewById(R.id.pieChart);
+        barChartTrend = findViewById(R.id.barChartTrend);
+        lineChartNet = findViewById(R.id.lineChartNet);
         spinnerPeriod = findViewById(R.id.spinnerPeriod);
+        spinnerTrend = findViewById(R.id.spinnerTrend);
         tvTotalExpense = findViewById(R.id.tvTotalExpense);
         tvAverageExpense = findViewById(R.id.tvAverageExpense);
+        tvStatsOverview = findViewById(R.id.tvStatsOverview);
+        layoutCategoryStats = findViewById(R.id.layoutCategoryStats);
 
         setupSpinner();
         setupChart();
+        setupTrend();
         loadData("Bulan Ini");
     }
 
@@ -90,77 +127,167 @@ public class AnalysisActivity extends AppCompatActivity {
         legend.setTextSize(12f);
     }
 
-    private void loadData(String period) {
-        new Thread(() -> {
-            Date[] dateRange = getDateRange(period);
-            List<TransactionDao.CategorySummary> summaries =
-                    database.transactionDao().getExpenseByCategory(dateRange[0], dateRange[1]);
+    private void setupTrend() {
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, TREND_LABELS);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerTrend.setAdapter(adapter);
+        spinnerTrend.setSelection(2);
 
-            double totalExpense = database.transactionDao().getTotalExpense(dateRange[0], dateRange[1]);
-            double averageExpense = calculateAverageExpense(period, totalExpense);
+        spinnerTrend.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                loadTrend(position);
+            }
 
-            runOnUiThread(() -> {
-                updateChart(summaries);
-                updateSummary(totalExpense, averageExpense);
-            });
-        }).start();
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+
+        setupTrendChart(barChartTrend);
+        setupTrendChart(lineChartNet);
+        lineChartNet.getLegend().setEnabled(false);
     }
 
-    private Date[] getDateRange(String period) {
-        Calendar cal = Calendar.getInstance();
-        Date endDate = cal.getTime();
-
-        Calendar startCal = Calendar.getInstance();
-
-        switch (period) {
-            case "Hari Ini":
-                startCal.set(Calendar.HOUR_OF_DAY, 0);
-                startCal.set(Calendar.MINUTE, 0);
-                startCal.set(Calendar.SECOND, 0);
-                startCal.set(Calendar.MILLISECOND, 0);
-                break;
-            case "Minggu Ini":
-                startCal.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
-                break;
-            case "Bulan Ini":
-                startCal.set(Calendar.DAY_OF_MONTH, 1);
-                break;
-            case "Tahun Ini":
-                startCal.set(Calendar.MONTH, Calendar.JANUARY);
-                startCal.set(Calendar.DAY_OF_MONTH, 1);
-                break;
-            case "Semua":
-                startCal.set(1970, Calendar.JANUARY, 1);
-                break;
-        }
+    private void setupTrendChart(BarLineChartBase<?> chart) {
+        chart.getDescription().setEnabled(false);
+        chart.getAxisRight().setEnabled(false);
+        chart.setScaleYEnabled(false);
+        chart.setNoDataText("Tidak ada data");
+        chart.setNoDataTextColor(Color.GRAY);
 
-        return new Date[]{startCal.getTime(), endDate};
+        XAxis xAxis = chart.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setDrawGridLines(false);
+        xAxis.setGranularity(1f);
+    }
+
+    // Buckets come from TimeSeriesEngine, which only re-reads the days changed since the last trend
+    private void loadTrend(int choice) {
+        DatabaseClient.getInstance(this).getReadExecutor().execute(() -> {
+            try {
+                TrendSeries series = TimeSeriesEngine.getInstance(database)
+                        .query(TREND_RESOLUTIONS[choice], TREND_BUCKETS[choice], System.currentTimeMillis());
+                runOnUiThread(() -> updateTrend(series));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
     }
 
-    private double calculateAverageExpense(String period, double totalExpense) {
-        Calendar cal = Calendar.getInstance();
-        int days = 1;
-
-        switch (period) {
-            case "Hari Ini":
-                days = 1;
-                break;
-            case "Minggu Ini":
-                days = 7;
-                break;
-            case "Bulan Ini":
-                days = cal.getActualMaximum(Calendar.DAY_OF_MONTH);
-                break;
-            case "Tahun Ini":
-                days = cal.getActualMaximum(Calendar.DAY_OF_YEAR);
-                break;
-            case "Semua":
-                // For all time, use number of months since first transaction
-                days = 30; // Default approximation
-                break;
+    private void updateTrend(TrendSeries series) {
+        int size = series.size();
+        List<BarEntry> income = new ArrayList<>(size);
+        List<BarEntry> expense = new ArrayList<>(size);
+        List<Entry> net = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            income.add(new BarEntry(i, (float) Money.toUnits(series.incomeMinor[i])));
+            expense.add(new BarEntry(i, (float) Money.toUnits(series.expenseMinor[i])));
+            net.add(new Entry(i, (float) Money.toUnits(series.netMinor(i))));
         }
 
-        return totalExpense / days;
+        BarDataSet incomeSet = new BarDataSet(income, "Pemasukan");
+        incomeSet.setColor(COLOR_INCOME);
+        incomeSet.setDrawValues(false);
+        BarDataSet expenseSet = new BarDataSet(expense, "Pengeluaran");
+        expenseSet.setColor(COLOR_EXPENSE);
+        expenseSet.setDrawValues(false);
+
+        // Two bars per bucket: (0.4 + 0.05) * 2 + 0.1 fills each unit of the x axis
+        BarData barData = new BarData(incomeSet, expenseSet);
+        barData.setBarWidth(0.4f);
+        barChartTrend.setData(barData);
+        barChartTrend.groupBars(0f, 0.1f, 0.05f);
+        XAxis barAxis = barChartTrend.getXAxis();
+        barAxis.setValueFormatter(new IndexAxisValueFormatter(series.labels));
+        barAxis.setCenterAxisLabels(true);
+        barAxis.setAxisMinimum(0f);
+        barAxis.setAxisMaximum(size);
+        barChartTrend.invalidate();
+
+        LineDataSet netSet = new LineDataSet(net, "Saldo Bersih");
+        netSet.setColor(COLOR_NET);
+        netSet.setLineWidth(2f);
+        netSet.setDrawCircles(size <= 31);
+        netSet.setCircleColor(COLOR_NET);
+        netSet.setDrawValues(false);
+        lineChartNet.setData(new LineData(netSet));
+        lineChartNet.getXAxis().setValueFormatter(new IndexAxisValueFormatter(series.labels));
+        lineChartNet.invalidate();
+    }
+
+    // Period results come from PeriodCache while the data is unchanged, so switching back to a period is instant
+    private void loadData(String period) {
+        DatabaseClient client = DatabaseClient.getInstance(this);
+        client.getReadExecutor().execute(() -> {
+            PeriodRange range = PeriodRange.resolve(period);
+            long start = range.start.getTime();
+            long end = range.end.getTime();
+            PeriodCache cache = PeriodCache.getInstance();
+            TransactionDao dao = database.transactionDao();
+            try {
+                List<TransactionDao.CategorySummary> summaries = cache.get("expenseByCategory", start, end,
+                        () -> dao.getExpenseByCategory(range.start, range.end));
+                long totalExpense = cache.get("totalExpense", start, end,
+                        () -> dao.getTotalExpense(range.start, range.end));
+                // Same key as the dashboard, so this is usually a hit
+                DashboardSnapshot snapshot = cache.get("dashboard", start, end,
+                        () -> dao.getDashboardSnapshot(range.start, range.end));
+                long averageExpense = Math.round(totalExpense / (double) elapsedDays(range, snapshot.getFirstDate()));
+
+                runOnUiThread(() -> {
+                    updateChart(summaries);
+                    updateSummary(totalExpense, averageExpense);
+                });
+
+                SpendingStatistics.Summary stats = cache.peek("expenseStats", start, end);
+                if (stats != null) {
+                    runOnUiThread(() -> updateStats(stats));
+                } else {
+                    loadStats(client, start, end);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Stored months are brought up to date on the write thread, then merged back on a read thread. Nothing waits
+    // on the writer, which may be busy with maintenance or a sync for a while.
+    private void loadStats(DatabaseClient client, long start, long end) {
+        client.getWriteExecutor().execute(() -> {
+            try {
+                SpendingStatistics.refresh(database);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                return;
+            }
+            client.getReadExecutor().execute(() -> {
+                try {
+                    SpendingStatistics.Summary stats = PeriodCache.getInstance().get("expenseStats", start, end,
+                            () -> SpendingStatistics.summarize(database.transactionDao(), start, end));
+                    runOnUiThread(() -> updateStats(stats));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+        });
+    }
+
+    // Local days from the period start, or from the first transaction's day if later, through today
+    private static long elapsedDays(PeriodRange range, Long firstDate) {
+        long start = range.start.getTime();
+        if (firstDate != null && firstDate > start) {
+            Calendar cal = Calendar.getInstance();
+            cal.setTimeInMillis(firstDate);
+            cal.set(Calendar.HOUR_OF_DAY, 0);
+            cal.set(Calendar.MINUTE, 0);
+            cal.set(Calendar.SECOND, 0);
+            cal.set(Calendar.MILLISECOND, 0);
+            start = cal.getTimeInMillis();
+        }
+        // Rounded, so a day with a DST shift still counts as one
+        return Math.max(1, Math.round((range.end.getTime() + 1 - start) / (double) DailySummary.DAY_MILLIS));
     }
 
     private void updateChart(List<TransactionDao.CategorySummary> summaries) {
@@ -173,7 +300,7 @@ public class AnalysisActivity extends AppCompatActivity {
 
         ArrayList<PieEntry> entries = new ArrayList<>();
         for (TransactionDao.CategorySummary summary : summaries) {
-            entries.add(new PieEntry((float) summary.total, summary.category));
+            entries.add(new PieEntry((float) Money.toUnits(summary.totalMinor), summary.category));
         }
 
         PieDataSet dataSet = new PieDataSet(entries, "");
@@ -187,10 +314,42 @@ public class AnalysisActivity extends AppCompatActivity {
         pieChart.invalidate();
     }
 
-    private void updateSummary(double totalExpense, double averageExpense) {
-        NumberFormat format = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
+    private void updateSummary(long totalExpense, long averageExpense) {
+        tvTotalExpense.setText(DisplayFormat.formatRupiah(totalExpense));
+        tvAverageExpense.setText(DisplayFormat.formatRupiah(averageExpense) + "/hari");
+    }
+
+    private void updateStats(SpendingStatistics.Summary summary) {
+        layoutCategoryStats.removeAllViews();
+        SpendStats total = summary.total;
+        if (total.getCount() == 0) {
+            tvStatsOverview.setText("Tidak ada data pengeluaran");
+            return;
+        }
+        tvStatsOverview.setText("Per transaksi: median " + DisplayFormat.formatRupiah(total.getMedianMinor())
+                + " · p90 " + DisplayFormat.formatRupiah(total.getP90Minor())
+                + " · simpangan baku " + DisplayFormat.formatRupiah(total.getStdDevMinor()));
+
+        for (SpendingStatistics.CategoryStats category : summary.categories) {
+            SpendStats stats = category.stats;
+            TextView name = new TextView(this);
+            name.setText(category.category + " · " + DisplayFormat.formatRupiah(stats.getSumMinor()));
+            name.setTextSize(14);
+            name.setTextColor(Color.parseColor("#212121"));
+            name.setPadding(0, dp(12), 0, 0);
+            layoutCategoryStats.addView(name);
+
+            TextView details = new TextView(this);
+            details.setText(stats.getCount() + " transaksi · rata-rata " + DisplayFormat.formatRupiah(stats.getMeanMinor())
+                    + " · median " + DisplayFormat.formatRupiah(stats.getMedianMinor())
+                    + " · p90 " + DisplayFormat.formatRupiah(stats.getP90Minor()));
+            details.setTextSize(12);
+            details.setTextColor(Color.parseColor("#757575"));
+            layoutCategoryStats.addView(details);
+        }
+    }
 
-        tvTotalExpense.setText(format.format(totalExpense));
-        tvAverageExpense.setText(format.format(averageExpense) + "/hari");
+    private int dp(int value) {
+        return Math.round(value * getResources().getDisplayMetrics().density);
     }
 }
\ No newline at end of file
@@ -1,56 +1,31 @@
 package com.example.personal_finance_manager.config;
 
 import com.example.personal_finance_manager.model.Category;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.TransactionType;
 
-import java.util.Arrays;
 import java.util.List;
 
 public class AppConfig {
 
-    // Predefined categories with colors
+    // Predefined and user categories, shared and immutable; see CategoryRegistry
     public static List<Category> getIncomeCategories() {
-        return Arrays.asList(
-                new Category("Gaji", "income", android.R.drawable.ic_menu_month),
-                new Category("Bonus", "income", android.R.drawable.ic_menu_agenda),
-                new Category("Investasi", "income", android.R.drawable.ic_menu_share),
-                new Category("Freelance", "income", android.R.drawable.ic_menu_edit),
-                new Category("Hadiah", "income", android.R.drawable.ic_menu_gallery),
-                new Category("Penjualan", "income", android.R.drawable.ic_menu_save),
-                new Category("Lainnya", "income", android.R.drawable.ic_menu_more)
-        );
+        return CategoryRegistry.forType(TransactionType.INCOME_NAME);
     }
 
     public static List<Category> getExpenseCategories() {
-        return Arrays.asList(
-                new Category("Makanan", "expense", android.R.drawable.ic_lock_lock),
-                new Category("Transportasi", "expense", android.R.drawable.ic_menu_directions),
-                new Category("Hiburan", "expense", android.R.drawable.ic_menu_slideshow),
-                new Category("Belanja", "expense", android.R.drawable.ic_menu_my_calendar),
-                new Category("Kesehatan", "expense", android.R.drawable.ic_menu_myplaces),
-                new Category("Pendidikan", "expense", android.R.drawable.ic_menu_edit),
-                new Category("Tagihan", "expense", android.R.drawable.ic_menu_set_as),
-                new Category("Pulsa/Internet", "expense", android.R.drawable.ic_menu_call),
-                new Category("Pajak", "expense", android.R.drawable.ic_menu_manage),
-                new Category("Donasi", "expense", android.R.drawable.ic_menu_help),
-                new Category("Lainnya", "expense", android.R.drawable.ic_menu_more)
-        );
+        return CategoryRegistry.forType(TransactionType.EXPENSE_NAME);
     }
 
     // Get all categories
     public static List<Category> getAllCategories() {
-        List<Category> allCategories = getIncomeCategories();
-        allCategories.addAll(getExpenseCategories());
-        return allCategories;
+        return CategoryRegistry.all();
     }
 
     // Get category by name
     public static Category getCategoryByName(String name) {
-        for (Category category : getAllCategories()) {
-            if (category.getName().equals(name)) {
-                return category;
-            }
-        }
-        return new Category("Lainnya", "expense", android.R.drawable.ic_menu_more);
+        Category category = CategoryRegistry.byName(name);
+        return category != null ? category : CategoryRegistry.FALLBACK;
     }
 
     // Date format patterns
@@ -58,4 +33,8 @@ public class AppConfig {
     public static final String DATE_DB_FORMAT = "yyyy-MM-dd";
     public static final String DATE_TIME_FORMAT = "dd/MM/yyyy HH:mm";
     public static final String CURRENCY_FORMAT = "Rp #,##0";
+
+    // Synced transactions older than this many whole months move to the archive; 0 turns archiving off
+    public static final String PREF_ARCHIVE_HORIZON_MONTHS = "archive_horizon_months";
+    public static final int DEFAULT_ARCHIVE_HORIZON_MONTHS = 24;
 }
\ No newline at end of file
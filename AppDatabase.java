@@ -4,11 +4,44 @@ import androidx.room.Database;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
 
+import com.example.personal_finance_manager.model.ArchiveSummary;
+import com.example.personal_finance_manager.model.ArchivedMonth;
+import com.example.personal_finance_manager.model.Budget;
+import com.example.personal_finance_manager.model.CategoryEntry;
+import com.example.personal_finance_manager.model.CategoryMonthStats;
+import com.example.personal_finance_manager.model.DailySummary;
+import com.example.personal_finance_manager.model.DailySummaryChange;
+import com.example.personal_finance_manager.model.MaintenanceRun;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionFts;
+import com.example.personal_finance_manager.database.dao.BudgetDao;
+import com.example.personal_finance_manager.database.dao.MaintenanceDao;
 import com.example.personal_finance_manager.database.dao.TransactionDao;
 
-@Database(entities = {Transaction.class}, version = 1, exportSchema = false)
+@Database(entities = {Transaction.class, DailySummary.class, TransactionFts.class, CategoryEntry.class,
+        ArchivedMonth.class, ArchiveSummary.class, MaintenanceRun.class, DailySummaryChange.class,
+        CategoryMonthStats.class, Budget.class}, version = 14, exportSchema = true)
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
-    public abstract TransactionDao transactionDao();
+    private volatile TransactionDao transactionDao;
+
+    // Room's generated DAO; everything else goes through the instrumented transactionDao()
+    protected abstract TransactionDao generatedTransactionDao();
+
+    public TransactionDao transactionDao() {
+        TransactionDao dao = transactionDao;
+        if (dao == null) {
+            synchronized (this) {
+                if (transactionDao == null) {
+                    transactionDao = QueryStats.getInstance().instrument(TransactionDao.class, generatedTransactionDao());
+                }
+                dao = transactionDao;
+            }
+        }
+        return dao;
+    }
+
+    public abstract MaintenanceDao maintenanceDao();
+
+    public abstract BudgetDao budgetDao();
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.personal_finance_manager.database;
+
+import com.example.personal_finance_manager.model.ArchivedMonth;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Packs the rows of one archived month into a single deflated block. Rows are
+ * written oldest first with type codes and category ids instead of names, so
+ * neighbouring rows share most of their bytes and compress well. Nothing in
+ * the block refers to the hot table, which can be rebuilt freely afterwards.
+ */
+public final class ArchiveCodec {
+    public static final int VERSION = 1;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private ArchiveCodec() {}
+
+    public static ArchivedMonth encode(int monthKey, List<Transaction> transactions) {
+        List<Transaction> rows = new ArrayList<>(transactions);
+        Collections.sort(rows, Comparator.comparingLong(ArchiveCodec::dateOf).thenComparingLong(Transaction::getId));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeInt(rows.size());
+            for (Transaction row : rows) {
+                out.writeLong(row.getId());
+                out.writeLong(dateOf(row));
+                out.writeLong(row.getCreatedAt() != null ? row.getCreatedAt().getTime() : NO_DATE);
+                out.writeLong(row.getAmountMinor());
+                Integer type = TransactionType.codeOf(row.getType());
+                out.writeByte(type != null ? type : 0);
+                Integer categoryId = CategoryDictionary.idOf(row.getCategory());
+                out.writeInt(categoryId != null ? categoryId : 0);
+                out.writeBoolean(row.isSynced());
+                writeNullable(out, row.getTitle());
+                writeNullable(out, row.getDescription());
+                writeNullable(out, row.getRemoteId());
+                writeNullable(out, row.getUserId());
+            }
+        } catch (IOException e) {
+            // In-memory streams only fail on programming errors
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.end();
+        }
+
+        ArchivedMonth month = new ArchivedMonth();
+        month.setMonthKey(monthKey);
+        month.setCodecVersion(VERSION);
+        month.setEntryCount(rows.size());
+        month.setFirstDate(rows.isEmpty() ? ArchivedMonth.startOf(monthKey) : dateOf(rows.get(0)));
+        month.setLastDate(rows.isEmpty() ? ArchivedMonth.startOf(monthKey) : dateOf(rows.get(rows.size() - 1)));
+        month.setPayload(bytes.toByteArray());
+        return month;
+    }
+
+    public static List<Transaction> decode(ArchivedMonth month) {
+        if (month.getCodecVersion() != VERSION) {
+            throw new IllegalStateException("Unknown archive codec version " + month.getCodecVersion());
+        }
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(month.getPayload())))) {
+            int count = in.readInt();
+            List<Transaction> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Transaction row = new Transaction();
+                row.setId(in.readLong());
+                long date = in.readLong();
+                row.setDate(date != NO_DATE ? new Date(date) : null);
+                long createdAt = in.readLong();
+                row.setCreatedAt(createdAt != NO_DATE ? new Date(createdAt) : null);
+                row.setAmountMinor(in.readLong());
+                int type = in.readByte();
+                row.setType(type != 0 ? TransactionType.nameOf(type) : null);
+                int categoryId = in.readInt();
+                row.setCategory(categoryId != 0 ? CategoryDictionary.nameOf(categoryId) : null);
+                row.setSynced(in.readBoolean());
+                row.setTitle(readNullable(in));
+                row.setDescription(readNullable(in));
+                row.setRemoteId(readNullable(in));
+                row.setUserId(readNullable(in));
+                rows.add(row);
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt archive block for month " + month.getMonthKey(), e);
+        }
+    }
+
+    private static long dateOf(Transaction row) {
+        return row.getDate() != null ? row.getDate().getTime() : NO_DATE;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.Entity;
+
+/**
+ * Per-month rollup of archived transactions, the archive's counterpart of
+ * DailySummary. Written when a month is archived and never touched by
+ * triggers, since archived rows no longer change.
+ */
+@Entity(tableName = "archive_summary", primaryKeys = {"type", "monthKey", "category"})
+public class ArchiveSummary {
+    private int monthKey;
+    // TransactionType code and category id; 0 stands for a missing type or category
+    private int type;
+    private int category;
+    // Minor units, see Money
+    private long totalMinor;
+    private int entryCount;
+
+    public ArchiveSummary() {}
+
+    public ArchiveSummary(int monthKey, int type, int category) {
+        this.monthKey = monthKey;
+        this.type = type;
+        this.category = category;
+    }
+
+    public void add(long amountMinor) {
+        totalMinor = Money.add(totalMinor, amountMinor);
+        entryCount++;
+    }
+
+    // Getters and Setters
+    public int getMonthKey() { return monthKey; }
+    public void setMonthKey(int monthKey) { this.monthKey = monthKey; }
+
+    public int getType() { return type; }
+    public void setType(int type) { this.type = type; }
+
+    public int getCategory() { return category; }
+    public void setCategory(int category) { this.category = category; }
+
+    public long getTotalMinor() { return totalMinor; }
+    public void setTotalMinor(long totalMinor) { this.totalMinor = totalMinor; }
+
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+}
@@ -0,0 +1,74 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * One calendar month (UTC) of transactions moved out of the hot table: the
+ * rows as one compressed block (see ArchiveCodec) plus enough metadata to
+ * skip months without decoding them. Per-type and per-category totals of
+ * the same month live in archive_summary.
+ */
+@Entity(tableName = "transaction_archive")
+public class ArchivedMonth {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    // Months since January 1970
+    @PrimaryKey
+    private int monthKey;
+    private long firstDate;
+    private long lastDate;
+    private int entryCount;
+    private int codecVersion;
+    @NonNull
+    private byte[] payload = new byte[0];
+
+    public static int monthKeyOf(long timeMillis) {
+        Calendar cal = Calendar.getInstance(UTC);
+        cal.setTimeInMillis(timeMillis);
+        return (cal.get(Calendar.YEAR) - 1970) * 12 + cal.get(Calendar.MONTH);
+    }
+
+    // First millisecond of the month
+    public static long startOf(int monthKey) {
+        Calendar cal = Calendar.getInstance(UTC);
+        cal.clear();
+        cal.set(1970 + Math.floorDiv(monthKey, 12), Math.floorMod(monthKey, 12), 1);
+        return cal.getTimeInMillis();
+    }
+
+    // First and last month lying entirely inside [from, to]; empty when first > last
+    public static int firstFullMonth(long from) {
+        int key = monthKeyOf(from);
+        return startOf(key) == from ? key : key + 1;
+    }
+
+    public static int lastFullMonth(long to) {
+        int key = monthKeyOf(to);
+        return startOf(key + 1) - 1 == to ? key : key - 1;
+    }
+
+    // Getters and Setters
+    public int getMonthKey() { return monthKey; }
+    public void setMonthKey(int monthKey) { this.monthKey = monthKey; }
+
+    public long getFirstDate() { return firstDate; }
+    public void setFirstDate(long firstDate) { this.firstDate = firstDate; }
+
+    public long getLastDate() { return lastDate; }
+    public void setLastDate(long lastDate) { this.lastDate = lastDate; }
+
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+
+    public int getCodecVersion() { return codecVersion; }
+    public void setCodecVersion(int codecVersion) { this.codecVersion = codecVersion; }
+
+    @NonNull
+    public byte[] getPayload() { return payload; }
+    public void setPayload(@NonNull byte[] payload) { this.payload = payload; }
+}
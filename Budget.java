@@ -0,0 +1,132 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+
+import com.example.personal_finance_manager.database.CategoryConverter;
+
+import java.util.Calendar;
+
+/**
+ * A weekly or monthly spending limit for one expense category, or for all
+ * expenses when the category is null.
+ *
+ * spentMinor is the expense total of the current period [periodStart,
+ * periodEnd). SQLite triggers on `transaction` move it on every insert,
+ * update and delete (see DatabaseTriggers), so it is never summed again
+ * until BudgetTracker rolls the budget into its next period.
+ */
+@Entity(tableName = "budget", indices = {@Index(value = {"category", "period"}, unique = true)})
+public class Budget {
+    public static final int WEEKLY = 1;
+    public static final int MONTHLY = 2;
+
+    // alertLevel: the highest threshold already reported in the current period
+    public static final int LEVEL_NONE = 0;
+    public static final int LEVEL_WARNING = 1;
+    public static final int LEVEL_EXCEEDED = 2;
+
+    public static final int DEFAULT_ALERT_PERCENT = 80;
+
+    // Time-ordered, see TimeOrderedId
+    @PrimaryKey
+    private long id;
+    // Null for a budget over all expenses
+    @TypeConverters(CategoryConverter.class)
+    private String category;
+    private int period;
+    private long limitMinor;
+    private int alertPercent;
+    // Local time, from 00:00 of the first day of the period to 00:00 of the next one
+    private long periodStart;
+    private long periodEnd;
+    private long spentMinor;
+    private int alertLevel;
+    private boolean isSynced;
+    // Removed here but not yet on the server; the row is purged once the deletion is synced
+    private boolean deleted;
+    private long updatedAt;
+
+    public Budget() {
+        this.id = TimeOrderedId.next();
+        this.alertPercent = DEFAULT_ALERT_PERCENT;
+    }
+
+    public Budget(String category, int period, long limitMinor, int alertPercent) {
+        this();
+        this.category = category;
+        this.period = period;
+        this.limitMinor = limitMinor;
+        this.alertPercent = alertPercent;
+    }
+
+    // [start, end) of the period holding nowMillis; weeks start on the locale's first day, as "Minggu Ini" does
+    public static long[] periodAround(int period, long nowMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(nowMillis);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        if (period == WEEKLY) {
+            int back = (cal.get(Calendar.DAY_OF_WEEK) - cal.getFirstDayOfWeek() + 7) % 7;
+            cal.add(Calendar.DAY_OF_MONTH, -back);
+        } else {
+            cal.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        long start = cal.getTimeInMillis();
+        cal.add(period == WEEKLY ? Calendar.WEEK_OF_YEAR : Calendar.MONTH, 1);
+        return new long[]{start, cal.getTimeInMillis()};
+    }
+
+    // Threshold level of a spent amount against this limit
+    public static int levelOf(long spentMinor, long limitMinor, int alertPercent) {
+        if (spentMinor > limitMinor) {
+            return LEVEL_EXCEEDED;
+        }
+        // In doubles so spent * 100 cannot overflow; a threshold is no place for sen-exact rounding
+        if (spentMinor > 0 && spentMinor * 100.0 >= (double) limitMinor * alertPercent) {
+            return LEVEL_WARNING;
+        }
+        return LEVEL_NONE;
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public int getPeriod() { return period; }
+    public void setPeriod(int period) { this.period = period; }
+
+    public long getLimitMinor() { return limitMinor; }
+    public void setLimitMinor(long limitMinor) { this.limitMinor = limitMinor; }
+
+    public int getAlertPercent() { return alertPercent; }
+    public void setAlertPercent(int alertPercent) { this.alertPercent = alertPercent; }
+
+    public long getPeriodStart() { return periodStart; }
+    public void setPeriodStart(long periodStart) { this.periodStart = periodStart; }
+
+    public long getPeriodEnd() { return periodEnd; }
+    public void setPeriodEnd(long periodEnd) { this.periodEnd = periodEnd; }
+
+    public long getSpentMinor() { return spentMinor; }
+    public void setSpentMinor(long spentMinor) { this.spentMinor = spentMinor; }
+
+    public int getAlertLevel() { return alertLevel; }
+    public void setAlertLevel(int alertLevel) { this.alertLevel = alertLevel; }
+
+    public boolean isSynced() { return isSynced; }
+    public void setSynced(boolean synced) { isSynced = synced; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,205 @@
+package com.example.personal_finance_manager;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.app.AlertDialog;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.text.InputType;
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.personal_finance_manager.database.AppDatabase;
+import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.model.Budget;
+import com.example.personal_finance_manager.model.Category;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TransactionType;
+import com.example.personal_finance_manager.repository.BudgetTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Weekly and monthly spending limits; what is used comes from BudgetTracker, kept current by the triggers
+public class BudgetActivity extends AppCompatActivity {
+
+    private static final String ALL_EXPENSES = "Semua Pengeluaran";
+    private static final String[] PERIODS = {"Bulanan", "Mingguan"};
+
+    private LinearLayout layoutBudgets;
+    private TextView tvEmptyBudgets;
+    private Button btnAddBudget;
+
+    private AppDatabase database;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_budget);
+
+        database = DatabaseClient.getInstance(this).getAppDatabase();
+        layoutBudgets = findViewById(R.id.layoutBudgets);
+        tvEmptyBudgets = findViewById(R.id.tvEmptyBudgets);
+        btnAddBudget = findViewById(R.id.btnAddBudget);
+
+        btnAddBudget.setOnClickListener(v -> showBudgetDialog(null));
+
+        BudgetTracker.getInstance(this).getBudgets().observe(this, this::showBudgets);
+    }
+
+    private void showBudgets(List<BudgetTracker.Status> budgets) {
+        layoutBudgets.removeAllViews();
+        tvEmptyBudgets.setVisibility(budgets == null || budgets.isEmpty() ? View.VISIBLE : View.GONE);
+        if (budgets == null) {
+            return;
+        }
+        for (BudgetTracker.Status status : budgets) {
+            LinearLayout row = new LinearLayout(this);
+            row.setOrientation(LinearLayout.VERTICAL);
+            row.setPadding(0, dp(12), 0, dp(12));
+            row.setBackgroundResource(android.R.drawable.list_selector_background);
+            row.setOnClickListener(v -> showBudgetDialog(status));
+
+            TextView name = new TextView(this);
+            name.setText(status.getLabel() + " · " + DisplayFormat.formatRupiah(status.getLimitMinor()));
+            name.setTextSize(14);
+            name.setTextColor(Color.parseColor("#212121"));
+            row.addView(name);
+
+            ProgressBar progress = new ProgressBar(this, null, android.R.attr.progressBarStyleHorizontal);
+            progress.setMax(100);
+            progress.setProgress(Math.min(100, status.getUsedPercent()));
+            row.addView(progress, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, dp(12)));
+
+            long remaining = status.getRemainingMinor();
+            TextView details = new TextView(this);
+            details.setText("Terpakai " + DisplayFormat.formatRupiah(status.getSpentMinor())
+                    + " (" + status.getUsedPercent() + "%) · "
+                    + (remaining >= 0
+                    ? "sisa " + DisplayFormat.formatRupiah(remaining)
+                    : "lebih " + DisplayFormat.formatRupiah(-remaining))
+                    + " · peringatan di " + status.getAlertPercent() + "%");
+            details.setTextSize(12);
+            details.setTextColor(Color.parseColor(status.getAlertLevel() >= Budget.LEVEL_EXCEEDED ? "#D32F2F" : "#757575"));
+            row.addView(details);
+
+            layoutBudgets.addView(row);
+        }
+    }
+
+    // Adds a budget, or edits one when given; category and period of an existing budget stay fixed
+    private void showBudgetDialog(BudgetTracker.Status existing) {
+        List<String> categories = new ArrayList<>();
+        categories.add(ALL_EXPENSES);
+        for (Category category : CategoryRegistry.forType(TransactionType.EXPENSE_NAME)) {
+            categories.add(category.getName());
+        }
+
+        LinearLayout form = new LinearLayout(this);
+        form.setOrientation(LinearLayout.VERTICAL);
+        form.setPadding(dp(20), dp(8), dp(20), 0);
+
+        Spinner spinnerCategory = new Spinner(this);
+        spinnerCategory.setAdapter(new ArrayAdapter<>(this, android.R.layout.simple_spinner_dropdown_item, categories));
+        form.addView(spinnerCategory);
+
+        Spinner spinnerPeriod = new Spinner(this);
+        spinnerPeriod.setAdapter(new ArrayAdapter<>(this, android.R.layout.simple_spinner_dropdown_item, PERIODS));
+        form.addView(spinnerPeriod);
+
+        EditText etLimit = new EditText(this);
+        etLimit.setHint("Batas (Rp)");
+        etLimit.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        form.addView(etLimit);
+
+        EditText etAlert = new EditText(this);
+        etAlert.setHint("Peringatan pada (%)");
+        etAlert.setInputType(InputType.TYPE_CLASS_NUMBER);
+        etAlert.setText(String.valueOf(Budget.DEFAULT_ALERT_PERCENT));
+        form.addView(etAlert);
+
+        if (existing != null) {
+            int position = existing.getCategory() == null ? 0 : categories.indexOf(existing.getCategory());
+            if (position < 0) {
+                categories.add(existing.getCategory());
+                position = categories.size() - 1;
+            }
+            spinnerCategory.setSelection(position);
+            spinnerPeriod.setSelection(existing.getPeriod() == Budget.WEEKLY ? 1 : 0);
+            spinnerCategory.setEnabled(false);
+            spinnerPeriod.setEnabled(false);
+            etLimit.setText(Money.toDecimal(existing.getLimitMinor()).stripTrailingZeros().toPlainString());
+            etAlert.setText(String.valueOf(existing.getAlertPercent()));
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this)
+                .setTitle(existing == null ? "Anggaran Baru" : "Ubah Anggaran")
+                .setView(form)
+                .setPositiveButton("Simpan", (dialog, which) -> {
+                    String category = (String) spinnerCategory.getSelectedItem();
+                    saveBudget(ALL_EXPENSES.equals(category) ? null : category,
+                            spinnerPeriod.getSelectedItemPosition() == 1 ? Budget.WEEKLY : Budget.MONTHLY,
+                            etLimit.getText().toString().trim(), etAlert.getText().toString().trim());
+                })
+                .setNegativeButton("Batal", null);
+        if (existing != null) {
+            builder.setNeutralButton("Hapus", (dialog, which) -> deleteBudget(existing));
+        }
+        builder.show();
+    }
+
+    private void saveBudget(String category, int period, String limitText, String alertText) {
+        long limitMinor;
+        int alertPercent;
+        try {
+            limitMinor = Money.parse(limitText);
+            alertPercent = TextUtils.isEmpty(alertText) ? Budget.DEFAULT_ALERT_PERCENT : Integer.parseInt(alertText);
+        } catch (NumberFormatException | ArithmeticException e) {
+            Toast.makeText(this, "Format jumlah tidak valid", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (limitMinor <= 0) {
+            Toast.makeText(this, "Batas harus lebih dari 0", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (alertPercent < 1 || alertPercent > 100) {
+            Toast.makeText(this, "Peringatan harus antara 1 dan 100%", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        Budget budget = new Budget(category, period, limitMinor, alertPercent);
+        // The list follows once BudgetTracker reloads
+        DatabaseClient.getInstance(this).getWriteExecutor().execute(() -> {
+            try {
+                database.budgetDao().save(budget, System.currentTimeMillis());
+                BudgetTracker.getInstance(this).invalidate();
+                runOnUiThread(() -> Toast.makeText(this, "Anggaran disimpan", Toast.LENGTH_SHORT).show());
+            } catch (IllegalArgumentException e) {
+                runOnUiThread(() -> Toast.makeText(this, "Kategori tidak dikenal", Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
+
+    // Kept as a tombstone until the deletion is synced
+    private void deleteBudget(BudgetTracker.Status status) {
+        DatabaseClient.getInstance(this).getWriteExecutor().execute(() -> {
+            database.budgetDao().markDeleted(status.getId(), System.currentTimeMillis());
+            BudgetTracker.getInstance(this).invalidate();
+            runOnUiThread(() -> Toast.makeText(this, "Anggaran dihapus", Toast.LENGTH_SHORT).show());
+        });
+    }
+
+    private int dp(int value) {
+        return Math.round(value * getResources().getDisplayMetrics().density);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.personal_finance_manager.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.personal_finance_manager.database.CategoryDictionary;
+import com.example.personal_finance_manager.model.Budget;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import java.util.List;
+
+@Dao
+public interface BudgetDao {
+
+    @Query("SELECT * FROM budget WHERE deleted = 0 ORDER BY period DESC, category IS NOT NULL, id")
+    List<Budget> getActive();
+
+    // Includes deletions still to be sent
+    @Query("SELECT * FROM budget WHERE isSynced = 0")
+    List<Budget> getUnsynced();
+
+    // Deleted rows too, so re-adding a budget takes over its tombstone instead of hitting the unique index
+    @Query("SELECT * FROM budget WHERE period = :period AND category IS :categoryId")
+    Budget find(int period, Integer categoryId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(Budget budget);
+
+    // Moves a budget to the period [start, end) and counts the expenses already in it; alerts start over.
+    // The current period is never archived, so the hot rows hold all of it.
+    @Query("UPDATE budget SET periodStart = :start, periodEnd = :end, alertLevel = 0, spentMinor = "
+            + "(SELECT COALESCE(SUM(t.amountMinor), 0) FROM 'transaction' t WHERE t.type = " + TransactionType.EXPENSE
+            + " AND t.date >= :start AND t.date < :end AND (budget.category IS NULL OR t.category = budget.category)) "
+            + "WHERE id = :id")
+    void startPeriod(long id, long start, long end);
+
+    @Query("UPDATE budget SET alertLevel = :level WHERE id = :id AND alertLevel < :level")
+    void raiseAlertLevel(long id, int level);
+
+    @Query("UPDATE budget SET deleted = 1, isSynced = 0, updatedAt = :now WHERE id = :id")
+    void markDeleted(long id, long now);
+
+    @Query("UPDATE budget SET isSynced = 1 WHERE id IN (:ids)")
+    void markSyncedRows(List<Long> ids);
+
+    @Query("DELETE FROM budget WHERE deleted = 1 AND isSynced = 1")
+    void purgeSyncedDeletions();
+
+    // Adds a budget, or replaces the one with the same category and period, and counts its current period
+    @androidx.room.Transaction
+    default void save(Budget budget, long now) {
+        Integer categoryId = CategoryDictionary.idOf(budget.getCategory());
+        if (budget.getCategory() != null && categoryId == null) {
+            // Would be stored as NULL, i.e. silently become a budget over all expenses
+            throw new IllegalArgumentException("Unknown category: " + budget.getCategory());
+        }
+        Budget existing = find(budget.getPeriod(), categoryId);
+        if (existing != null) {
+            budget.setId(existing.getId());
+        }
+        long[] bounds = Budget.periodAround(budget.getPeriod(), now);
+        budget.setDeleted(false);
+        budget.setSynced(false);
+        budget.setUpdatedAt(now);
+        upsert(budget);
+        startPeriod(budget.getId(), bounds[0], bounds[1]);
+    }
+
+    @androidx.room.Transaction
+    default void markSynced(List<Long> ids) {
+        markSyncedRows(ids);
+        purgeSyncedDeletions();
+    }
+}
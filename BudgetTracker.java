@@ -0,0 +1,280 @@
+package com.example.personal_finance_manager.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.personal_finance_manager.database.AppDatabase;
+import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.dao.BudgetDao;
+import com.example.personal_finance_manager.model.Budget;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Budgets and what is left of them, served from memory.
+ *
+ * The database keeps each budget's spentMinor current through triggers on
+ * `transaction`. This class holds the same counters in an immutable snapshot
+ * keyed by category name, so "how much of my Makanan budget is left" is one
+ * map lookup on any thread. The write paths of the app call {@link #record}
+ * on the write executor right after a write commits; it moves the counters by
+ * the row's amount and compares them against the thresholds in memory, so
+ * alerts need no query. Writes that skip record() (sync, clearing all data,
+ * editing a budget) call {@link #invalidate} instead, which reloads the
+ * snapshot, also on the write executor so it can never slip in between a
+ * write and its record(). The budget table itself is not observed: every
+ * tracked write fires its triggers and raiseAlertLevel, and reloading on
+ * those would undo the point of keeping the counters in memory.
+ *
+ * The reload also moves budgets whose period has ended into the current one,
+ * which is the only time their expenses are summed.
+ */
+public final class BudgetTracker {
+    private static final String TAG = "BudgetTracker";
+
+    private static volatile BudgetTracker instance;
+
+    private final AppDatabase database;
+    private final Executor writeExecutor;
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+    // Every budget, republished after each reload
+    private final MutableLiveData<List<Status>> budgets = new MutableLiveData<>();
+
+    private BudgetTracker(DatabaseClient client) {
+        database = client.getAppDatabase();
+        writeExecutor = client.getWriteExecutor();
+        scheduleReload();
+    }
+
+    public static BudgetTracker getInstance(Context context) {
+        BudgetTracker tracker = instance;
+        if (tracker == null) {
+            synchronized (BudgetTracker.class) {
+                if (instance == null) {
+                    instance = new BudgetTracker(DatabaseClient.getInstance(context.getApplicationContext()));
+                }
+                tracker = instance;
+            }
+        }
+        return tracker;
+    }
+
+    // Budgets an expense in this category counts against: the category's own first, then the overall ones
+    public List<Status> forCategory(String category) {
+        Snapshot current = snapshot;
+        if (System.currentTimeMillis() >= current.nextPeriodEnd) {
+            scheduleReload();
+        }
+        return current.forCategory(category);
+    }
+
+    public List<Status> getAll() {
+        return snapshot.all;
+    }
+
+    public LiveData<List<Status>> getBudgets() {
+        return budgets;
+    }
+
+    @WorkerThread
+    public List<Status> record(Transaction transaction, int sign) {
+        if (transaction.getDate() == null) {
+            return Collections.emptyList();
+        }
+        return record(transaction.getType(), transaction.getCategory(), transaction.getDate().getTime(),
+                transaction.getAmountMinor(), sign);
+    }
+
+    // Applies a committed write of one row (sign +1 added, -1 removed) and returns the budgets it pushed past a
+    // threshold for the first time this period. Call on the write executor, in the same task as the write.
+    @WorkerThread
+    public List<Status> record(String type, String category, long date, long amountMinor, int sign) {
+        if (!TransactionType.EXPENSE_NAME.equals(type)) {
+            return Collections.emptyList();
+        }
+        List<Status> crossed = null;
+        for (Status status : snapshot.forCategory(category)) {
+            if (!status.covers(date)) {
+                continue;
+            }
+            status.spentMinor = sign > 0
+                    ? Money.add(status.spentMinor, amountMinor)
+                    : Money.subtract(status.spentMinor, amountMinor);
+            int level = Budget.levelOf(status.spentMinor, status.limitMinor, status.alertPercent);
+            if (level > status.alertLevel) {
+                status.alertLevel = level;
+                // Kept so the same alert does not fire again after a restart
+                database.budgetDao().raiseAlertLevel(status.id, level);
+                if (crossed == null) {
+                    crossed = new ArrayList<>();
+                }
+                crossed.add(status);
+            }
+        }
+        return crossed == null ? Collections.emptyList() : crossed;
+    }
+
+    // Reloads the snapshot after a write that changed budgets or expenses without going through record()
+    public void invalidate() {
+        scheduleReload();
+    }
+
+    private void scheduleReload() {
+        if (reloadQueued.compareAndSet(false, true)) {
+            writeExecutor.execute(this::reload);
+        }
+    }
+
+    @WorkerThread
+    private void reload() {
+        // Cleared first, so an invalidate() arriving mid-read queues another pass
+        reloadQueued.set(false);
+        try {
+            BudgetDao dao = database.budgetDao();
+            long now = System.currentTimeMillis();
+            List<Budget> rows = dao.getActive();
+            boolean rolled = false;
+            for (Budget budget : rows) {
+                if (now < budget.getPeriodStart() || now >= budget.getPeriodEnd()) {
+                    long[] bounds = Budget.periodAround(budget.getPeriod(), now);
+                    dao.startPeriod(budget.getId(), bounds[0], bounds[1]);
+                    rolled = true;
+                }
+            }
+            if (rolled) {
+                rows = dao.getActive();
+            }
+            snapshot = new Snapshot(rows);
+            budgets.postValue(snapshot.all);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to load budgets", e);
+        }
+    }
+
+    // Alert text for a budget record() returned
+    public static String alertMessage(Status status) {
+        StringBuilder out = new StringBuilder(status.getLabel());
+        if (status.alertLevel >= Budget.LEVEL_EXCEEDED) {
+            out.append(" terlampaui: ");
+        } else {
+            out.append(" sudah terpakai ").append(status.getUsedPercent()).append("%: ");
+        }
+        DisplayFormat.appendRupiah(out, status.spentMinor).append(" dari ");
+        return DisplayFormat.appendRupiah(out, status.limitMinor).toString();
+    }
+
+    public static final class Status {
+        private final long id;
+        private final String category;
+        private final int period;
+        private final long limitMinor;
+        private final int alertPercent;
+        private final long periodStart;
+        private final long periodEnd;
+        // Written only on the write executor
+        private volatile long spentMinor;
+        private volatile int alertLevel;
+
+        Status(Budget budget) {
+            id = budget.getId();
+            category = budget.getCategory();
+            period = budget.getPeriod();
+            limitMinor = budget.getLimitMinor();
+            alertPercent = budget.getAlertPercent();
+            periodStart = budget.getPeriodStart();
+            periodEnd = budget.getPeriodEnd();
+            spentMinor = budget.getSpentMinor();
+            alertLevel = budget.getAlertLevel();
+        }
+
+        public long getId() { return id; }
+        // Null for the budget over all expenses
+        public String getCategory() { return category; }
+        public int getPeriod() { return period; }
+        public long getLimitMinor() { return limitMinor; }
+        public int getAlertPercent() { return alertPercent; }
+        public long getSpentMinor() { return spentMinor; }
+        public int getAlertLevel() { return alertLevel; }
+
+        // Whether a transaction on this date counts against the current period
+        public boolean covers(long millis) {
+            return millis >= periodStart && millis < periodEnd;
+        }
+
+        // Negative once the budget is exceeded
+        public long getRemainingMinor() {
+            return Money.subtract(limitMinor, spentMinor);
+        }
+
+        public int getUsedPercent() {
+            return limitMinor <= 0 ? 100 : (int) Math.min(999, Math.round(spentMinor * 100.0 / limitMinor));
+        }
+
+        // e.g. "Anggaran Makanan bulan ini"
+        public String getLabel() {
+            return "Anggaran " + (category == null ? "total" : category)
+                    + (period == Budget.WEEKLY ? " minggu ini" : " bulan ini");
+        }
+    }
+
+    private static final class Snapshot {
+        final List<Status> all;
+        final List<Status> overall;
+        // Per category with a budget: its own budgets followed by the overall ones
+        final Map<String, List<Status>> byCategory;
+        // When the first budget runs out of its period and the counters need a reload
+        final long nextPeriodEnd;
+
+        Snapshot(List<Budget> budgets) {
+            List<Status> statuses = new ArrayList<>(budgets.size());
+            List<Status> overallBudgets = new ArrayList<>();
+            Map<String, List<Status>> own = new HashMap<>();
+            long firstEnd = Long.MAX_VALUE;
+            for (Budget budget : budgets) {
+                Status status = new Status(budget);
+                statuses.add(status);
+                firstEnd = Math.min(firstEnd, status.periodEnd);
+                if (status.category == null) {
+                    overallBudgets.add(status);
+                } else {
+                    List<Status> list = own.get(status.category);
+                    if (list == null) {
+                        list = new ArrayList<>();
+                        own.put(status.category, list);
+                    }
+                    list.add(status);
+                }
+            }
+            Map<String, List<Status>> combined = new HashMap<>();
+            for (Map.Entry<String, List<Status>> entry : own.entrySet()) {
+                List<Status> list = new ArrayList<>(entry.getValue());
+                list.addAll(overallBudgets);
+                combined.put(entry.getKey(), Collections.unmodifiableList(list));
+            }
+            all = Collections.unmodifiableList(statuses);
+            overall = Collections.unmodifiableList(overallBudgets);
+            byCategory = combined;
+            nextPeriodEnd = firstEnd;
+        }
+
+        List<Status> forCategory(String category) {
+            List<Status> statuses = category == null ? null : byCategory.get(category);
+            return statuses != null ? statuses : overall;
+        }
+    }
+}
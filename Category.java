@@ -1,18 +1,27 @@
 package com.example.personal_finance_manager.model;
 
-public class Category {
-    private String name;
-    private String type; // "income" or "expense"
-    private int iconResId;
+// Immutable and interned: CategoryRegistry creates exactly one instance per (type, name)
+public final class Category {
+    private final int id;
+    private final String name;
+    private final String type; // "income" or "expense"
+    private final int iconResId;
+    private final boolean custom;
 
-    public Category(String name, String type, int iconResId) {
+    Category(int id, String name, String type, int iconResId, boolean custom) {
+        this.id = id;
         this.name = name;
         this.type = type;
         this.iconResId = iconResId;
+        this.custom = custom;
     }
 
     // Getters
+    // Dense registry id, 0..n-1 in registration order; not the id stored in the `category` table
+    public int getId() { return id; }
     public String getName() { return name; }
     public String getType() { return type; }
     public int getIconResId() { return iconResId; }
+    // Added by the user and persisted in the `category` table, as opposed to predefined
+    public boolean isCustom() { return custom; }
 }
\ No newline at end of file
@@ -8,6 +8,9 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.personal_finance_manager.R;
@@ -15,42 +18,110 @@ import com.example.personal_finance_manager.model.Category;
 
 import java.util.List;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.ViewHolder> {
+// Lists are diffed off the main thread; a selection change only rebinds the old and the new cell
+public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.ViewHolder> {
+
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    private static final DiffUtil.ItemCallback<Category> DIFF_CALLBACK = new DiffUtil.ItemCallback<Category>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        // Categories are interned and immutable (see CategoryRegistry), so the same id means the same content
+        @Override
+        public boolean areContentsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem == newItem;
+        }
+    };
 
-    private List<Category> categories;
     private OnCategoryClickListener listener;
-    private int selectedPosition = -1;
+    // Selection follows the category, not its position, so it survives a list that is still being diffed
+    @Nullable
+    private Category selected;
+    // Most recently submitted list; getCurrentList() lags behind it until the diff is applied
+    private List<Category> latest;
     private Context context;
 
     public CategoryAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
+        setHasStableIds(true);
     }
 
     public void setCategories(List<Category> categories) {
-        this.categories = categories;
-        notifyDataSetChanged();
+        latest = categories;
+        submitList(categories);
     }
 
     public void setSelectedPosition(int position) {
-        this.selectedPosition = position;
-        notifyDataSetChanged();
+        List<Category> list = latest != null ? latest : getCurrentList();
+        Category category = position >= 0 && position < list.size() ? list.get(position) : null;
+        if (category == selected) {
+            return;
+        }
+        Category previous = selected;
+        selected = category;
+        notifySelectionChanged(previous);
+        notifySelectionChanged(category);
+    }
+
+    private void notifySelectionChanged(@Nullable Category category) {
+        if (category == null) {
+            return;
+        }
+        int position = getCurrentList().indexOf(category);
+        if (position >= 0) {
+            notifyItemChanged(position, PAYLOAD_SELECTION);
+        }
     }
 
     public void setOnCategoryClickListener(OnCategoryClickListener listener) {
         this.listener = listener;
     }
 
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_category, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+
+        // Set click listener once per holder; the position is read at click time
+        holder.itemView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION) {
+                listener.onCategoryClick(getItem(position), position);
+                setSelectedPosition(position);
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SELECTION) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        bindSelection(holder, getItem(position));
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Category category = categories.get(position);
+        Category category = getItem(position);
 
         // Set icon
         holder.icon.setImageResource(category.getIconResId());
@@ -58,28 +129,18 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.ViewHo
         // Set name
         holder.name.setText(category.getName());
 
-        // Show selection indicator if selected
-        if (position == selectedPosition) {
+        bindSelection(holder, category);
+    }
+
+    // Show selection indicator if selected
+    private void bindSelection(ViewHolder holder, Category category) {
+        if (category == selected) {
             holder.categoryContainer.setBackgroundResource(R.drawable.category_selected_bg);
             holder.name.setTextColor(context.getResources().getColor(android.R.color.white));
         } else {
             holder.categoryContainer.setBackgroundResource(R.drawable.category_normal_bg);
             holder.name.setTextColor(context.getResources().getColor(R.color.text_primary));
         }
-
-        // Set click listener
-        holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onCategoryClick(category, position);
-                selectedPosition = position;
-                notifyDataSetChanged();
-            }
-        });
-    }
-
-    @Override
-    public int getItemCount() {
-        return categories != null ? categories.size() : 0;
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
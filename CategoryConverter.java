@@ -0,0 +1,16 @@
+package com.example.personal_finance_manager.database;
+
+import androidx.room.TypeConverter;
+
+// Field-level converter: category names in Java, CategoryDictionary ids in the `category` columns
+public class CategoryConverter {
+    @TypeConverter
+    public static Integer toId(String name) {
+        return CategoryDictionary.idOf(name);
+    }
+
+    @TypeConverter
+    public static String toName(Integer id) {
+        return CategoryDictionary.nameOf(id);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.personal_finance_manager.database;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.personal_finance_manager.config.AppConfig;
+import com.example.personal_finance_manager.model.Category;
+import com.example.personal_finance_manager.model.CategoryEntry;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.TransactionFts;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the `category` table, so CategoryConverter can turn ids
+ * into names and back without a query per row. Loaded when the database
+ * opens; new names are inserted by TransactionDao before the rows that use
+ * them, and registered here once committed. User-created categories are
+ * handed on to CategoryRegistry as they load.
+ */
+public final class CategoryDictionary {
+    private static final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private static final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    private CategoryDictionary() {}
+
+    // Seeds the predefined categories, income first, so fresh databases get stable ids
+    public static void seed(SupportSQLiteDatabase db) {
+        for (Category category : AppConfig.getAllCategories()) {
+            if (!category.isCustom()) {
+                db.execSQL("INSERT OR IGNORE INTO category (name) VALUES (?)", new Object[]{category.getName()});
+            }
+        }
+    }
+
+    static void load(SupportSQLiteDatabase db) {
+        seed(db);
+        try (Cursor cursor = db.query("SELECT id, name, customType FROM category ORDER BY id")) {
+            while (cursor.moveToNext()) {
+                register(cursor.getInt(0), cursor.getString(1));
+                String customType = cursor.isNull(2) ? null : TransactionType.nameOf(cursor.getInt(2));
+                if (customType != null) {
+                    CategoryRegistry.registerCustom(customType, cursor.getString(1));
+                }
+            }
+        }
+    }
+
+    public static void register(CategoryEntry entry) {
+        register(entry.getId(), entry.getName());
+    }
+
+    private static void register(int id, String name) {
+        namesById.put(id, name);
+        idsByName.put(name, id);
+    }
+
+    public static Integer idOf(String name) {
+        return name == null ? null : idsByName.get(name);
+    }
+
+    public static String nameOf(Integer id) {
+        return id == null ? null : namesById.get(id);
+    }
+
+    // Names that still need a row in `category` before they can be stored
+    public static List<String> unknownNames(Collection<String> names) {
+        Set<String> unknown = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name != null && !idsByName.containsKey(name)) {
+                unknown.add(name);
+            }
+        }
+        return new ArrayList<>(unknown);
+    }
+
+    // Ids of categories where every search token is a prefix of some word of the name
+    public static List<Integer> idsMatching(List<String> tokens) {
+        List<Integer> ids = new ArrayList<>();
+        if (tokens.isEmpty()) {
+            return ids;
+        }
+        for (Map.Entry<Integer, String> entry : namesById.entrySet()) {
+            if (TransactionFts.matchesAll(tokens, entry.getValue())) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Dimension table behind the `category` columns: transactions and rollups
+ * store the integer id, the name lives here once. Loaded into
+ * CategoryDictionary when the database opens.
+ *
+ * Categories the user created also record the transaction type they belong
+ * to, so CategoryRegistry can offer them in the picker; for predefined names
+ * and names that only arrive on synced rows it stays null.
+ */
+@Entity(tableName = "category", indices = {@Index(value = {"name"}, unique = true)})
+public class CategoryEntry {
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+    @NonNull
+    private String name = "";
+    // TransactionType code of a user-created category, null otherwise
+    @Nullable
+    private Integer customType;
+
+    public CategoryEntry() {}
+
+    public CategoryEntry(@NonNull String name) {
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    @NonNull
+    public String getName() { return name; }
+    public void setName(@NonNull String name) { this.name = name; }
+
+    @Nullable
+    public Integer getCustomType() { return customType; }
+    public void setCustomType(@Nullable Integer customType) { this.customType = customType; }
+}
@@ -0,0 +1,49 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Expense statistics of one category in one calendar month (UTC), hot and
+ * archived rows together, as an encoded SpendStats. Built by
+ * SpendingStatistics from one pass over the month's rows and rebuilt only
+ * when daily_summary_change reports a changed day in that month.
+ */
+@Entity(tableName = "category_month_stats", primaryKeys = {"monthKey", "category"})
+public class CategoryMonthStats {
+    // Months since January 1970, as in ArchivedMonth
+    private int monthKey;
+    // Category id; 0 stands for a missing category
+    private int category;
+    // daily_summary_change seq the stats are current up to
+    private long builtSeq;
+    @NonNull
+    private byte[] payload = new byte[0];
+
+    public CategoryMonthStats() {}
+
+    public CategoryMonthStats(int monthKey, int category, long builtSeq, SpendStats stats) {
+        this.monthKey = monthKey;
+        this.category = category;
+        this.builtSeq = builtSeq;
+        this.payload = stats.encode();
+    }
+
+    public SpendStats toStats() {
+        return SpendStats.decode(payload);
+    }
+
+    // Getters and Setters
+    public int getMonthKey() { return monthKey; }
+    public void setMonthKey(int monthKey) { this.monthKey = monthKey; }
+
+    public int getCategory() { return category; }
+    public void setCategory(int category) { this.category = category; }
+
+    public long getBuiltSeq() { return builtSeq; }
+    public void setBuiltSeq(long builtSeq) { this.builtSeq = builtSeq; }
+
+    @NonNull
+    public byte[] getPayload() { return payload; }
+    public void setPayload(@NonNull byte[] payload) { this.payload = payload; }
+}
@@ -0,0 +1,187 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The one set of Category instances the app uses: the predefined income and
+ * expense categories, registered when the class loads, plus the user's own
+ * categories, registered by CategoryDictionary when the database opens and by
+ * AddTransactionActivity when one is created.
+ *
+ * Lookups by id, by name and by (type, name) read an immutable snapshot and
+ * never lock or allocate. Registering a category publishes a new snapshot,
+ * which only happens a handful of times per install.
+ */
+public final class CategoryRegistry {
+    // Icon of categories the user adds; predefined ones have their own
+    public static final int CUSTOM_ICON = android.R.drawable.ic_menu_add;
+
+    private static volatile Snapshot snapshot = new Snapshot();
+
+    // Returned for names nobody registered, e.g. rows synced from a device with other categories
+    public static final Category FALLBACK;
+
+    static {
+        define(TransactionType.INCOME_NAME, "Gaji", android.R.drawable.ic_menu_month);
+        define(TransactionType.INCOME_NAME, "Bonus", android.R.drawable.ic_menu_agenda);
+        define(TransactionType.INCOME_NAME, "Investasi", android.R.drawable.ic_menu_share);
+        define(TransactionType.INCOME_NAME, "Freelance", android.R.drawable.ic_menu_edit);
+        define(TransactionType.INCOME_NAME, "Hadiah", android.R.drawable.ic_menu_gallery);
+        define(TransactionType.INCOME_NAME, "Penjualan", android.R.drawable.ic_menu_save);
+        define(TransactionType.INCOME_NAME, "Lainnya", android.R.drawable.ic_menu_more);
+
+        define(TransactionType.EXPENSE_NAME, "Makanan", android.R.drawable.ic_lock_lock);
+        define(TransactionType.EXPENSE_NAME, "Transportasi", android.R.drawable.ic_menu_directions);
+        define(TransactionType.EXPENSE_NAME, "Hiburan", android.R.drawable.ic_menu_slideshow);
+        define(TransactionType.EXPENSE_NAME, "Belanja", android.R.drawable.ic_menu_my_calendar);
+        define(TransactionType.EXPENSE_NAME, "Kesehatan", android.R.drawable.ic_menu_myplaces);
+        define(TransactionType.EXPENSE_NAME, "Pendidikan", android.R.drawable.ic_menu_edit);
+        define(TransactionType.EXPENSE_NAME, "Tagihan", android.R.drawable.ic_menu_set_as);
+        define(TransactionType.EXPENSE_NAME, "Pulsa/Internet", android.R.drawable.ic_menu_call);
+        define(TransactionType.EXPENSE_NAME, "Pajak", android.R.drawable.ic_menu_manage);
+        define(TransactionType.EXPENSE_NAME, "Donasi", android.R.drawable.ic_menu_help);
+        define(TransactionType.EXPENSE_NAME, "Lainnya", android.R.drawable.ic_menu_more);
+
+        FALLBACK = byTypeAndName(TransactionType.EXPENSE_NAME, "Lainnya");
+    }
+
+    private CategoryRegistry() {}
+
+    private static void define(String type, String name, int iconResId) {
+        register(type, name, iconResId, false);
+    }
+
+    // Registers a user category, or returns the existing one with that type and name
+    public static Category registerCustom(String type, String name) {
+        return register(type, name, CUSTOM_ICON, true);
+    }
+
+    private static synchronized Category register(String type, String name, int iconResId, boolean custom) {
+        if (byType(snapshot, type) == null) {
+            throw new IllegalArgumentException("Unknown transaction type: " + type);
+        }
+        Category existing = byTypeAndName(type, name);
+        if (existing != null) {
+            return existing;
+        }
+        Snapshot current = snapshot;
+        Category category = new Category(current.byId.length, name, type, iconResId, custom);
+        snapshot = new Snapshot(current, category);
+        return category;
+    }
+
+    @Nullable
+    public static Category byId(int id) {
+        Category[] byId = snapshot.byId;
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    // First registered wins, so a name used by both types resolves to its income category
+    @Nullable
+    public static Category byName(String name) {
+        return name == null ? null : snapshot.byName.get(name);
+    }
+
+    @Nullable
+    public static Category byTypeAndName(String type, String name) {
+        if (name == null) {
+            return null;
+        }
+        Map<String, Category> byName = byType(snapshot, type);
+        return byName == null ? null : byName.get(name);
+    }
+
+    // Category of a stored row: exact match, then any type, then FALLBACK
+    public static Category resolve(String type, String name) {
+        Category category = byTypeAndName(type, name);
+        if (category == null) {
+            category = byName(name);
+        }
+        return category != null ? category : FALLBACK;
+    }
+
+    // Picker order: predefined first, then the user's own in the order they were added
+    public static List<Category> forType(String type) {
+        Snapshot current = snapshot;
+        if (TransactionType.INCOME_NAME.equals(type)) {
+            return current.income;
+        }
+        if (TransactionType.EXPENSE_NAME.equals(type)) {
+            return current.expense;
+        }
+        return Collections.emptyList();
+    }
+
+    public static List<Category> all() {
+        return snapshot.all;
+    }
+
+    @Nullable
+    private static Map<String, Category> byType(Snapshot current, String type) {
+        if (TransactionType.INCOME_NAME.equals(type)) {
+            return current.incomeByName;
+        }
+        if (TransactionType.EXPENSE_NAME.equals(type)) {
+            return current.expenseByName;
+        }
+        return null;
+    }
+
+    private static final class Snapshot {
+        final Category[] byId;
+        final Map<String, Category> byName;
+        final Map<String, Category> incomeByName;
+        final Map<String, Category> expenseByName;
+        final List<Category> income;
+        final List<Category> expense;
+        final List<Category> all;
+
+        Snapshot() {
+            byId = new Category[0];
+            byName = Collections.emptyMap();
+            incomeByName = Collections.emptyMap();
+            expenseByName = Collections.emptyMap();
+            income = Collections.emptyList();
+            expense = Collections.emptyList();
+            all = Collections.emptyList();
+        }
+
+        Snapshot(Snapshot previous, Category added) {
+            byId = Arrays.copyOf(previous.byId, previous.byId.length + 1);
+            byId[added.getId()] = added;
+
+            Map<String, Category> names = new HashMap<>(previous.byName);
+            if (!names.containsKey(added.getName())) {
+                names.put(added.getName(), added);
+            }
+            byName = Collections.unmodifiableMap(names);
+
+            boolean isIncome = TransactionType.INCOME_NAME.equals(added.getType());
+            incomeByName = isIncome ? with(previous.incomeByName, added) : previous.incomeByName;
+            expenseByName = isIncome ? previous.expenseByName : with(previous.expenseByName, added);
+            income = isIncome ? with(previous.income, added) : previous.income;
+            expense = isIncome ? previous.expense : with(previous.expense, added);
+            all = with(previous.all, added);
+        }
+
+        private static Map<String, Category> with(Map<String, Category> map, Category added) {
+            Map<String, Category> copy = new HashMap<>(map);
+            copy.put(added.getName(), added);
+            return Collections.unmodifiableMap(copy);
+        }
+
+        private static List<Category> with(List<Category> list, Category added) {
+            List<Category> copy = new ArrayList<>(list.size() + 1);
+            copy.addAll(list);
+            copy.add(added);
+            return Collections.unmodifiableList(copy);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.Entity;
+
+/**
+ * Per-day rollup of the transaction table, maintained by SQLite triggers
+ * (see DatabaseTriggers). One row per (type, day, category), keyed by the
+ * TransactionType code and category id; 0 stands for a missing type or category.
+ */
+@Entity(tableName = "daily_summary", primaryKeys = {"type", "epochDay", "category"})
+public class DailySummary {
+    public static final long DAY_MILLIS = 86400000L;
+
+    // Floor division of a millisecond column into a UTC epoch day, also correct for pre-1970 dates
+    public static final String EPOCH_DAY_OF_DATE =
+            "((date - (((date % 86400000) + 86400000) % 86400000)) / 86400000)";
+
+    private long epochDay;
+    private int type;
+    private int category;
+    // Minor units, see Money
+    private long totalMinor;
+    private int entryCount;
+
+    public static long epochDayOf(long timeMillis) {
+        return Math.floorDiv(timeMillis, DAY_MILLIS);
+    }
+
+    // Month (same keys as ArchivedMonth, months since January 1970) of a UTC epoch day, without a Calendar
+    public static int monthKeyOfDay(long epochDay) {
+        // Civil-from-days over 400-year eras of 146097 days, counted from 1 March of year 0
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 2 : shiftedMonth - 10;
+        long year = yearOfEra + era * 400 + (month < 2 ? 1 : 0);
+        return (int) ((year - 1970) * 12 + month);
+    }
+
+    // UTC epoch day of the first day of a month key
+    public static long firstDayOfMonth(int monthKey) {
+        long month = Math.floorMod(monthKey, 12);
+        long year = 1970 + Math.floorDiv(monthKey, 12) - (month < 2 ? 1 : 0);
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month < 2 ? month + 10 : month - 2) + 2) / 5;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Getters and Setters
+    public long getEpochDay() { return epochDay; }
+    public void setEpochDay(long epochDay) { this.epochDay = epochDay; }
+
+    public int getType() { return type; }
+    public void setType(int type) { this.type = type; }
+
+    public int getCategory() { return category; }
+    public void setCategory(int category) { this.category = category; }
+
+    public long getTotalMinor() { return totalMinor; }
+    public void setTotalMinor(long totalMinor) { this.totalMinor = totalMinor; }
+
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+}
@@ -0,0 +1,26 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Journal of the days whose daily_summary rows changed, written by SQLite
+ * triggers on daily_summary (see DatabaseTriggers). Each write to a day
+ * replaces its row with the next sequence number, so the table holds at most
+ * one row per day and "days changed since seq N" is an index range scan.
+ * TimeSeriesEngine uses it to re-read only those days.
+ */
+@Entity(tableName = "daily_summary_change", indices = {@Index(value = {"seq"})})
+public class DailySummaryChange {
+    @PrimaryKey
+    private long epochDay;
+    private long seq;
+
+    // Getters and Setters
+    public long getEpochDay() { return epochDay; }
+    public void setEpochDay(long epochDay) { this.epochDay = epochDay; }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+}
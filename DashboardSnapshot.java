@@ -0,0 +1,109 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Totals for one date range, read by a single statement so income,
+ * expense and counts always describe the same state of the table.
+ * Totals are in minor units (see Money).
+ *
+ * Immutable: PeriodCache hands the same instance to every screen and thread
+ * that asks for the range, so combining snapshots always returns a new one.
+ */
+public class DashboardSnapshot {
+    private static final DashboardSnapshot EMPTY = new DashboardSnapshot(0, 0, 0, 0, null, null);
+
+    private final long totalIncomeMinor;
+    private final long totalExpenseMinor;
+    private final int incomeCount;
+    private final int expenseCount;
+    @Nullable
+    private final Long firstDate;
+    @Nullable
+    private final Long lastDate;
+
+    // Also used by Room for the snapshot queries
+    public DashboardSnapshot(long totalIncomeMinor, long totalExpenseMinor, int incomeCount, int expenseCount,
+                             @Nullable Long firstDate, @Nullable Long lastDate) {
+        this.totalIncomeMinor = totalIncomeMinor;
+        this.totalExpenseMinor = totalExpenseMinor;
+        this.incomeCount = incomeCount;
+        this.expenseCount = expenseCount;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+    }
+
+    public static DashboardSnapshot empty() {
+        return EMPTY;
+    }
+
+    // With totals read elsewhere folded in, e.g. from the archive
+    public DashboardSnapshot plus(DashboardSnapshot other) {
+        return new DashboardSnapshot(
+                Money.add(totalIncomeMinor, other.totalIncomeMinor),
+                Money.add(totalExpenseMinor, other.totalExpenseMinor),
+                incomeCount + other.incomeCount,
+                expenseCount + other.expenseCount,
+                min(firstDate, other.firstDate),
+                max(lastDate, other.lastDate));
+    }
+
+    public DashboardSnapshot plus(Transaction row) {
+        if (row.getDate() == null) {
+            return withAmount(row.getType(), row.getAmountMinor(), 1);
+        }
+        return withRow(row.getType(), row.getDate().getTime(), row.getAmountMinor(), 1);
+    }
+
+    // Copy with one row added (sign 1) or taken out (sign -1), to show a write before it is read back.
+    // Taking a row out keeps firstDate and lastDate; the reload after the write settles them.
+    public DashboardSnapshot withRow(String type, long date, long amountMinor, int sign) {
+        DashboardSnapshot copy = withAmount(type, amountMinor, sign);
+        if (sign <= 0) {
+            return copy;
+        }
+        return new DashboardSnapshot(copy.totalIncomeMinor, copy.totalExpenseMinor, copy.incomeCount,
+                copy.expenseCount, min(firstDate, date), max(lastDate, date));
+    }
+
+    // Totals and counts moved by one row; dates untouched
+    private DashboardSnapshot withAmount(String type, long amountMinor, int sign) {
+        long delta = sign * amountMinor;
+        if (TransactionType.INCOME_NAME.equals(type)) {
+            return new DashboardSnapshot(Money.add(totalIncomeMinor, delta), totalExpenseMinor,
+                    incomeCount + sign, expenseCount, firstDate, lastDate);
+        }
+        if (TransactionType.EXPENSE_NAME.equals(type)) {
+            return new DashboardSnapshot(totalIncomeMinor, Money.add(totalExpenseMinor, delta),
+                    incomeCount, expenseCount + sign, firstDate, lastDate);
+        }
+        return this;
+    }
+
+    private static Long min(Long a, Long b) {
+        return a == null ? b : b == null ? a : Long.valueOf(Math.min(a, b));
+    }
+
+    private static Long max(Long a, Long b) {
+        return a == null ? b : b == null ? a : Long.valueOf(Math.max(a, b));
+    }
+
+    public long getBalanceMinor() { return totalIncomeMinor - totalExpenseMinor; }
+
+    public int getTransactionCount() { return incomeCount + expenseCount; }
+
+    // Getters
+    public long getTotalIncomeMinor() { return totalIncomeMinor; }
+
+    public long getTotalExpenseMinor() { return totalExpenseMinor; }
+
+    public int getIncomeCount() { return incomeCount; }
+
+    public int getExpenseCount() { return expenseCount; }
+
+    @Nullable
+    public Long getFirstDate() { return firstDate; }
+
+    @Nullable
+    public Long getLastDate() { return lastDate; }
+}
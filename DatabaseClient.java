@@ -2,16 +2,59 @@ package com.example.personal_finance_manager.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DatabaseClient {
+    // Matches the framework's default WAL connection pool, so every read thread can hold its own connection
+    private static final int READ_POOL_SIZE = 4;
+
+    public static final String DATABASE_NAME = "finance_db";
+
+    // Schema pieces Room does not create from the entities; package-private so tests can open the same schema
+    static final RoomDatabase.Callback SCHEMA_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            DatabaseTriggers.createDailySummaryTriggers(db);
+            DatabaseTriggers.createSummaryChangeTriggers(db);
+            DatabaseTriggers.createBudgetTriggers(db);
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            // Category names are resolved from memory by CategoryConverter
+            CategoryDictionary.load(db);
+        }
+    };
+
     private static DatabaseClient instance;
     private AppDatabase appDatabase;
 
+    // All reads run on a pool; all writes are funnelled through one thread so they never contend with each other
+    private final ExecutorService readExecutor = Executors.newFixedThreadPool(READ_POOL_SIZE, namedThreads("db-read"));
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(namedThreads("db-write"));
+
     private DatabaseClient(Context context) {
-        appDatabase = Room.databaseBuilder(context, AppDatabase.class, "finance_db")
-                .fallbackToDestructiveMigration()
+        appDatabase = Room.databaseBuilder(context, AppDatabase.class, DATABASE_NAME)
+                // WAL lets readers keep going while the writer commits
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(readExecutor)
+                .setTransactionExecutor(writeExecutor)
+                .addMigrations(Migrations.ALL)
+                // Runs on the calling thread so QueryStats can attribute each statement to its DAO call
+                .setQueryCallback(QueryStats.getInstance(), Runnable::run)
+                .addCallback(SCHEMA_CALLBACK)
                 .build();
+        QueryStats.getInstance().attach(appDatabase.getOpenHelper(), readExecutor);
+        // Registered before any screen's observer, so the version moves before they reload
+        PeriodCache.getInstance().attach(appDatabase);
     }
 
     public static synchronized DatabaseClient getInstance(Context context) {
@@ -24,4 +67,21 @@ public class DatabaseClient {
     public AppDatabase getAppDatabase() {
         return appDatabase;
     }
+
+    public ExecutorService getReadExecutor() {
+        return readExecutor;
+    }
+
+    public ExecutorService getWriteExecutor() {
+        return writeExecutor;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.personal_finance_manager.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.personal_finance_manager.model.MaintenanceRun;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Housekeeping that SQLite never does on its own: planner statistics,
+ * returning free pages to the file system and checking the file for
+ * corruption. Every pass is recorded in maintenance_log.
+ *
+ * Must run on the write executor: VACUUM and incremental_vacuum need the
+ * writer, and nothing else may hold a transaction open meanwhile.
+ */
+public final class DatabaseMaintenance {
+    private static final String TAG = "DatabaseMaintenance";
+
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final int MAX_INTEGRITY_MESSAGES = 5;
+
+    private DatabaseMaintenance() {}
+
+    public static MaintenanceRun run(Context context) {
+        AppDatabase database = DatabaseClient.getInstance(context).getAppDatabase();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        File file = context.getDatabasePath(DatabaseClient.DATABASE_NAME);
+
+        MaintenanceRun run = new MaintenanceRun();
+        long started = SystemClock.elapsedRealtime();
+        run.setStartedAt(System.currentTimeMillis());
+        run.setPageSize(pragmaLong(db, "page_size"));
+        run.setFileSizeBefore(sizeOf(file));
+        run.setPageCountBefore(pragmaLong(db, "page_count"));
+        run.setFreePagesBefore(pragmaLong(db, "freelist_count"));
+        List<String> steps = new ArrayList<>();
+
+        // Planner statistics: a full ANALYZE once, after that optimize re-analyzes only tables that changed a lot
+        if (!hasStatistics(db)) {
+            db.execSQL("ANALYZE");
+            steps.add("analyze");
+        }
+        consume(db, "PRAGMA optimize");
+        steps.add("optimize");
+
+        run.setIntegrity(integrityCheck(db));
+        if (run.isHealthy()) {
+            if (pragmaLong(db, "auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                // auto_vacuum only changes through a full VACUUM, which cannot run inside a migration's
+                // transaction; it happens once here, later passes only hand back free pages
+                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                db.execSQL("VACUUM");
+                steps.add("vacuum");
+            } else if (run.getFreePagesBefore() > 0) {
+                consume(db, "PRAGMA incremental_vacuum");
+                steps.add("incremental_vacuum " + run.getFreePagesBefore());
+            }
+            // Shrinks the WAL file back to zero so the freed space shows up on disk
+            consume(db, "PRAGMA wal_checkpoint(TRUNCATE)");
+            steps.add("checkpoint");
+        } else {
+            Log.e(TAG, "Integrity check failed: " + run.getIntegrity());
+        }
+
+        run.setFileSizeAfter(sizeOf(file));
+        run.setPageCountAfter(pragmaLong(db, "page_count"));
+        run.setFreePagesAfter(pragmaLong(db, "freelist_count"));
+        run.setSteps(TextUtils.join(", ", steps));
+        run.setDurationMillis(SystemClock.elapsedRealtime() - started);
+        database.maintenanceDao().record(run);
+        Log.d(TAG, run.getSteps() + " in " + run.getDurationMillis() + " ms, "
+                + run.getFileSizeBefore() + " -> " + run.getFileSizeAfter() + " bytes");
+        return run;
+    }
+
+    private static boolean hasStatistics(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'sqlite_stat1'")) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    private static String integrityCheck(SupportSQLiteDatabase db) {
+        List<String> messages = new ArrayList<>();
+        try (Cursor cursor = db.query("PRAGMA integrity_check(" + MAX_INTEGRITY_MESSAGES + ")")) {
+            while (cursor.moveToNext()) {
+                messages.add(cursor.getString(0));
+            }
+        }
+        return messages.isEmpty() ? "no result" : TextUtils.join("; ", messages);
+    }
+
+    private static long pragmaLong(SupportSQLiteDatabase db, String pragma) {
+        try (Cursor cursor = db.query("PRAGMA " + pragma)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+        }
+    }
+
+    // Pragmas that do their work while being stepped, so they go through query() instead of execSQL()
+    private static void consume(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            while (cursor.moveToNext()) {
+                // Drain
+            }
+        }
+    }
+
+    private static long sizeOf(File file) {
+        return file.length() + new File(file.getPath() + "-wal").length();
+    }
+}
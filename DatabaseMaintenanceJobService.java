@@ -0,0 +1,77 @@
+package com.example.personal_finance_manager.service;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.DatabaseMaintenance;
+import com.example.personal_finance_manager.repository.TransactionArchiver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily database housekeeping while the device is idle and charging:
+ * archives old history first, so the vacuum that follows can hand the
+ * freed pages back right away.
+ */
+public class DatabaseMaintenanceJobService extends JobService {
+    private static final String TAG = "DatabaseMaintenanceJob";
+    private static final int JOB_ID = 1001;
+    private static final long INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    // Safe to call on every start; an already scheduled job is left alone
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        for (JobInfo pending : scheduler.getAllPendingJobs()) {
+            if (pending.getId() == JOB_ID) {
+                return;
+            }
+        }
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, DatabaseMaintenanceJobService.class))
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .setPeriodic(INTERVAL_MILLIS)
+                .build();
+        scheduler.schedule(job);
+    }
+
+    // Runs every step of the job now, on the write executor, e.g. from Settings
+    public static void runNow(Context context, Runnable onDone) {
+        Context appContext = context.getApplicationContext();
+        DatabaseClient.getInstance(appContext).getWriteExecutor().execute(() -> {
+            runMaintenance(appContext);
+            onDone.run();
+        });
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        runNow(this, () -> jobFinished(params, false));
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // A pass that is already running finishes anyway; the next period picks up whatever was left
+        return false;
+    }
+
+    private static void runMaintenance(Context context) {
+        try {
+            TransactionArchiver.archive(DatabaseClient.getInstance(context).getAppDatabase(),
+                    TransactionArchiver.getHorizonMonths(context), System.currentTimeMillis());
+        } catch (Exception e) {
+            Log.e(TAG, "Archiving failed", e);
+        }
+        try {
+            DatabaseMaintenance.run(context);
+        } catch (Exception e) {
+            Log.e(TAG, "Maintenance failed", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.personal_finance_manager.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.personal_finance_manager.model.TransactionType;
+
+/**
+ * Triggers that keep derived tables and budget consumption in step with
+ * `transaction`, and the change journal of daily_summary in step with daily_summary.
+ * Room has no annotation for triggers, so they are installed from the
+ * database callback on first creation. This class always builds the current
+ * schema's triggers; migrations install frozen copies of the DDL of their own
+ * version (see Migrations), so a change here must come with a new migration.
+ */
+public final class DatabaseTriggers {
+
+    private DatabaseTriggers() {}
+
+    private static String epochDay(String row) {
+        return "((" + row + ".date - (((" + row + ".date % 86400000) + 86400000) % 86400000)) / 86400000)";
+    }
+
+    private static String addToSummary(String row, String sign) {
+        String day = epochDay(row);
+        String type = "COALESCE(" + row + ".type, 0)";
+        String category = "COALESCE(" + row + ".category, 0)";
+        String upsert = "";
+        if ("+".equals(sign)) {
+            upsert = "INSERT OR IGNORE INTO daily_summary (type, epochDay, category, totalMinor, entryCount) "
+                    + "VALUES (" + type + ", " + day + ", " + category + ", 0, 0); ";
+        }
+        return upsert
+                + "UPDATE daily_summary SET totalMinor = totalMinor " + sign + " " + row + ".amountMinor, "
+                + "entryCount = entryCount " + sign + " 1 "
+                + "WHERE type = " + type + " AND epochDay = " + day + " AND category = " + category + "; ";
+    }
+
+    private static final String DELETE_EMPTY_SUMMARIES =
+            "DELETE FROM daily_summary WHERE entryCount <= 0; ";
+
+    public static void createDailySummaryTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_summary_insert "
+                + "AFTER INSERT ON `transaction` WHEN NEW.date IS NOT NULL BEGIN "
+                + addToSummary("NEW", "+")
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_summary_delete "
+                + "AFTER DELETE ON `transaction` WHEN OLD.date IS NOT NULL BEGIN "
+                + addToSummary("OLD", "-")
+                + DELETE_EMPTY_SUMMARIES
+                + "END");
+
+        // Split into two triggers because an update may move a row into or out of a NULL date
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_old "
+                + "AFTER UPDATE OF date, type, category, amountMinor ON `transaction` WHEN OLD.date IS NOT NULL BEGIN "
+                + addToSummary("OLD", "-")
+                + DELETE_EMPTY_SUMMARIES
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_new "
+                + "AFTER UPDATE OF date, type, category, amountMinor ON `transaction` WHEN NEW.date IS NOT NULL BEGIN "
+                + addToSummary("NEW", "+")
+                + "END");
+    }
+
+    private static String journalChange(String row) {
+        return "INSERT OR REPLACE INTO daily_summary_change (epochDay, seq) "
+                + "VALUES (" + row + ".epochDay, (SELECT COALESCE(MAX(seq), 0) + 1 FROM daily_summary_change)); ";
+    }
+
+    // Journals every changed day of daily_summary, whether the transaction triggers or a rebuild changed it
+    public static void createSummaryChangeTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_summary_change_insert "
+                + "AFTER INSERT ON daily_summary BEGIN "
+                + journalChange("NEW")
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_summary_change_update "
+                + "AFTER UPDATE ON daily_summary BEGIN "
+                + journalChange("NEW")
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_summary_change_delete "
+                + "AFTER DELETE ON daily_summary BEGIN "
+                + journalChange("OLD")
+                + "END");
+    }
+
+    // Moves spentMinor of every live budget whose current period holds the row's date and whose category matches
+    private static String addToBudgets(String row, String sign) {
+        return "UPDATE budget SET spentMinor = spentMinor " + sign + " " + row + ".amountMinor "
+                + "WHERE deleted = 0 AND " + row + ".date >= periodStart AND " + row + ".date < periodEnd "
+                + "AND (category IS NULL OR category = " + row + ".category); ";
+    }
+
+    private static String isExpense(String row) {
+        return row + ".type = " + TransactionType.EXPENSE + " AND " + row + ".date IS NOT NULL";
+    }
+
+    // Budget consumption: one UPDATE over the handful of budget rows per write, see Budget
+    public static void createBudgetTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_budget_insert "
+                + "AFTER INSERT ON `transaction` WHEN " + isExpense("NEW") + " BEGIN "
+                + addToBudgets("NEW", "+")
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_budget_delete "
+                + "AFTER DELETE ON `transaction` WHEN " + isExpense("OLD") + " BEGIN "
+                + addToBudgets("OLD", "-")
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_budget_update_old "
+                + "AFTER UPDATE OF date, type, category, amountMinor ON `transaction` WHEN " + isExpense("OLD") + " BEGIN "
+                + addToBudgets("OLD", "-")
+                + "END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_budget_update_new "
+                + "AFTER UPDATE OF date, type, category, amountMinor ON `transaction` WHEN " + isExpense("NEW") + " BEGIN "
+                + addToBudgets("NEW", "+")
+                + "END");
+    }
+
+    public static void dropDailySummaryTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS trg_daily_summary_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS trg_daily_summary_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS trg_daily_summary_update_old");
+        db.execSQL("DROP TRIGGER IF EXISTS trg_daily_summary_update_new");
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.personal_finance_manager.model;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Rupiah amounts and dd/MM/yyyy dates for list rows and CSV exports, written
+ * straight into a StringBuilder. Digits come from the minor-unit long itself,
+ * so no NumberFormat or double is involved, and the calendar work for a date
+ * is done once per local day and kept per thread. Appending a row's amount
+ * and date allocates nothing; the format* helpers allocate only their result.
+ *
+ * Amounts match NumberFormat.getCurrencyInstance(id_ID): "Rp1.234.567,89",
+ * "-Rp500,00".
+ */
+public final class DisplayFormat {
+    private static final ThreadLocal<State> STATE = new ThreadLocal<State>() {
+        @Override
+        protected State initialValue() {
+            return new State();
+        }
+    };
+
+    private DisplayFormat() {}
+
+    public static StringBuilder appendRupiah(StringBuilder out, long amountMinor) {
+        // Negative quotient and remainder so Long.MIN_VALUE needs no special case
+        long negUnits = amountMinor < 0 ? amountMinor / Money.MINOR_PER_UNIT : -(amountMinor / Money.MINOR_PER_UNIT);
+        int cents = (int) Math.abs(amountMinor % Money.MINOR_PER_UNIT);
+        if (amountMinor < 0) {
+            out.append('-');
+        }
+        out.append("Rp");
+        appendGrouped(out, negUnits);
+        return out.append(',').append((char) ('0' + cents / 10)).append((char) ('0' + cents % 10));
+    }
+
+    // Groups of three digits separated by '.', from a value <= 0
+    private static void appendGrouped(StringBuilder out, long negValue) {
+        if (negValue > -1000) {
+            out.append(-negValue);
+            return;
+        }
+        appendGrouped(out, negValue / 1000);
+        int group = (int) -(negValue % 1000);
+        out.append('.')
+                .append((char) ('0' + group / 100))
+                .append((char) ('0' + group / 10 % 10))
+                .append((char) ('0' + group % 10));
+    }
+
+    // dd/MM/yyyy in the default time zone
+    public static StringBuilder appendDate(StringBuilder out, long millis) {
+        return out.append(STATE.get().resolve(millis).date);
+    }
+
+    // dd/MM/yyyy HH:mm in the default time zone
+    public static StringBuilder appendDateTime(StringBuilder out, long millis) {
+        State state = STATE.get().resolve(millis);
+        out.append(state.date).append(' ');
+        int minuteOfDay = state.minuteOfDay(millis);
+        append2(out, minuteOfDay / 60);
+        out.append(':');
+        return append2(out, minuteOfDay % 60);
+    }
+
+    public static String formatRupiah(long amountMinor) {
+        StringBuilder out = STATE.get().scratch();
+        return appendRupiah(out, amountMinor).toString();
+    }
+
+    // Amount with a leading '+' or '-', as the transaction list shows income and expense
+    public static String formatSignedRupiah(char sign, long amountMinor) {
+        StringBuilder out = STATE.get().scratch().append(sign);
+        return appendRupiah(out, amountMinor).toString();
+    }
+
+    public static String formatDate(long millis) {
+        return new String(STATE.get().resolve(millis).date);
+    }
+
+    public static String formatDateTime(long millis) {
+        StringBuilder out = STATE.get().scratch();
+        return appendDateTime(out, millis).toString();
+    }
+
+    private static StringBuilder append2(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * The local day last formatted on this thread. Rows come sorted by date,
+     * so nearly every call falls in the cached day and only compares two
+     * longs. The default time zone is read again on every miss, i.e. at the
+     * latest when the next day is formatted.
+     */
+    private static final class State {
+        final Calendar calendar = Calendar.getInstance();
+        final StringBuilder scratch = new StringBuilder(32);
+        final char[] date = new char[10];
+        long dayStart = Long.MAX_VALUE;
+        long dayEnd = Long.MIN_VALUE;
+        // False on days with a DST change, where the time of day has to come from the calendar
+        boolean uniformOffset;
+        long offset;
+
+        StringBuilder scratch() {
+            scratch.setLength(0);
+            return scratch;
+        }
+
+        State resolve(long millis) {
+            if (millis >= dayStart && millis < dayEnd) {
+                return this;
+            }
+            TimeZone zone = TimeZone.getDefault();
+            calendar.setTimeZone(zone);
+            calendar.setTimeInMillis(millis);
+            int day = calendar.get(Calendar.DAY_OF_MONTH);
+            int month = calendar.get(Calendar.MONTH) + 1;
+            int year = calendar.get(Calendar.YEAR);
+            date[0] = (char) ('0' + day / 10);
+            date[1] = (char) ('0' + day % 10);
+            date[2] = '/';
+            date[3] = (char) ('0' + month / 10);
+            date[4] = (char) ('0' + month % 10);
+            date[5] = '/';
+            date[6] = (char) ('0' + year / 1000 % 10);
+            date[7] = (char) ('0' + year / 100 % 10);
+            date[8] = (char) ('0' + year / 10 % 10);
+            date[9] = (char) ('0' + year % 10);
+
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            calendar.set(Calendar.MINUTE, 0);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+            dayStart = calendar.getTimeInMillis();
+            // Midnight again rather than dayStart + 1 day, which is an hour late when today's midnight was skipped
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            dayEnd = calendar.getTimeInMillis();
+            offset = zone.getOffset(dayStart);
+            uniformOffset = offset == zone.getOffset(dayEnd - 1);
+            return this;
+        }
+
+        // Only valid right after resolve(millis)
+        int minuteOfDay(long millis) {
+            // From local time rather than dayStart: a day whose DST change is at midnight starts at 01:00
+            if (uniformOffset) {
+                return (int) (Math.floorMod(millis + offset, 86_400_000L) / 60_000L);
+            }
+            calendar.setTimeInMillis(millis);
+            return calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+        }
+    }
+}
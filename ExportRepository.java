@@ -8,8 +8,12 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.personal_finance_manager.config.SupabaseConfig;
 import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.model.DashboardSnapshot;
 import com.example.personal_finance_manager.model.ExportStatus;
-import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.example.personal_finance_manager.model.TransactionType;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -17,7 +21,6 @@ import org.json.JSONObject;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -67,10 +70,10 @@ public class ExportRepository {
                 Log.d(TAG, "Starting export from " + startDate + " to " + endDate);
 
                 // 1. Get data from database
-                List<Transaction> transactions = DatabaseClient.getInstance(context)
+                List<TransactionListRow> transactions = DatabaseClient.getInstance(context)
                         .getAppDatabase()
                         .transactionDao()
-                        .getByDateRange(startDate, endDate);
+                        .getRowsByDateRange(startDate, endDate);
 
                 Log.d(TAG, "Found " + transactions.size() + " transactions");
 
@@ -80,15 +83,13 @@ public class ExportRepository {
                 }
 
                 // 2. Calculate summary for filename
-                double totalIncome = DatabaseClient.getInstance(context)
+                DashboardSnapshot summary = DatabaseClient.getInstance(context)
                         .getAppDatabase()
                         .transactionDao()
-                        .getTotalIncome(startDate, endDate);
-                double totalExpense = DatabaseClient.getInstance(context)
-                        .getAppDatabase()
-                        .transactionDao()
-                        .getTotalExpense(startDate, endDate);
-                double balance = totalIncome - totalExpense;
+                        .getDashboardSnapshot(startDate, endDate);
+                long totalIncome = summary.getTotalIncomeMinor();
+                long totalExpense = summary.getTotalExpenseMinor();
+                long balance = summary.getBalanceMinor();
 
                 // 3. Convert to CSV
                 exportStatus.postValue(new ExportStatus(ExportStatus.State.PREPARING,
@@ -116,9 +117,9 @@ public class ExportRepository {
      */
     private String generateBeautifulFilename(Date startDate, Date endDate,
                                              int transactionCount,
-                                             double totalIncome,
-                                             double totalExpense,
-                                             double balance) {
+                                             long totalIncome,
+                                             long totalExpense,
+                                             long balance) {
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd", Locale.getDefault());
         SimpleDateFormat monthFormat = new SimpleDateFormat("MMMM_yyyy", new Locale("id", "ID"));
@@ -134,8 +135,7 @@ public class ExportRepository {
         String countStr = String.format(Locale.getDefault(), "%d_transaksi", transactionCount);
 
         // Format untuk saldo
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
-        String balanceStr = currencyFormat.format(balance)
+        String balanceStr = DisplayFormat.formatRupiah(balance)
                 .replace("Rp", "")
                 .replace(",", "")
                 .replace(".", "")
@@ -207,7 +207,7 @@ public class ExportRepository {
         return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR);
     }
 
-    private String convertToCSV(List<Transaction> transactions) {
+    private String convertToCSV(List<TransactionListRow> transactions) {
         StringBuilder csv = new StringBuilder();
 
         // UTF-8 BOM for Excel compatibility
@@ -216,17 +216,15 @@ public class ExportRepository {
         // Beautiful header with Indonesian labels
         csv.append("No,Tanggal,Judul Transaksi,Kategori,Tipe,Jumlah (Rp),Keterangan,Status Sinkronisasi\n");
 
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
-
         int counter = 1;
-        for (Transaction t : transactions) {
+        for (TransactionListRow t : transactions) {
             csv.append(counter).append(",");
-            csv.append(sdf.format(t.getDate())).append(",");
+            DisplayFormat.appendDateTime(csv, t.getDate()).append(",");
             csv.append(escapeCsv(t.getTitle())).append(",");
             csv.append(escapeCsv(t.getCategory())).append(",");
             csv.append(t.getType().equals("income") ? "Pemasukan" : "Pengeluaran").append(",");
-            csv.append(currencyFormat.format(t.getAmount())).append(",");
+            // The amount always contains the decimal comma, so it is quoted to stay one cell
+            appendQuotedRupiah(csv, t.getAmountMinor()).append(",");
             csv.append(escapeCsv(t.getDescription() != null ? t.getDescription() : "")).append(",");
             csv.append(t.isSynced() ? "Tersinkronisasi" : "Belum Sinkron").append("\n");
             counter++;
@@ -237,21 +235,22 @@ public class ExportRepository {
         csv.append("RINGKASAN\n");
         csv.append("=========\n");
 
-        double totalIncome = transactions.stream()
-                .filter(t -> t.getType().equals("income"))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
-
-        double totalExpense = transactions.stream()
-                .filter(t -> t.getType().equals("expense"))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        // Exact sums in sen, the same numbers the dashboard shows for this range
+        long totalIncome = 0;
+        long totalExpense = 0;
+        for (TransactionListRow t : transactions) {
+            if (t.isIncome()) {
+                totalIncome = Money.add(totalIncome, t.getAmountMinor());
+            } else if (TransactionType.EXPENSE_NAME.equals(t.getType())) {
+                totalExpense = Money.add(totalExpense, t.getAmountMinor());
+            }
+        }
 
-        double balance = totalIncome - totalExpense;
+        long balance = Money.subtract(totalIncome, totalExpense);
 
-        csv.append("Total Pemasukan,").append(currencyFormat.format(totalIncome)).append("\n");
-        csv.append("Total Pengeluaran,").append(currencyFormat.format(totalExpense)).append("\n");
-        csv.append("Saldo,").append(currencyFormat.format(balance)).append("\n");
+        appendQuotedRupiah(csv.append("Total Pemasukan,"), totalIncome).append("\n");
+        appendQuotedRupiah(csv.append("Total Pengeluaran,"), totalExpense).append("\n");
+        appendQuotedRupiah(csv.append("Saldo,"), balance).append("\n");
         csv.append("Jumlah Transaksi,").append(transactions.size()).append("\n");
 
         // Add metadata
@@ -265,6 +264,11 @@ public class ExportRepository {
         return csv.toString();
     }
 
+    private StringBuilder appendQuotedRupiah(StringBuilder csv, long amountMinor) {
+        csv.append('"');
+        return DisplayFormat.appendRupiah(csv, amountMinor).append('"');
+    }
+
     private String escapeCsv(String value) {
         if (value == null) return "";
         if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
@@ -5,7 +5,9 @@ import android.os.Handler;
 import android.os.Looper;
 
 import com.example.personal_finance_manager.database.DatabaseClient;
-import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TransactionListRow;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -17,11 +19,8 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class ExportService {
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     public interface ExportCallback {
         void onSuccess(String filePath);
@@ -30,12 +29,13 @@ public class ExportService {
 
     public static void exportToCSV(Context context, Date startDate, Date endDate,
                                    ExportCallback callback) {
-        executor.execute(() -> {
+        // Runs on the shared read pool; WAL keeps this long read from blocking the dashboard
+        DatabaseClient.getInstance(context).getReadExecutor().execute(() -> {
             try {
-                List<Transaction> transactions = DatabaseClient.getInstance(context)
+                List<TransactionListRow> transactions = DatabaseClient.getInstance(context)
                         .getAppDatabase()
                         .transactionDao()
-                        .getByDateRange(startDate, endDate);
+                        .getRowsByDateRange(startDate, endDate);
 
                 if (transactions.isEmpty()) {
                     new Handler(Looper.getMainLooper()).post(() ->
@@ -43,7 +43,6 @@ public class ExportService {
                     return;
                 }
 
-                SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
                 SimpleDateFormat fileSdf = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault());
 
                 // Create directory if not exists
@@ -67,13 +66,13 @@ public class ExportService {
                                 "Status Sync"
                         ));
 
-                for (Transaction t : transactions) {
+                for (TransactionListRow t : transactions) {
                     csvPrinter.printRecord(
-                            sdf.format(t.getDate()),
+                            DisplayFormat.formatDate(t.getDate()),
                             t.getTitle(),
                             t.getCategory(),
                             t.getType(),
-                            t.getAmount(),
+                            Money.toDecimal(t.getAmountMinor()),
                             t.getDescription() != null ? t.getDescription() : "",
                             t.isSynced() ? "Tersinkronisasi" : "Belum Sync"
                     );
@@ -0,0 +1,76 @@
+package com.example.personal_finance_manager.database;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size latency histogram in the spirit of HdrHistogram: every power of
+ * two is split into 16 linear sub-buckets, so a percentile read back is within
+ * 1/16 (about 6%) of the recorded value, from 1 microsecond up to hours, at a
+ * constant few kilobytes per histogram and no allocation per sample.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values are clamped to 2^36 microseconds (about 19 hours)
+    private static final int MAX_VALUE_BITS = 36;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final long[] counts = new long[(MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public synchronized void record(long micros) {
+        long value = Math.max(0L, Math.min(micros, MAX_VALUE));
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    // Upper bound of the bucket holding the given quantile (0..1), capped at the largest value seen
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(lowestValueAt(i + 1) - 1, max);
+            }
+        }
+        return max;
+    }
+
+    public synchronized long getCount() { return count; }
+
+    public synchronized long getMax() { return max; }
+
+    public synchronized long getMean() { return count == 0 ? 0L : sum / count; }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    // Values below 16 map one to one; above that the top five significant bits pick the bucket
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int magnitude = highestBit - SUB_BUCKET_BITS + 1;
+        int sub = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return magnitude * SUB_BUCKETS + sub;
+    }
+
+    static long lowestValueAt(int index) {
+        int magnitude = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        return magnitude == 0 ? sub : ((long) (SUB_BUCKETS + sub)) << (magnitude - 1);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.personal_finance_manager;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
@@ -17,7 +18,11 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.model.Budget;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.example.personal_finance_manager.service.DatabaseMaintenanceJobService;
 import com.example.personal_finance_manager.service.SupabaseService;
 import com.example.personal_finance_manager.ui.TransactionAdapter;
 import com.example.personal_finance_manager.viewmodel.TransactionViewModel;
@@ -28,6 +33,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
+import kotlin.Unit;
+
 public class MainActivity extends AppCompatActivity {
 
     private RecyclerView recyclerView;
@@ -56,8 +63,8 @@ public class MainActivity extends AppCompatActivity {
         // Set listeners
         setupListeners();
 
-        // Load initial data
-        viewModel.loadData();
+        // Archiving and database housekeeping run later, while the device is idle and charging
+        DatabaseMaintenanceJobService.schedule(this);
     }
 
     private void initViews() {
@@ -88,45 +95,27 @@ public class MainActivity extends AppCompatActivity {
 
     private void setupObservers() {
         // Observe transactions
-        viewModel.getTransactions().observe(this, transactions -> {
-            if (transactions != null) {
-                adapter.setTransactions(transactions);
-
-                // Handle empty state
-                View emptyState = findViewById(R.id.emptyState);
-                TextView tvTransactionsHeader = findViewById(R.id.tvTransactionsHeader);
-
-                if (transactions.isEmpty()) {
-                    // Show empty state
-                    if (emptyState != null) emptyState.setVisibility(View.VISIBLE);
-                    if (tvTransactionsHeader != null) tvTransactionsHeader.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.GONE);
-                } else {
-                    // Show transactions
-                    if (emptyState != null) emptyState.setVisibility(View.GONE);
-                    if (tvTransactionsHeader != null) tvTransactionsHeader.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                }
+        viewModel.getTransactions().observe(this, pagingData -> {
+            if (pagingData != null) {
+                adapter.submitData(getLifecycle(), pagingData);
             }
         });
 
-        // Observe total income
-        viewModel.getTotalIncome().observe(this, income -> {
-            if (income != null) {
-                tvIncome.setText(viewModel.formatCurrency(income));
+        // Empty state follows the adapter once the first page has loaded
+        adapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                updateEmptyState(adapter.getItemCount() == 0);
             }
+            return Unit.INSTANCE;
         });
 
-        // Observe total expense
-        viewModel.getTotalExpense().observe(this, expense -> {
-            if (expense != null) {
-                tvExpense.setText(viewModel.formatCurrency(expense));
-            }
-        });
+        // Observe dashboard totals
+        viewModel.getDashboard().observe(this, snapshot -> {
+            if (snapshot != null) {
+                tvIncome.setText(viewModel.formatCurrency(snapshot.getTotalIncomeMinor()));
+                tvExpense.setText(viewModel.formatCurrency(snapshot.getTotalExpenseMinor()));
 
-        // Observe balance
-        viewModel.getBalance().observe(this, balance -> {
-            if (balance != null) {
+                long balance = snapshot.getBalanceMinor();
                 tvBalance.setText(viewModel.formatCurrency(balance));
 
                 // Auto-change color based on balance
@@ -144,6 +133,31 @@ public class MainActivity extends AppCompatActivity {
                 tvPeriod.setText(period);
             }
         });
+
+        // Budget thresholds crossed by a write from this screen
+        viewModel.getBudgetAlert().observe(this, message -> {
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+                viewModel.consumeBudgetAlert();
+            }
+        });
+    }
+
+    private void updateEmptyState(boolean isEmpty) {
+        View emptyState = findViewById(R.id.emptyState);
+        TextView tvTransactionsHeader = findViewById(R.id.tvTransactionsHeader);
+
+        if (isEmpty) {
+            // Show empty state
+            if (emptyState != null) emptyState.setVisibility(View.VISIBLE);
+            if (tvTransactionsHeader != null) tvTransactionsHeader.setVisibility(View.GONE);
+            recyclerView.setVisibility(View.GONE);
+        } else {
+            // Show transactions
+            if (emptyState != null) emptyState.setVisibility(View.GONE);
+            if (tvTransactionsHeader != null) tvTransactionsHeader.setVisibility(View.VISIBLE);
+            recyclerView.setVisibility(View.VISIBLE);
+        }
     }
 
     private void setupListeners() {
@@ -153,7 +167,7 @@ public class MainActivity extends AppCompatActivity {
         });
 
         swipeRefreshLayout.setOnRefreshListener(() -> {
-            viewModel.loadData();
+            viewModel.refresh();
             swipeRefreshLayout.setRefreshing(false);
         });
 
@@ -173,14 +187,16 @@ public class MainActivity extends AppCompatActivity {
 
         adapter.setOnItemClickListener(new TransactionAdapter.OnItemClickListener() {
             @Override
-            public void onItemClick(Transaction transaction) {
+            public void onItemClick(TransactionListRow transaction) {
                 Intent intent = new Intent(MainActivity.this, TransactionDetailActivity.class);
                 intent.putExtra("transaction_id", transaction.getId());
+                // Lets the detail screen find rows that have moved into the archive
+                intent.putExtra("transaction_date", transaction.getDate());
                 startActivity(intent);
             }
 
             @Override
-            public void onItemLongClick(Transaction transaction) {
+            public void onItemLongClick(TransactionListRow transaction) {
                 showDeleteDialog(transaction);
             }
         });
@@ -211,10 +227,36 @@ public class MainActivity extends AppCompatActivity {
         btnSync.setEnabled(false);
         btnSync.setText("Menyinkronkan...");
 
-        new Thread(() -> {
-            List<Transaction> unsynced = viewModel.getTransactions().getValue().stream()
-                    .filter(t -> !t.isSynced())
-                    .collect(java.util.stream.Collectors.toList());
+        DatabaseClient.getInstance(this).getReadExecutor().execute(() -> {
+            List<Transaction> unsynced = viewModel.getUnsyncedTransactions();
+            List<Budget> unsyncedBudgets = viewModel.getUnsyncedBudgets();
+
+            // Budgets go alongside; their result is only shown when there are no transactions to report on
+            if (!unsyncedBudgets.isEmpty()) {
+                SupabaseService.syncBudgets(this, unsyncedBudgets, new SupabaseService.SyncCallback() {
+                    @Override
+                    public void onSuccess() {
+                        if (unsynced.isEmpty()) {
+                            Toast.makeText(MainActivity.this,
+                                    "Sinkronisasi berhasil",
+                                    Toast.LENGTH_SHORT).show();
+                            btnSync.setEnabled(true);
+                            btnSync.setText("Sync");
+                        }
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        Toast.makeText(MainActivity.this,
+                                "Error: " + message,
+                                Toast.LENGTH_SHORT).show();
+                        if (unsynced.isEmpty()) {
+                            btnSync.setEnabled(true);
+                            btnSync.setText("Sync");
+                        }
+                    }
+                });
+            }
 
             if (!unsynced.isEmpty()) {
                 SupabaseService.syncTransactions(this, unsynced, new SupabaseService.SyncCallback() {
@@ -224,7 +266,6 @@ public class MainActivity extends AppCompatActivity {
                             Toast.makeText(MainActivity.this,
                                     "Sinkronisasi berhasil",
                                     Toast.LENGTH_SHORT).show();
-                            viewModel.loadData(); // Reload data setelah sync
                             btnSync.setEnabled(true);
                             btnSync.setText("Sync");
                         });
@@ -241,7 +282,7 @@ public class MainActivity extends AppCompatActivity {
                         });
                     }
                 });
-            } else {
+            } else if (unsyncedBudgets.isEmpty()) {
                 runOnUiThread(() -> {
                     Toast.makeText(MainActivity.this,
                             "Semua data sudah tersinkronisasi",
@@ -250,10 +291,10 @@ public class MainActivity extends AppCompatActivity {
                     btnSync.setText("Sync");
                 });
             }
-        }).start();
+        });
     }
 
-    private void showDeleteDialog(Transaction transaction) {
+    private void showDeleteDialog(TransactionListRow transaction) {
         new AlertDialog.Builder(this)
                 .setTitle("Hapus Transaksi")
                 .setMessage("Apakah Anda yakin ingin menghapus transaksi ini?")
@@ -337,7 +378,7 @@ public class MainActivity extends AppCompatActivity {
         builder.setNeutralButton("Reset", new DialogInterface.OnClickListener() {
             @Override
             public void onClick(DialogInterface dialog, int which) {
-                viewModel.loadData();
+                viewModel.clearSearch();
             }
         });
 
@@ -366,11 +407,4 @@ public class MainActivity extends AppCompatActivity {
             Toast.makeText(this, "Data diperbarui ✓", Toast.LENGTH_SHORT).show();
         }
     }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Refresh data setiap kembali ke MainActivity
-        viewModel.loadData();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.personal_finance_manager.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.example.personal_finance_manager.model.MaintenanceRun;
+
+import java.util.List;
+
+@Dao
+public interface MaintenanceDao {
+    int KEEP_RUNS = 30;
+
+    @Insert
+    long insert(MaintenanceRun run);
+
+    @Query("SELECT * FROM maintenance_log ORDER BY startedAt DESC LIMIT :limit")
+    List<MaintenanceRun> getRecent(int limit);
+
+    @Query("DELETE FROM maintenance_log WHERE id NOT IN (SELECT id FROM maintenance_log ORDER BY startedAt DESC LIMIT :keep)")
+    void prune(int keep);
+
+    @androidx.room.Transaction
+    default void record(MaintenanceRun run) {
+        insert(run);
+        prune(KEEP_RUNS);
+    }
+}
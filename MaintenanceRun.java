@@ -0,0 +1,66 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * One pass of DatabaseMaintenance: what it did and the size of the database
+ * before and after. Sizes are the main file plus its WAL, in bytes.
+ */
+@Entity(tableName = "maintenance_log")
+public class MaintenanceRun {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long startedAt;
+    private long durationMillis;
+    private long fileSizeBefore;
+    private long fileSizeAfter;
+    private long pageSize;
+    private long pageCountBefore;
+    private long pageCountAfter;
+    private long freePagesBefore;
+    private long freePagesAfter;
+    // Steps that ran, e.g. "optimize, incremental_vacuum 120"
+    private String steps;
+    // "ok" or the first problems reported by integrity_check
+    private String integrity;
+
+    public boolean isHealthy() { return "ok".equals(integrity); }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public long getStartedAt() { return startedAt; }
+    public void setStartedAt(long startedAt) { this.startedAt = startedAt; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public long getFileSizeBefore() { return fileSizeBefore; }
+    public void setFileSizeBefore(long fileSizeBefore) { this.fileSizeBefore = fileSizeBefore; }
+
+    public long getFileSizeAfter() { return fileSizeAfter; }
+    public void setFileSizeAfter(long fileSizeAfter) { this.fileSizeAfter = fileSizeAfter; }
+
+    public long getPageSize() { return pageSize; }
+    public void setPageSize(long pageSize) { this.pageSize = pageSize; }
+
+    public long getPageCountBefore() { return pageCountBefore; }
+    public void setPageCountBefore(long pageCountBefore) { this.pageCountBefore = pageCountBefore; }
+
+    public long getPageCountAfter() { return pageCountAfter; }
+    public void setPageCountAfter(long pageCountAfter) { this.pageCountAfter = pageCountAfter; }
+
+    public long getFreePagesBefore() { return freePagesBefore; }
+    public void setFreePagesBefore(long freePagesBefore) { this.freePagesBefore = freePagesBefore; }
+
+    public long getFreePagesAfter() { return freePagesAfter; }
+    public void setFreePagesAfter(long freePagesAfter) { this.freePagesAfter = freePagesAfter; }
+
+    public String getSteps() { return steps; }
+    public void setSteps(String steps) { this.steps = steps; }
+
+    public String getIntegrity() { return integrity; }
+    public void setIntegrity(String integrity) { this.integrity = integrity; }
+}
@@ -0,0 +1,453 @@
+package com.example.personal_finance_manager.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.personal_finance_manager.model.DailySummary;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TimeOrderedId;
+import com.example.personal_finance_manager.model.TransactionType;
+
+public final class Migrations {
+
+    private Migrations() {}
+
+    // v1 -> v2: indices for every filter used by TransactionDao
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_date` ON `transaction` (`date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_type_date` ON `transaction` (`type`, `date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_type_category_date` ON `transaction` (`type`, `category`, `date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_isSynced_date` ON `transaction` (`isSynced`, `date`)");
+        }
+    };
+
+    // Trigger DDL is frozen per schema version: DatabaseTriggers always builds the current one, which would
+    // reference columns an older schema does not have yet.
+
+    // daily_summary triggers for text type/category and REAL amount, v3 to v6
+    private static final String[] DAILY_SUMMARY_TRIGGERS_V3 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_insert AFTER INSERT "
+                    + "ON `transaction` WHEN NEW.date IS NOT NULL "
+                    + "BEGIN INSERT OR IGNORE INTO daily_summary (type, epochDay, category, total, entryCount) "
+                    + "VALUES (COALESCE(NEW.type, ''), ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000), "
+                    + "COALESCE(NEW.category, ''), 0, 0); "
+                    + "UPDATE daily_summary SET total = total + NEW.amount, entryCount = entryCount + 1 "
+                    + "WHERE type = COALESCE(NEW.type, '') "
+                    + "AND epochDay = ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(NEW.category, ''); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_delete AFTER DELETE "
+                    + "ON `transaction` WHEN OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE daily_summary SET total = total - OLD.amount, entryCount = entryCount - 1 "
+                    + "WHERE type = COALESCE(OLD.type, '') "
+                    + "AND epochDay = ((OLD.date - (((OLD.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(OLD.category, ''); "
+                    + "DELETE FROM daily_summary WHERE entryCount <= 0; "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_old AFTER UPDATE OF date, type, category, amount "
+                    + "ON `transaction` WHEN OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE daily_summary SET total = total - OLD.amount, entryCount = entryCount - 1 "
+                    + "WHERE type = COALESCE(OLD.type, '') "
+                    + "AND epochDay = ((OLD.date - (((OLD.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(OLD.category, ''); "
+                    + "DELETE FROM daily_summary WHERE entryCount <= 0; "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_new AFTER UPDATE OF date, type, category, amount "
+                    + "ON `transaction` WHEN NEW.date IS NOT NULL "
+                    + "BEGIN INSERT OR IGNORE INTO daily_summary (type, epochDay, category, total, entryCount) "
+                    + "VALUES (COALESCE(NEW.type, ''), ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000), "
+                    + "COALESCE(NEW.category, ''), 0, 0); "
+                    + "UPDATE daily_summary SET total = total + NEW.amount, entryCount = entryCount + 1 "
+                    + "WHERE type = COALESCE(NEW.type, '') "
+                    + "AND epochDay = ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(NEW.category, ''); "
+                    + "END"
+    };
+
+    // v2 -> v3: trigger-maintained daily_summary rollup, back-filled from existing rows
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_summary` (`epochDay` INTEGER NOT NULL, `type` TEXT NOT NULL, "
+                    + "`category` TEXT NOT NULL, `total` REAL NOT NULL, `entryCount` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`type`, `epochDay`, `category`))");
+            db.execSQL("INSERT INTO daily_summary (type, epochDay, category, total, entryCount) "
+                    + "SELECT COALESCE(type, ''), " + DailySummary.EPOCH_DAY_OF_DATE + ", COALESCE(category, ''), SUM(amount), COUNT(*) "
+                    + "FROM `transaction` WHERE date IS NOT NULL GROUP BY 1, 2, 3");
+            execAll(db, DAILY_SUMMARY_TRIGGERS_V3);
+        }
+    };
+
+    // v3 -> v4: FTS4 index for search, with the same sync triggers Room generates for contentEntity
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `transaction_fts` USING FTS4(`title` TEXT, `description` TEXT, "
+                    + "`category` TEXT, tokenize=unicode61, content=`transaction`)");
+            createFtsSyncTriggers(db, "title", "description", "category");
+            db.execSQL("INSERT INTO `transaction_fts`(`transaction_fts`) VALUES('rebuild')");
+        }
+    };
+
+    // v4 -> v5: widen the date index to (date, id) for keyset pagination
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_transaction_date`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_date_id` ON `transaction` (`date`, `id`)");
+        }
+    };
+
+    // v5 -> v6: time-ordered INTEGER ids instead of random UUID strings. Ids are handed out in createdAt
+    // order, and synced rows keep their old UUID as remoteId so the server copy still matches.
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `transaction_new` (`id` INTEGER NOT NULL, `remoteId` TEXT, `userId` TEXT, "
+                    + "`title` TEXT, `description` TEXT, `amount` REAL NOT NULL, `type` TEXT, `category` TEXT, "
+                    + "`date` INTEGER, `createdAt` INTEGER, `isSynced` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+
+            SupportSQLiteStatement copy = db.compileStatement("INSERT INTO `transaction_new` (id, remoteId, userId, title, "
+                    + "description, amount, type, category, date, createdAt, isSynced) "
+                    + "SELECT ?, CASE WHEN isSynced THEN id END, userId, title, description, amount, type, category, "
+                    + "date, createdAt, isSynced FROM `transaction` WHERE rowid = ?");
+            TimeOrderedId.Generator ids = new TimeOrderedId.Generator();
+            try (Cursor cursor = db.query("SELECT rowid, COALESCE(createdAt, date, 0) FROM `transaction` ORDER BY 2, 1")) {
+                while (cursor.moveToNext()) {
+                    copy.bindLong(1, ids.next(cursor.getLong(1)));
+                    copy.bindLong(2, cursor.getLong(0));
+                    copy.executeInsert();
+                }
+            }
+
+            // Dropping the old table also drops its indices and the rollup and FTS triggers; all are recreated below
+            db.execSQL("DROP TABLE `transaction`");
+            db.execSQL("ALTER TABLE `transaction_new` RENAME TO `transaction`");
+            createTransactionIndices(db);
+
+            // daily_summary is keyed by day, not id, so it stays valid; the FTS docids were the old rowids
+            execAll(db, DAILY_SUMMARY_TRIGGERS_V3);
+            createFtsSyncTriggers(db, "title", "description", "category");
+            db.execSQL("INSERT INTO `transaction_fts`(`transaction_fts`) VALUES('rebuild')");
+        }
+    };
+
+    // daily_summary triggers for integer type/category codes and REAL amount, v7
+    private static final String[] DAILY_SUMMARY_TRIGGERS_V7 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_insert AFTER INSERT "
+                    + "ON `transaction` WHEN NEW.date IS NOT NULL "
+                    + "BEGIN INSERT OR IGNORE INTO daily_summary (type, epochDay, category, total, entryCount) "
+                    + "VALUES (COALESCE(NEW.type, 0), ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000), "
+                    + "COALESCE(NEW.category, 0), 0, 0); "
+                    + "UPDATE daily_summary SET total = total + NEW.amount, entryCount = entryCount + 1 "
+                    + "WHERE type = COALESCE(NEW.type, 0) "
+                    + "AND epochDay = ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(NEW.category, 0); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_delete AFTER DELETE "
+                    + "ON `transaction` WHEN OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE daily_summary SET total = total - OLD.amount, entryCount = entryCount - 1 "
+                    + "WHERE type = COALESCE(OLD.type, 0) "
+                    + "AND epochDay = ((OLD.date - (((OLD.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(OLD.category, 0); "
+                    + "DELETE FROM daily_summary WHERE entryCount <= 0; "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_old AFTER UPDATE OF date, type, category, amount "
+                    + "ON `transaction` WHEN OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE daily_summary SET total = total - OLD.amount, entryCount = entryCount - 1 "
+                    + "WHERE type = COALESCE(OLD.type, 0) "
+                    + "AND epochDay = ((OLD.date - (((OLD.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(OLD.category, 0); "
+                    + "DELETE FROM daily_summary WHERE entryCount <= 0; "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_new AFTER UPDATE OF date, type, category, amount "
+                    + "ON `transaction` WHEN NEW.date IS NOT NULL "
+                    + "BEGIN INSERT OR IGNORE INTO daily_summary (type, epochDay, category, total, entryCount) "
+                    + "VALUES (COALESCE(NEW.type, 0), ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000), "
+                    + "COALESCE(NEW.category, 0), 0, 0); "
+                    + "UPDATE daily_summary SET total = total + NEW.amount, entryCount = entryCount + 1 "
+                    + "WHERE type = COALESCE(NEW.type, 0) "
+                    + "AND epochDay = ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(NEW.category, 0); "
+                    + "END"
+    };
+
+    // v6 -> v7: type stored as a TransactionType code and category as an id into the new category table.
+    // transaction is rebuilt with INTEGER columns; daily_summary and the FTS index are rebuilt around them.
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_category_name` ON `category` (`name`)");
+            CategoryDictionary.seed(db);
+            db.execSQL("INSERT OR IGNORE INTO category (name) SELECT DISTINCT category FROM `transaction` WHERE category IS NOT NULL");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `transaction_new` (`id` INTEGER NOT NULL, `remoteId` TEXT, `userId` TEXT, "
+                    + "`title` TEXT, `description` TEXT, `amount` REAL NOT NULL, `type` INTEGER, `category` INTEGER, "
+                    + "`date` INTEGER, `createdAt` INTEGER, `isSynced` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO `transaction_new` (id, remoteId, userId, title, description, amount, type, category, "
+                    + "date, createdAt, isSynced) "
+                    + "SELECT t.id, t.remoteId, t.userId, t.title, t.description, t.amount, "
+                    + "CASE t.type WHEN 'income' THEN " + TransactionType.INCOME + " WHEN 'expense' THEN " + TransactionType.EXPENSE + " END, "
+                    + "(SELECT c.id FROM category c WHERE c.name = t.category), t.date, t.createdAt, t.isSynced "
+                    + "FROM `transaction` t");
+            db.execSQL("DROP TABLE `transaction`");
+            db.execSQL("ALTER TABLE `transaction_new` RENAME TO `transaction`");
+            createTransactionIndices(db);
+
+            // Rollup keys change type, so the table is recreated and back-filled from the converted rows
+            db.execSQL("DROP TABLE IF EXISTS `daily_summary`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_summary` (`epochDay` INTEGER NOT NULL, `type` INTEGER NOT NULL, "
+                    + "`category` INTEGER NOT NULL, `total` REAL NOT NULL, `entryCount` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`type`, `epochDay`, `category`))");
+            db.execSQL("INSERT INTO daily_summary (type, epochDay, category, total, entryCount) "
+                    + "SELECT COALESCE(type, 0), " + DailySummary.EPOCH_DAY_OF_DATE + ", COALESCE(category, 0), SUM(amount), COUNT(*) "
+                    + "FROM `transaction` WHERE date IS NOT NULL GROUP BY 1, 2, 3");
+            execAll(db, DAILY_SUMMARY_TRIGGERS_V7);
+
+            // Category ids are no longer searchable text, so the FTS index keeps only title and description
+            db.execSQL("DROP TABLE IF EXISTS `transaction_fts`");
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `transaction_fts` USING FTS4(`title` TEXT, `description` TEXT, "
+                    + "tokenize=unicode61, content=`transaction`)");
+            createFtsSyncTriggers(db, "title", "description");
+            db.execSQL("INSERT INTO `transaction_fts`(`transaction_fts`) VALUES('rebuild')");
+        }
+    };
+
+    // daily_summary triggers for integer codes and amountMinor/totalMinor, from v8
+    private static final String[] DAILY_SUMMARY_TRIGGERS_V8 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_insert AFTER INSERT "
+                    + "ON `transaction` WHEN NEW.date IS NOT NULL "
+                    + "BEGIN INSERT OR IGNORE INTO daily_summary (type, epochDay, category, totalMinor, entryCount) "
+                    + "VALUES (COALESCE(NEW.type, 0), ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000), "
+                    + "COALESCE(NEW.category, 0), 0, 0); "
+                    + "UPDATE daily_summary SET totalMinor = totalMinor + NEW.amountMinor, entryCount = entryCount + 1 "
+                    + "WHERE type = COALESCE(NEW.type, 0) "
+                    + "AND epochDay = ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(NEW.category, 0); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_delete AFTER DELETE "
+                    + "ON `transaction` WHEN OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE daily_summary SET totalMinor = totalMinor - OLD.amountMinor, entryCount = entryCount - 1 "
+                    + "WHERE type = COALESCE(OLD.type, 0) "
+                    + "AND epochDay = ((OLD.date - (((OLD.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(OLD.category, 0); "
+                    + "DELETE FROM daily_summary WHERE entryCount <= 0; "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_old AFTER UPDATE OF date, type, category, amountMinor "
+                    + "ON `transaction` WHEN OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE daily_summary SET totalMinor = totalMinor - OLD.amountMinor, entryCount = entryCount - 1 "
+                    + "WHERE type = COALESCE(OLD.type, 0) "
+                    + "AND epochDay = ((OLD.date - (((OLD.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(OLD.category, 0); "
+                    + "DELETE FROM daily_summary WHERE entryCount <= 0; "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_daily_summary_update_new AFTER UPDATE OF date, type, category, amountMinor "
+                    + "ON `transaction` WHEN NEW.date IS NOT NULL "
+                    + "BEGIN INSERT OR IGNORE INTO daily_summary (type, epochDay, category, totalMinor, entryCount) "
+                    + "VALUES (COALESCE(NEW.type, 0), ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000), "
+                    + "COALESCE(NEW.category, 0), 0, 0); "
+                    + "UPDATE daily_summary SET totalMinor = totalMinor + NEW.amountMinor, entryCount = entryCount + 1 "
+                    + "WHERE type = COALESCE(NEW.type, 0) "
+                    + "AND epochDay = ((NEW.date - (((NEW.date % 86400000) + 86400000) % 86400000)) / 86400000) "
+                    + "AND category = COALESCE(NEW.category, 0); "
+                    + "END"
+    };
+
+    // v7 -> v8: amounts as integer minor units (amountMinor, totalMinor) instead of REAL Rupiah.
+    // Row ids are kept, so the FTS index stays valid and only its sync triggers need reinstalling.
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `transaction_new` (`id` INTEGER NOT NULL, `remoteId` TEXT, `userId` TEXT, "
+                    + "`title` TEXT, `description` TEXT, `amountMinor` INTEGER NOT NULL, `type` INTEGER, `category` INTEGER, "
+                    + "`date` INTEGER, `createdAt` INTEGER, `isSynced` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO `transaction_new` (id, remoteId, userId, title, description, amountMinor, type, category, "
+                    + "date, createdAt, isSynced) "
+                    + "SELECT id, remoteId, userId, title, description, CAST(ROUND(amount * " + Money.MINOR_PER_UNIT + ") AS INTEGER), "
+                    + "type, category, date, createdAt, isSynced FROM `transaction`");
+            db.execSQL("DROP TABLE `transaction`");
+            db.execSQL("ALTER TABLE `transaction_new` RENAME TO `transaction`");
+            createTransactionIndices(db);
+            createFtsSyncTriggers(db, "title", "description");
+
+            // Re-summed from the converted rows so the rollup matches them to the sen
+            db.execSQL("DROP TABLE IF EXISTS `daily_summary`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_summary` (`epochDay` INTEGER NOT NULL, `type` INTEGER NOT NULL, "
+                    + "`category` INTEGER NOT NULL, `totalMinor` INTEGER NOT NULL, `entryCount` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`type`, `epochDay`, `category`))");
+            db.execSQL("INSERT INTO daily_summary (type, epochDay, category, totalMinor, entryCount) "
+                    + "SELECT COALESCE(type, 0), " + DailySummary.EPOCH_DAY_OF_DATE + ", COALESCE(category, 0), SUM(amountMinor), COUNT(*) "
+                    + "FROM `transaction` WHERE date IS NOT NULL GROUP BY 1, 2, 3");
+            execAll(db, DAILY_SUMMARY_TRIGGERS_V8);
+        }
+    };
+
+    // v8 -> v9: cold-history archive, one compressed block plus per-type/category totals per month
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `transaction_archive` (`monthKey` INTEGER NOT NULL, `firstDate` INTEGER NOT NULL, "
+                    + "`lastDate` INTEGER NOT NULL, `entryCount` INTEGER NOT NULL, `codecVersion` INTEGER NOT NULL, "
+                    + "`payload` BLOB NOT NULL, PRIMARY KEY(`monthKey`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `archive_summary` (`monthKey` INTEGER NOT NULL, `type` INTEGER NOT NULL, "
+                    + "`category` INTEGER NOT NULL, `totalMinor` INTEGER NOT NULL, `entryCount` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`type`, `monthKey`, `category`))");
+        }
+    };
+
+    // v9 -> v10: maintenance_log for DatabaseMaintenance. Switching to auto_vacuum=INCREMENTAL needs a full
+    // VACUUM, which SQLite refuses inside the migration's transaction; the first maintenance pass does it.
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `maintenance_log` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`startedAt` INTEGER NOT NULL, `durationMillis` INTEGER NOT NULL, `fileSizeBefore` INTEGER NOT NULL, "
+                    + "`fileSizeAfter` INTEGER NOT NULL, `pageSize` INTEGER NOT NULL, `pageCountBefore` INTEGER NOT NULL, "
+                    + "`pageCountAfter` INTEGER NOT NULL, `freePagesBefore` INTEGER NOT NULL, `freePagesAfter` INTEGER NOT NULL, "
+                    + "`steps` TEXT, `integrity` TEXT)");
+        }
+    };
+
+    // v10 -> v11: user-created categories keep their transaction type next to the name
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `category` ADD COLUMN `customType` INTEGER");
+        }
+    };
+
+    // daily_summary_change journal triggers, from v12
+    private static final String[] SUMMARY_CHANGE_TRIGGERS_V12 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_summary_change_insert AFTER INSERT ON daily_summary "
+                    + "BEGIN INSERT OR REPLACE INTO daily_summary_change (epochDay, seq) "
+                    + "VALUES (NEW.epochDay, (SELECT COALESCE(MAX(seq), 0) + 1 FROM daily_summary_change)); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_summary_change_update AFTER UPDATE ON daily_summary "
+                    + "BEGIN INSERT OR REPLACE INTO daily_summary_change (epochDay, seq) "
+                    + "VALUES (NEW.epochDay, (SELECT COALESCE(MAX(seq), 0) + 1 FROM daily_summary_change)); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_summary_change_delete AFTER DELETE ON daily_summary "
+                    + "BEGIN INSERT OR REPLACE INTO daily_summary_change (epochDay, seq) "
+                    + "VALUES (OLD.epochDay, (SELECT COALESCE(MAX(seq), 0) + 1 FROM daily_summary_change)); "
+                    + "END"
+    };
+
+    // v11 -> v12: journal of changed daily_summary days, so trend series only re-read what changed
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `daily_summary_change` (`epochDay` INTEGER NOT NULL, "
+                    + "`seq` INTEGER NOT NULL, PRIMARY KEY(`epochDay`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_daily_summary_change_seq` ON `daily_summary_change` (`seq`)");
+            execAll(db, SUMMARY_CHANGE_TRIGGERS_V12);
+        }
+    };
+
+    // v12 -> v13: per-month expense statistics by category, so multi-year summaries merge stored sketches
+    public static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `category_month_stats` (`monthKey` INTEGER NOT NULL, "
+                    + "`category` INTEGER NOT NULL, `builtSeq` INTEGER NOT NULL, `payload` BLOB NOT NULL, "
+                    + "PRIMARY KEY(`monthKey`, `category`))");
+        }
+    };
+
+    // budget consumption triggers (expense type code 2), from v14
+    private static final String[] BUDGET_TRIGGERS_V14 = {
+            "CREATE TRIGGER IF NOT EXISTS trg_budget_insert AFTER INSERT ON `transaction` WHEN NEW.type = 2 "
+                    + "AND NEW.date IS NOT NULL "
+                    + "BEGIN UPDATE budget SET spentMinor = spentMinor + NEW.amountMinor WHERE deleted = 0 "
+                    + "AND NEW.date >= periodStart AND NEW.date < periodEnd "
+                    + "AND (category IS NULL OR category = NEW.category); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_budget_delete AFTER DELETE ON `transaction` WHEN OLD.type = 2 "
+                    + "AND OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE budget SET spentMinor = spentMinor - OLD.amountMinor WHERE deleted = 0 "
+                    + "AND OLD.date >= periodStart AND OLD.date < periodEnd "
+                    + "AND (category IS NULL OR category = OLD.category); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_budget_update_old AFTER UPDATE OF date, type, category, amountMinor "
+                    + "ON `transaction` WHEN OLD.type = 2 AND OLD.date IS NOT NULL "
+                    + "BEGIN UPDATE budget SET spentMinor = spentMinor - OLD.amountMinor WHERE deleted = 0 "
+                    + "AND OLD.date >= periodStart AND OLD.date < periodEnd "
+                    + "AND (category IS NULL OR category = OLD.category); "
+                    + "END",
+            "CREATE TRIGGER IF NOT EXISTS trg_budget_update_new AFTER UPDATE OF date, type, category, amountMinor "
+                    + "ON `transaction` WHEN NEW.type = 2 AND NEW.date IS NOT NULL "
+                    + "BEGIN UPDATE budget SET spentMinor = spentMinor + NEW.amountMinor WHERE deleted = 0 "
+                    + "AND NEW.date >= periodStart AND NEW.date < periodEnd "
+                    + "AND (category IS NULL OR category = NEW.category); "
+                    + "END"
+    };
+
+    // v13 -> v14: budgets, with consumption kept by triggers on `transaction`; new budgets start with nothing to count
+    public static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `budget` (`id` INTEGER NOT NULL, `category` INTEGER, "
+                    + "`period` INTEGER NOT NULL, `limitMinor` INTEGER NOT NULL, `alertPercent` INTEGER NOT NULL, "
+                    + "`periodStart` INTEGER NOT NULL, `periodEnd` INTEGER NOT NULL, `spentMinor` INTEGER NOT NULL, "
+                    + "`alertLevel` INTEGER NOT NULL, `isSynced` INTEGER NOT NULL, `deleted` INTEGER NOT NULL, "
+                    + "`updatedAt` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_budget_category_period` ON `budget` (`category`, `period`)");
+            execAll(db, BUDGET_TRIGGERS_V14);
+        }
+    };
+
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12,
+            MIGRATION_12_13,
+            MIGRATION_13_14
+    };
+
+    private static void execAll(SupportSQLiteDatabase db, String[] statements) {
+        for (String sql : statements) {
+            db.execSQL(sql);
+        }
+    }
+
+    // Indices of `transaction` since v6, recreated whenever a migration rebuilds the table
+    private static void createTransactionIndices(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_date` ON `transaction` (`date`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_type_date` ON `transaction` (`type`, `date`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_type_category_date` ON `transaction` (`type`, `category`, `date`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_transaction_isSynced_date` ON `transaction` (`isSynced`, `date`)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_transaction_remoteId` ON `transaction` (`remoteId`)");
+    }
+
+    // The same sync triggers Room generates for the contentEntity of transaction_fts, for the given FTS columns
+    private static void createFtsSyncTriggers(SupportSQLiteDatabase db, String... columns) {
+        StringBuilder names = new StringBuilder("`docid`");
+        StringBuilder values = new StringBuilder("NEW.`rowid`");
+        for (String column : columns) {
+            names.append(", `").append(column).append('`');
+            values.append(", NEW.`").append(column).append('`');
+        }
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_transaction_fts_BEFORE_UPDATE BEFORE UPDATE ON `transaction` "
+                + "BEGIN DELETE FROM `transaction_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_transaction_fts_BEFORE_DELETE BEFORE DELETE ON `transaction` "
+                + "BEGIN DELETE FROM `transaction_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_transaction_fts_AFTER_UPDATE AFTER UPDATE ON `transaction` "
+                + "BEGIN INSERT INTO `transaction_fts`(" + names + ") VALUES (" + values + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_transaction_fts_AFTER_INSERT AFTER INSERT ON `transaction` "
+                + "BEGIN INSERT INTO `transaction_fts`(" + names + ") VALUES (" + values + "); END");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.personal_finance_manager.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are kept as a long count of minor units (sen, 1/100 Rupiah) in the
+ * database and in every total, so sums are exact and identical no matter
+ * where they are computed. These helpers convert at the edges: user input,
+ * the server's decimal JSON, and display.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_UNIT = 100L;
+    // Largest whole part parseOrDefault() accepts, so units * MINOR_PER_UNIT plus a rounded-up fraction still fits
+    private static final long MAX_PARSED_UNITS = (Long.MAX_VALUE - MINOR_PER_UNIT) / MINOR_PER_UNIT;
+
+    private Money() {}
+
+    // Exact conversion of decimal text such as "15000" or "12.5"; throws NumberFormatException or ArithmeticException
+    public static long parse(String text) {
+        return new BigDecimal(text.trim())
+                .setScale(SCALE, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    // Lenient parse for text still being typed: digits with at most one '.', rounded as parse() does. Returns
+    // fallback instead of throwing for anything else (empty, a lone ".", a sign, too large), and allocates nothing.
+    public static long parseOrDefault(CharSequence text, long fallback) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        long units = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        boolean separator = false;
+        boolean digits = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && !separator) {
+                separator = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return fallback;
+            }
+            digits = true;
+            int digit = c - '0';
+            if (!separator) {
+                units = units * 10 + digit;
+                if (units > MAX_PARSED_UNITS) {
+                    return fallback;
+                }
+            } else if (fractionDigits < SCALE) {
+                fraction = fraction * 10 + digit;
+                fractionDigits++;
+            } else if (fractionDigits == SCALE) {
+                // HALF_UP only looks at the first digit dropped
+                roundUp = digit >= 5;
+                fractionDigits++;
+            }
+        }
+        if (!digits) {
+            return fallback;
+        }
+        for (int i = Math.min(fractionDigits, SCALE); i < SCALE; i++) {
+            fraction *= 10;
+        }
+        return units * MINOR_PER_UNIT + fraction + (roundUp ? 1 : 0);
+    }
+
+    // For amounts that only exist as doubles, e.g. legacy rows; rounds to the nearest sen
+    public static long fromUnits(double units) {
+        return Math.round(units * MINOR_PER_UNIT);
+    }
+
+    // For display and charts only; never feed the result back into a total
+    public static double toUnits(long minor) {
+        return minor / (double) MINOR_PER_UNIT;
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.personal_finance_manager.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small LRU cache of per-period results (first list page, dashboard totals,
+ * category breakdown) keyed by what was asked for, the resolved range, and
+ * the data version it was read at.
+ *
+ * The version goes up on every committed change to the transaction data:
+ * Room's invalidation tracker covers every writer, and the app's own write
+ * paths also call {@link #bump()} as soon as their write returns, so a read
+ * they trigger next never sees the previous version. Entries of older
+ * versions can never be hit again and are dropped on the next bump.
+ *
+ * One cached value is handed to every screen and thread that asks for it, so
+ * values must not change after loading: lists are stored and returned
+ * unmodifiable, and DashboardSnapshot is immutable. SpendingStatistics.Summary
+ * keeps its categories unmodifiable; its SpendStats are only filled while it
+ * is being summarized.
+ */
+public final class PeriodCache {
+    private static final int MAX_ENTRIES = 48;
+
+    private static final PeriodCache INSTANCE = new PeriodCache();
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final LinkedHashMap<Key, Object> entries = new LinkedHashMap<Key, Object>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private PeriodCache() {}
+
+    public static PeriodCache getInstance() {
+        return INSTANCE;
+    }
+
+    // Bumps the version on every change Room sees, whoever made it (sync, archiving, other screens)
+    void attach(AppDatabase database) {
+        database.getInvalidationTracker().addObserver(
+                new InvalidationTracker.Observer("transaction", "transaction_archive", "archive_summary") {
+                    @Override
+                    public void onInvalidated(@NonNull Set<String> tables) {
+                        bump();
+                    }
+                });
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the cached result for (kind, range) at the current version, or
+     * loads and caches it. A result is only cached if no write landed while it
+     * was loading, since it may not reflect that write.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, long start, long end, Callable<T> loader) throws Exception {
+        long readVersion = version.get();
+        Key key = new Key(kind, start, end, readVersion);
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return (T) cached;
+            }
+        }
+        misses.incrementAndGet();
+        T value = loader.call();
+        if (value instanceof List) {
+            value = (T) Collections.unmodifiableList((List<?>) value);
+        }
+        if (value != null) {
+            synchronized (entries) {
+                if (version.get() == readVersion) {
+                    entries.put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    // The cached result for (kind, range) at the current version, or null; never loads
+    @SuppressWarnings("unchecked")
+    public <T> T peek(String kind, long start, long end) {
+        Key key = new Key(kind, start, end, version.get());
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+            }
+            return (T) cached;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public String getStats() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return "hits=" + hitCount
+                + " misses=" + misses.get()
+                + " hitRate=" + (total == 0 ? 0 : hitCount * 100 / total) + "%"
+                + " evictions=" + evictions.get()
+                + " size=" + size
+                + " version=" + version.get();
+    }
+
+    private static final class Key {
+        final String kind;
+        final long start;
+        final long end;
+        final long version;
+
+        Key(String kind, long start, long end, long version) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return start == other.start && end == other.end && version == other.version && kind.equals(other.kind);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, start, end, version);
+        }
+    }
+}
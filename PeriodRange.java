@@ -0,0 +1,54 @@
+package com.example.personal_finance_manager.model;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The date range behind each period button ("Hari Ini" ... "Semua"). Bounds
+ * are whole local days, from 00:00 of the first day to the last millisecond
+ * of today, so a period resolves to the same range all day long and results
+ * can be cached per range.
+ */
+public final class PeriodRange {
+    public final Date start;
+    public final Date end;
+
+    private PeriodRange(Date start, Date end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public static PeriodRange resolve(String period) {
+        Calendar endCal = Calendar.getInstance();
+        endCal.set(Calendar.HOUR_OF_DAY, 23);
+        endCal.set(Calendar.MINUTE, 59);
+        endCal.set(Calendar.SECOND, 59);
+        endCal.set(Calendar.MILLISECOND, 999);
+
+        Calendar startCal = Calendar.getInstance();
+        startCal.set(Calendar.HOUR_OF_DAY, 0);
+        startCal.set(Calendar.MINUTE, 0);
+        startCal.set(Calendar.SECOND, 0);
+        startCal.set(Calendar.MILLISECOND, 0);
+
+        switch (period) {
+            case "Hari Ini":
+                break;
+            case "Minggu Ini":
+                startCal.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
+                break;
+            case "Bulan Ini":
+                startCal.set(Calendar.DAY_OF_MONTH, 1);
+                break;
+            case "Tahun Ini":
+                startCal.set(Calendar.MONTH, Calendar.JANUARY);
+                startCal.set(Calendar.DAY_OF_MONTH, 1);
+                break;
+            case "Semua":
+                startCal.set(1970, Calendar.JANUARY, 1);
+                break;
+        }
+
+        return new PeriodRange(startCal.getTime(), endCal.getTime());
+    }
+}
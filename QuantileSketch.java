@@ -0,0 +1,177 @@
+package com.example.personal_finance_manager.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mergeable quantile sketch over long values (KLL). Items sit in levels where
+ * an item on level h stands for 2^h inputs; when the sketch outgrows its
+ * budget, the lowest full level is sorted and every other item, from a random
+ * offset, moves one level up. With K = 200 a quantile is within about 1.5% of
+ * the true rank, and up to roughly K values the sketch is still exact.
+ *
+ * Used per category and month by SpendStats; merging the sketches of many
+ * months gives the same accuracy as one sketch over all of their values.
+ */
+public final class QuantileSketch {
+    private static final int K = 200;
+    private static final int MIN_CAPACITY = 8;
+    private static final double DECAY = 2.0 / 3.0;
+
+    // levels[h][0 .. sizes[h]) are the items of weight 2^h
+    private long[][] levels = {new long[MIN_CAPACITY]};
+    private int[] sizes = {0};
+    // Total weight, i.e. the number of values added
+    private long count;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(long value) {
+        append(0, value);
+        count++;
+        compact();
+    }
+
+    public void merge(QuantileSketch other) {
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        compact();
+    }
+
+    // Nearest-rank quantile, e.g. 0.5 for the median; 0 when empty
+    public long quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        int retained = retained();
+        long[] values = new long[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = 1L << h;
+                n++;
+            }
+        }
+        // At most a few hundred items, read a few times per screen
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(values[a], values[b]));
+
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < n; i++) {
+            seen += weights[order[i]];
+            if (seen >= rank) {
+                return values[order[i]];
+            }
+        }
+        return values[order[n - 1]];
+    }
+
+    private void append(int level, long value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new long[MIN_CAPACITY];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+    }
+
+    // Lower levels get geometrically smaller budgets; the top level gets K
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(K * Math.pow(DECAY, depth)));
+    }
+
+    private int retained() {
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        return total;
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < levels.length; h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    private void compact() {
+        while (retained() > totalCapacity()) {
+            int h = 0;
+            while (sizes[h] < capacity(h)) {
+                h++;
+            }
+            if (h + 1 == levels.length) {
+                addLevel();
+            }
+            long[] items = levels[h];
+            int size = sizes[h];
+            Arrays.sort(items, 0, size);
+            // An odd item out stays behind, so the weight moved up is exactly what leaves this level
+            int paired = size & ~1;
+            int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+            for (int i = offset; i < paired; i += 2) {
+                append(h + 1, items[i]);
+            }
+            if (paired < size) {
+                items[0] = items[size - 1];
+            }
+            sizes[h] = size - paired;
+        }
+    }
+
+    public int encodedSize() {
+        return 8 + 4 + 4 * levels.length + 8 * retained();
+    }
+
+    public void encode(ByteBuffer out) {
+        out.putLong(count);
+        out.putInt(levels.length);
+        for (int h = 0; h < levels.length; h++) {
+            out.putInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                out.putLong(levels[h][i]);
+            }
+        }
+    }
+
+    public static QuantileSketch decode(ByteBuffer in) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.count = in.getLong();
+        int levelCount = in.getInt();
+        sketch.levels = new long[levelCount][];
+        sketch.sizes = new int[levelCount];
+        for (int h = 0; h < levelCount; h++) {
+            int size = in.getInt();
+            long[] items = new long[Math.max(MIN_CAPACITY, size)];
+            for (int i = 0; i < size; i++) {
+                items[i] = in.getLong();
+            }
+            sketch.levels[h] = items;
+            sketch.sizes[h] = size;
+        }
+        return sketch;
+    }
+}
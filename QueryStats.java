@@ -0,0 +1,356 @@
+package com.example.personal_finance_manager.database;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per DAO method latency and row counts, plus the statements and query plans
+ * behind calls slower than SLOW_CALL_MILLIS.
+ *
+ * DAOs are wrapped in a proxy that times each call as the app sees it, with
+ * any @Transaction and default-method work included. Room's QueryCallback runs
+ * synchronously on the calling thread, so every statement it reports is
+ * attributed to the DAO call in progress on that thread. Plans are explained
+ * once per statement, off the calling thread.
+ *
+ * Methods returning LiveData, a PagingSource or a ListenableFuture only build
+ * the object; their SQL runs later on another thread, outside any call. They
+ * are not timed. Statements that arrive with no call in progress, theirs or
+ * those of DAOs that are not wrapped, are counted and explained by SQL text.
+ */
+public final class QueryStats implements RoomDatabase.QueryCallback {
+    private static final String TAG = "QueryStats";
+
+    public static final long SLOW_CALL_MILLIS = 50;
+    private static final int SLOW_SAMPLES_PER_METHOD = 5;
+    private static final int STATEMENTS_PER_CALL = 20;
+    private static final int MAX_UNATTRIBUTED_STATEMENTS = 100;
+
+    private static final QueryStats INSTANCE = new QueryStats();
+
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+    // Query plan lines per SQL text, filled in by explain()
+    private final ConcurrentHashMap<String, List<String>> plans = new ConcurrentHashMap<>();
+    private final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+    // Executions per SQL text of statements run outside any timed DAO call
+    private final ConcurrentHashMap<String, AtomicLong> unattributed = new ConcurrentHashMap<>();
+
+    private volatile SupportSQLiteOpenHelper openHelper;
+    private volatile Executor explainExecutor;
+
+    private QueryStats() {}
+
+    public static QueryStats getInstance() {
+        return INSTANCE;
+    }
+
+    // Where slow statements are explained; until then only latencies are recorded
+    void attach(SupportSQLiteOpenHelper openHelper, Executor explainExecutor) {
+        this.openHelper = openHelper;
+        this.explainExecutor = explainExecutor;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T instrument(Class<T> daoClass, T dao) {
+        String prefix = daoClass.getSimpleName() + ".";
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class || isDeferred(method.getReturnType())) {
+                try {
+                    return method.invoke(dao, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            return invoke(prefix + method.getName(), dao, method, args);
+        };
+        return (T) Proxy.newProxyInstance(daoClass.getClassLoader(), new Class<?>[]{daoClass}, handler);
+    }
+
+    // Return types whose query runs after the call returns, so timing the call would record only their construction
+    private static boolean isDeferred(Class<?> type) {
+        return LiveData.class.isAssignableFrom(type)
+                || PagingSource.class.isAssignableFrom(type)
+                || ListenableFuture.class.isAssignableFrom(type);
+    }
+
+    private Object invoke(String name, Object dao, Method method, Object[] args) throws Throwable {
+        Call previous = currentCall.get();
+        Call call = new Call();
+        currentCall.set(call);
+        long started = System.nanoTime();
+        Object result = null;
+        try {
+            result = method.invoke(dao, args);
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            long micros = (System.nanoTime() - started) / 1000;
+            currentCall.set(previous);
+            record(name, micros, rowsOf(result), call);
+        }
+    }
+
+    @Override
+    public void onQuery(String sqlQuery, List<?> bindArgs) {
+        Call call = currentCall.get();
+        if (call == null) {
+            // Transaction control and the EXPLAINs run by explain() itself are not worth listing
+            if (isExplainable(sqlQuery) || sqlQuery.trim().regionMatches(true, 0, "INSERT", 0, 6)) {
+                recordUnattributed(sqlQuery, bindArgs);
+            }
+        } else if (call.statements.size() < STATEMENTS_PER_CALL) {
+            call.statements.put(sqlQuery, bindArgs.toArray());
+        }
+    }
+
+    private void recordUnattributed(String sql, List<?> bindArgs) {
+        AtomicLong count = unattributed.get(sql);
+        if (count == null) {
+            if (unattributed.size() >= MAX_UNATTRIBUTED_STATEMENTS) {
+                return;
+            }
+            AtomicLong added = new AtomicLong();
+            count = unattributed.putIfAbsent(sql, added);
+            if (count == null) {
+                count = added;
+                explain(sql, bindArgs.toArray());
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private void record(String name, long micros, int rows, Call call) {
+        MethodStats stats = methods.computeIfAbsent(name, MethodStats::new);
+        stats.record(micros, rows);
+        if (micros >= SLOW_CALL_MILLIS * 1000) {
+            stats.addSlowCall(new SlowCall(System.currentTimeMillis(), micros, rows, new ArrayList<>(call.statements.keySet())));
+            for (Map.Entry<String, Object[]> statement : call.statements.entrySet()) {
+                explain(statement.getKey(), statement.getValue());
+            }
+        }
+    }
+
+    private void explain(String sql, Object[] args) {
+        SupportSQLiteOpenHelper helper = openHelper;
+        Executor executor = explainExecutor;
+        if (helper == null || executor == null || !isExplainable(sql)
+                || plans.putIfAbsent(sql, Collections.emptyList()) != null) {
+            return;
+        }
+        executor.execute(() -> {
+            List<String> plan = new ArrayList<>();
+            try (Cursor cursor = helper.getReadableDatabase().query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args))) {
+                int detail = cursor.getColumnIndex("detail");
+                while (cursor.moveToNext()) {
+                    plan.add(cursor.getString(detail));
+                }
+            } catch (Exception e) {
+                plan.add("explain failed: " + e.getMessage());
+            }
+            plans.put(sql, plan);
+            if (hasFullScan(plan)) {
+                Log.w(TAG, "Full scan in slow statement: " + sql + " " + plan);
+            }
+        });
+    }
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.trim().toUpperCase(Locale.ROOT);
+        return head.startsWith("SELECT") || head.startsWith("WITH") || head.startsWith("UPDATE") || head.startsWith("DELETE");
+    }
+
+    // "SCAN t" without an index; "SCAN t USING INDEX ..." and virtual tables are fine
+    static boolean hasFullScan(List<String> plan) {
+        for (String line : plan) {
+            String detail = line.trim();
+            if (detail.startsWith("SCAN") && !detail.contains(" USING ") && !detail.contains("VIRTUAL TABLE")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        return 1;
+    }
+
+    // Slowest p95 first
+    public List<MethodStats> getMethods() {
+        List<MethodStats> list = new ArrayList<>(methods.values());
+        Collections.sort(list, (a, b) -> Long.compare(b.latency.percentile(0.95), a.latency.percentile(0.95)));
+        return list;
+    }
+
+    // SQL text and execution count of statements run outside a timed DAO call, most frequent first
+    public List<Map.Entry<String, Long>> getUnattributed() {
+        List<Map.Entry<String, Long>> list = new ArrayList<>(unattributed.size());
+        for (Map.Entry<String, AtomicLong> entry : unattributed.entrySet()) {
+            list.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().get()));
+        }
+        Collections.sort(list, (a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return list;
+    }
+
+    public void reset() {
+        methods.clear();
+        plans.clear();
+        unattributed.clear();
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject report = new JSONObject();
+        report.put("generatedAt", System.currentTimeMillis());
+        report.put("slowCallMillis", SLOW_CALL_MILLIS);
+        JSONArray list = new JSONArray();
+        for (MethodStats stats : getMethods()) {
+            JSONObject method = new JSONObject();
+            method.put("method", stats.name);
+            method.put("calls", stats.latency.getCount());
+            method.put("p50Millis", stats.getPercentileMillis(0.50));
+            method.put("p95Millis", stats.getPercentileMillis(0.95));
+            method.put("p99Millis", stats.getPercentileMillis(0.99));
+            method.put("maxMillis", stats.latency.getMax() / 1000.0);
+            method.put("meanMillis", stats.latency.getMean() / 1000.0);
+            method.put("rows", stats.getRows());
+            method.put("maxRows", stats.getMaxRows());
+            method.put("slowCalls", stats.getSlowCount());
+            JSONArray samples = new JSONArray();
+            for (SlowCall slow : stats.getSlowCalls()) {
+                JSONObject sample = new JSONObject();
+                sample.put("at", slow.at);
+                sample.put("millis", slow.micros / 1000.0);
+                sample.put("rows", slow.rows);
+                JSONArray statements = new JSONArray();
+                for (String sql : slow.statements) {
+                    JSONObject statement = new JSONObject();
+                    statement.put("sql", sql);
+                    List<String> plan = getPlan(sql);
+                    statement.put("plan", new JSONArray(plan));
+                    statement.put("fullScan", hasFullScan(plan));
+                    statements.put(statement);
+                }
+                sample.put("statements", statements);
+                samples.put(sample);
+            }
+            method.put("slowSamples", samples);
+            list.put(method);
+        }
+        report.put("methods", list);
+        JSONArray untimed = new JSONArray();
+        for (Map.Entry<String, Long> entry : getUnattributed()) {
+            JSONObject statement = new JSONObject();
+            statement.put("sql", entry.getKey());
+            statement.put("executions", entry.getValue());
+            List<String> plan = getPlan(entry.getKey());
+            statement.put("plan", new JSONArray(plan));
+            statement.put("fullScan", hasFullScan(plan));
+            untimed.put(statement);
+        }
+        report.put("unattributedStatements", untimed);
+        return report;
+    }
+
+    public List<String> getPlan(String sql) {
+        List<String> plan = plans.get(sql);
+        return plan != null ? plan : Collections.emptyList();
+    }
+
+    // Statements seen during one DAO call, in order, without repeats
+    private static final class Call {
+        final Map<String, Object[]> statements = new LinkedHashMap<>();
+    }
+
+    public static final class SlowCall {
+        public final long at;
+        public final long micros;
+        public final int rows;
+        public final List<String> statements;
+
+        SlowCall(long at, long micros, int rows, List<String> statements) {
+            this.at = at;
+            this.micros = micros;
+            this.rows = rows;
+            this.statements = statements;
+        }
+    }
+
+    public static final class MethodStats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Deque<SlowCall> slowCalls = new ArrayDeque<>();
+        private long rows;
+        private int maxRows;
+        private long slowCount;
+
+        MethodStats(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long micros, int rowCount) {
+            latency.record(micros);
+            rows += rowCount;
+            maxRows = Math.max(maxRows, rowCount);
+        }
+
+        synchronized void addSlowCall(SlowCall call) {
+            slowCount++;
+            if (slowCalls.size() == SLOW_SAMPLES_PER_METHOD) {
+                slowCalls.removeFirst();
+            }
+            slowCalls.addLast(call);
+        }
+
+        public String getName() { return name; }
+
+        public long getCount() { return latency.getCount(); }
+
+        public double getPercentileMillis(double quantile) { return latency.percentile(quantile) / 1000.0; }
+
+        public double getMaxMillis() { return latency.getMax() / 1000.0; }
+
+        public synchronized long getRows() { return rows; }
+
+        public synchronized int getMaxRows() { return maxRows; }
+
+        public synchronized long getSlowCount() { return slowCount; }
+
+        public synchronized List<SlowCall> getSlowCalls() { return new ArrayList<>(slowCalls); }
+    }
+}
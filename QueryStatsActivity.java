@@ -0,0 +1,110 @@
+package com.example.personal_finance_manager;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.PeriodCache;
+import com.example.personal_finance_manager.database.QueryStats;
+import com.example.personal_finance_manager.repository.TimeSeriesEngine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Debug view of QueryStats: period cache hit rate, trend engine loads, latency percentiles per DAO method, slow statements
+// and their plans, and statements run outside any timed DAO call
+public class QueryStatsActivity extends AppCompatActivity {
+
+    private TextView tvStats;
+    private Button btnRefresh, btnSaveJson, btnReset;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_query_stats);
+
+        tvStats = findViewById(R.id.tvStats);
+        btnRefresh = findViewById(R.id.btnRefresh);
+        btnSaveJson = findViewById(R.id.btnSaveJson);
+        btnReset = findViewById(R.id.btnReset);
+
+        btnRefresh.setOnClickListener(v -> showStats());
+        btnSaveJson.setOnClickListener(v -> saveJson());
+        btnReset.setOnClickListener(v -> {
+            QueryStats.getInstance().reset();
+            showStats();
+        });
+
+        showStats();
+    }
+
+    private void showStats() {
+        StringBuilder text = new StringBuilder();
+        text.append("Cache periode: ").append(PeriodCache.getInstance().getStats()).append("\n\n");
+        text.append("Tren: ").append(TimeSeriesEngine.getInstance(DatabaseClient.getInstance(this).getAppDatabase()).getStats())
+                .append("\n\n");
+        List<QueryStats.MethodStats> methods = QueryStats.getInstance().getMethods();
+        if (methods.isEmpty()) {
+            text.append("Belum ada query tercatat");
+        }
+        for (QueryStats.MethodStats stats : methods) {
+            text.append(stats.getName()).append('\n')
+                    .append(String.format(Locale.US, "  %d× p50 %.1f · p95 %.1f · p99 %.1f · max %.1f ms\n",
+                            stats.getCount(), stats.getPercentileMillis(0.50), stats.getPercentileMillis(0.95),
+                            stats.getPercentileMillis(0.99), stats.getMaxMillis()))
+                    .append("  baris ").append(stats.getRows()).append(" (maks ").append(stats.getMaxRows()).append(")")
+                    .append(" · lambat ").append(stats.getSlowCount()).append('\n');
+            List<QueryStats.SlowCall> slowCalls = stats.getSlowCalls();
+            if (!slowCalls.isEmpty()) {
+                QueryStats.SlowCall last = slowCalls.get(slowCalls.size() - 1);
+                for (String sql : last.statements) {
+                    text.append("  > ").append(sql).append('\n');
+                    for (String line : QueryStats.getInstance().getPlan(sql)) {
+                        text.append("      ").append(line).append('\n');
+                    }
+                }
+            }
+            text.append('\n');
+        }
+        List<Map.Entry<String, Long>> unattributed = QueryStats.getInstance().getUnattributed();
+        if (!unattributed.isEmpty()) {
+            text.append("Tanpa waktu (di luar panggilan DAO)\n");
+            for (Map.Entry<String, Long> statement : unattributed) {
+                text.append("  ").append(statement.getValue()).append("× ").append(statement.getKey()).append('\n');
+                for (String line : QueryStats.getInstance().getPlan(statement.getKey())) {
+                    text.append("      ").append(line).append('\n');
+                }
+            }
+        }
+        tvStats.setText(text.toString());
+    }
+
+    private void saveJson() {
+        DatabaseClient.getInstance(this).getReadExecutor().execute(() -> {
+            try {
+                File dir = new File(getExternalFilesDir(null), "Diagnostics");
+                if (!dir.exists()) {
+                    dir.mkdirs();
+                }
+                SimpleDateFormat fileSdf = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault());
+                File file = new File(dir, "query_stats_" + fileSdf.format(new Date()) + ".json");
+                try (FileWriter writer = new FileWriter(file)) {
+                    writer.write(QueryStats.getInstance().toJson().toString(2));
+                }
+                runOnUiThread(() -> Toast.makeText(this, "Disimpan: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show());
+            } catch (Exception e) {
+                e.printStackTrace();
+                runOnUiThread(() -> Toast.makeText(this, "Gagal menyimpan: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.personal_finance_manager.database;
+
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs only the newest of a stream of reload requests. Every submit() starts
+ * a new generation: a request that has not started yet when a newer one
+ * arrives is dropped, the one in flight is cancelled through its
+ * CancellationSignal, and a result is delivered only if no newer request
+ * arrived while it was computed. A burst of submits costs one query.
+ *
+ * Requests run one at a time, so the executor should be a serial lane.
+ */
+public class ReloadScheduler {
+
+    public interface Load<T> {
+        T run(CancellationSignal signal) throws Exception;
+    }
+
+    private final Executor executor;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Request<?>> pending = new AtomicReference<>();
+    private final AtomicReference<CancellationSignal> inFlight = new AtomicReference<>();
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public ReloadScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    public <T> void submit(Load<T> load, Consumer<T> onResult) {
+        Request<T> request = new Request<>(generation.incrementAndGet(), load, onResult);
+        Request<?> replaced = pending.getAndSet(request);
+        cancelInFlight();
+        if (replaced != null) {
+            // Its drain task is already queued and will pick up this request instead
+            dropped.incrementAndGet();
+        } else {
+            executor.execute(this::runPending);
+        }
+    }
+
+    // Supersedes everything submitted so far without starting anything new
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pending.getAndSet(null) != null) {
+            dropped.incrementAndGet();
+        }
+        cancelInFlight();
+    }
+
+    private void cancelInFlight() {
+        CancellationSignal signal = inFlight.get();
+        if (signal != null) {
+            signal.cancel();
+        }
+    }
+
+    private void runPending() {
+        Request<?> request = pending.getAndSet(null);
+        if (request != null) {
+            request.run();
+        }
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    // Requests superseded before they started
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Requests superseded while their query was running
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    private final class Request<T> {
+        final long generation;
+        final Load<T> load;
+        final Consumer<T> onResult;
+
+        Request(long generation, Load<T> load, Consumer<T> onResult) {
+            this.generation = generation;
+            this.load = load;
+            this.onResult = onResult;
+        }
+
+        boolean isCurrent() {
+            return generation == ReloadScheduler.this.generation.get();
+        }
+
+        void run() {
+            CancellationSignal signal = new CancellationSignal();
+            inFlight.set(signal);
+            try {
+                // A newer submit may have missed this signal while it was being installed
+                if (!isCurrent()) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                T result = load.run(signal);
+                if (isCurrent()) {
+                    delivered.incrementAndGet();
+                    onResult.accept(result);
+                } else {
+                    cancelled.incrementAndGet();
+                }
+            } catch (OperationCanceledException e) {
+                cancelled.incrementAndGet();
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                inFlight.compareAndSet(signal, null);
+            }
+        }
+    }
+}
@@ -2,20 +2,33 @@ package com.example.personal_finance_manager;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import com.example.personal_finance_manager.config.SupabaseConfig;
+import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.model.MaintenanceRun;
+import com.example.personal_finance_manager.service.DatabaseMaintenanceJobService;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
 
 public class SettingsActivity extends AppCompatActivity {
 
+    private static final int MAINTENANCE_LOG_SIZE = 5;
+
     private EditText etSupabaseUrl, etSupabaseKey;
     private CheckBox cbAutoSync, cbNotifications;
-    private Button btnSave, btnTestConnection, btnReset;
+    private Button btnSave, btnTestConnection, btnReset, btnRunMaintenance, btnQueryStats, btnBudgets;
+    private TextView tvMaintenanceLog;
 
     private SharedPreferences prefs;
 
@@ -28,6 +41,7 @@ public class SettingsActivity extends AppCompatActivity {
 
         initViews();
         loadSettings();
+        loadMaintenanceLog();
         setupListeners();
     }
 
@@ -39,6 +53,10 @@ public class SettingsActivity extends AppCompatActivity {
         btnSave = findViewById(R.id.btnSave);
         btnTestConnection = findViewById(R.id.btnTestConnection);
         btnReset = findViewById(R.id.btnReset);
+        btnRunMaintenance = findViewById(R.id.btnRunMaintenance);
+        btnQueryStats = findViewById(R.id.btnQueryStats);
+        btnBudgets = findViewById(R.id.btnBudgets);
+        tvMaintenanceLog = findViewById(R.id.tvMaintenanceLog);
     }
 
     private void loadSettings() {
@@ -54,6 +72,11 @@ public class SettingsActivity extends AppCompatActivity {
         btnTestConnection.setOnClickListener(v -> testConnection());
 
         btnReset.setOnClickListener(v -> resetToDefaults());
+
+        btnRunMaintenance.setOnClickListener(v -> runMaintenance());
+
+        btnQueryStats.setOnClickListener(v -> startActivity(new Intent(this, QueryStatsActivity.class)));
+        btnBudgets.setOnClickListener(v -> startActivity(new Intent(this, BudgetActivity.class)));
     }
 
     private void saveSettings() {
@@ -80,6 +103,47 @@ public class SettingsActivity extends AppCompatActivity {
         Toast.makeText(this, "Fitur test koneksi akan datang", Toast.LENGTH_SHORT).show();
     }
 
+    private void loadMaintenanceLog() {
+        DatabaseClient client = DatabaseClient.getInstance(this);
+        client.getReadExecutor().execute(() -> {
+            List<MaintenanceRun> runs = client.getAppDatabase().maintenanceDao().getRecent(MAINTENANCE_LOG_SIZE);
+            String text = formatMaintenanceLog(runs);
+            runOnUiThread(() -> tvMaintenanceLog.setText(text));
+        });
+    }
+
+    private void runMaintenance() {
+        btnRunMaintenance.setEnabled(false);
+        tvMaintenanceLog.setText("Pemeliharaan berjalan...");
+        DatabaseMaintenanceJobService.runNow(this, () -> runOnUiThread(() -> {
+            btnRunMaintenance.setEnabled(true);
+            loadMaintenanceLog();
+        }));
+    }
+
+    private String formatMaintenanceLog(List<MaintenanceRun> runs) {
+        if (runs.isEmpty()) {
+            return "Belum ada pemeliharaan";
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+        StringBuilder text = new StringBuilder();
+        for (MaintenanceRun run : runs) {
+            if (text.length() > 0) text.append("\n\n");
+            text.append(sdf.format(new Date(run.getStartedAt())))
+                    .append(" · ").append(run.getDurationMillis()).append(" ms\n")
+                    .append(formatSize(run.getFileSizeBefore())).append(" → ").append(formatSize(run.getFileSizeAfter()))
+                    .append(" · ").append(run.getPageCountBefore()).append(" → ").append(run.getPageCountAfter())
+                    .append(" halaman (kosong ").append(run.getFreePagesBefore()).append(" → ").append(run.getFreePagesAfter()).append(")\n")
+                    .append("Integritas: ").append(run.getIntegrity())
+                    .append(" · ").append(run.getSteps());
+        }
+        return text.toString();
+    }
+
+    private String formatSize(long bytes) {
+        return String.format(Locale.getDefault(), "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
     private void resetToDefaults() {
         etSupabaseUrl.setText(SupabaseConfig.SUPABASE_URL);
         etSupabaseKey.setText(SupabaseConfig.SUPABASE_KEY);
@@ -0,0 +1,98 @@
+package com.example.personal_finance_manager.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Running statistics of a stream of amounts in minor units: count, sum,
+ * min and max, mean and variance by Welford's method, and a QuantileSketch
+ * for the median and p90. Two instances merge into the statistics of both
+ * streams (Chan et al. for the variance), which is how month sketches stored
+ * in category_month_stats add up to a multi-year summary.
+ */
+public final class SpendStats {
+    private static final byte FORMAT_VERSION = 1;
+
+    private long count;
+    private long sumMinor;
+    private long minMinor = Long.MAX_VALUE;
+    private long maxMinor = Long.MIN_VALUE;
+    private double mean;
+    // Sum of squared deviations from the mean
+    private double m2;
+    private QuantileSketch sketch = new QuantileSketch();
+
+    public void add(long amountMinor) {
+        count++;
+        sumMinor = Money.add(sumMinor, amountMinor);
+        minMinor = Math.min(minMinor, amountMinor);
+        maxMinor = Math.max(maxMinor, amountMinor);
+        double delta = amountMinor - mean;
+        mean += delta / count;
+        m2 += delta * (amountMinor - mean);
+        sketch.add(amountMinor);
+    }
+
+    public void merge(SpendStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        sumMinor = Money.add(sumMinor, other.sumMinor);
+        minMinor = Math.min(minMinor, other.minMinor);
+        maxMinor = Math.max(maxMinor, other.maxMinor);
+        sketch.merge(other.sketch);
+    }
+
+    public long getCount() { return count; }
+    public long getSumMinor() { return sumMinor; }
+    public long getMinMinor() { return count == 0 ? 0 : minMinor; }
+    public long getMaxMinor() { return count == 0 ? 0 : maxMinor; }
+    public long getMeanMinor() { return Math.round(mean); }
+
+    // Sample standard deviation; 0 below two values
+    public long getStdDevMinor() {
+        return count < 2 ? 0 : Math.round(Math.sqrt(m2 / (count - 1)));
+    }
+
+    public long getMedianMinor() {
+        return sketch.quantile(0.5);
+    }
+
+    public long getP90Minor() {
+        return sketch.quantile(0.9);
+    }
+
+    public byte[] encode() {
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 * 6 + sketch.encodedSize());
+        out.put(FORMAT_VERSION)
+                .putLong(count)
+                .putLong(sumMinor)
+                .putLong(minMinor)
+                .putLong(maxMinor)
+                .putDouble(mean)
+                .putDouble(m2);
+        sketch.encode(out);
+        return out.array();
+    }
+
+    public static SpendStats decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        byte version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported stats format " + version);
+        }
+        SpendStats stats = new SpendStats();
+        stats.count = in.getLong();
+        stats.sumMinor = in.getLong();
+        stats.minMinor = in.getLong();
+        stats.maxMinor = in.getLong();
+        stats.mean = in.getDouble();
+        stats.m2 = in.getDouble();
+        stats.sketch = QuantileSketch.decode(in);
+        return stats;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.personal_finance_manager.repository;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import com.example.personal_finance_manager.database.AppDatabase;
+import com.example.personal_finance_manager.database.ArchiveCodec;
+import com.example.personal_finance_manager.database.CategoryDictionary;
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.ArchivedMonth;
+import com.example.personal_finance_manager.model.CategoryMonthStats;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.DailySummary;
+import com.example.personal_finance_manager.model.SpendStats;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Expense statistics per category for a date range: count, mean and standard
+ * deviation per transaction, median and p90.
+ *
+ * Whole months of the range are merged from category_month_stats, one stored
+ * SpendStats per month and category; only the partly covered months at the
+ * edges are read from raw rows. {@link #refresh} keeps the stored months
+ * current: the first run streams every expense row once through a cursor in
+ * date order, later runs rebuild only the months that have a day in
+ * daily_summary_change since the last build. Archived rows are decoded along
+ * with the hot rows of their month.
+ */
+public final class SpendingStatistics {
+    private static final String TAG = "SpendingStatistics";
+
+    // Past this many changed months, one pass over everything beats a cursor per month
+    private static final int MAX_INCREMENTAL_MONTHS = 12;
+
+    private SpendingStatistics() {}
+
+    // Brings category_month_stats up to date with the journal. Writes, so run it on the write executor.
+    public static void refresh(AppDatabase database) {
+        TransactionDao dao = database.transactionDao();
+        database.runInTransaction(() -> {
+            long started = System.nanoTime();
+            long latest = dao.getSummaryChangeSeq();
+            Long built = dao.getCategoryMonthStatsSeq();
+            if (built != null && built == latest) {
+                return;
+            }
+            Set<Integer> months = new TreeSet<>();
+            if (built != null) {
+                for (long day : dao.getChangedSummaryDays(built, latest)) {
+                    months.add(DailySummary.monthKeyOfDay(day));
+                }
+            }
+            if (built == null || months.size() > MAX_INCREMENTAL_MONTHS) {
+                dao.clearCategoryMonthStats();
+                buildMonths(dao, Long.MIN_VALUE, Long.MAX_VALUE, latest);
+                Log.d(TAG, "Built all months in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+                return;
+            }
+            for (int month : months) {
+                dao.deleteCategoryMonthStats(month);
+                buildMonths(dao, ArchivedMonth.startOf(month), ArchivedMonth.startOf(month + 1) - 1, latest);
+            }
+            dao.markCategoryMonthStatsBuilt(latest);
+            Log.d(TAG, "Rebuilt " + months.size() + " months in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+        });
+    }
+
+    // Writes the stats of every month in [from, to], which is either whole months or everything
+    private static void buildMonths(TransactionDao dao, long from, long to, long seq) {
+        int firstMonth = from == Long.MIN_VALUE ? Integer.MIN_VALUE : ArchivedMonth.monthKeyOf(from);
+        int lastMonth = to == Long.MAX_VALUE ? Integer.MAX_VALUE : ArchivedMonth.monthKeyOf(to);
+        MonthWriter writer = new MonthWriter(dao, seq, new TreeSet<>(dao.getArchivedMonthKeysBetween(firstMonth, lastMonth)));
+        try (Cursor cursor = dao.streamExpenses(from, to)) {
+            while (cursor.moveToNext()) {
+                long date = cursor.getLong(0);
+                writer.add(DailySummary.monthKeyOfDay(DailySummary.epochDayOf(date)),
+                        cursor.isNull(1) ? 0 : cursor.getInt(1), cursor.getLong(2));
+            }
+        }
+        writer.finish();
+    }
+
+    // Statistics of expenses in [from, to], largest category total first. Call after refresh().
+    public static Summary summarize(TransactionDao dao, long from, long to) {
+        Map<Integer, SpendStats> byCategory = new HashMap<>();
+        int firstMonth = ArchivedMonth.firstFullMonth(from);
+        int lastMonth = ArchivedMonth.lastFullMonth(to);
+        if (firstMonth <= lastMonth) {
+            for (CategoryMonthStats month : dao.getCategoryMonthStats(firstMonth, lastMonth)) {
+                statsOf(byCategory, month.getCategory()).merge(month.toStats());
+            }
+            if (from < ArchivedMonth.startOf(firstMonth)) {
+                addRows(dao, from, ArchivedMonth.startOf(firstMonth) - 1, byCategory);
+            }
+            if (to >= ArchivedMonth.startOf(lastMonth + 1)) {
+                addRows(dao, ArchivedMonth.startOf(lastMonth + 1), to, byCategory);
+            }
+        } else {
+            addRows(dao, from, to, byCategory);
+        }
+
+        SpendStats total = new SpendStats();
+        List<CategoryStats> categories = new ArrayList<>(byCategory.size());
+        for (Map.Entry<Integer, SpendStats> entry : byCategory.entrySet()) {
+            total.merge(entry.getValue());
+            String name = CategoryDictionary.nameOf(entry.getKey());
+            categories.add(new CategoryStats(name != null ? name : CategoryRegistry.FALLBACK.getName(), entry.getValue()));
+        }
+        Collections.sort(categories, (a, b) -> Long.compare(b.stats.getSumMinor(), a.stats.getSumMinor()));
+        return new Summary(total, Collections.unmodifiableList(categories));
+    }
+
+    // Raw expense rows in [from, to], hot and archived; used for ranges within at most two months
+    private static void addRows(TransactionDao dao, long from, long to, Map<Integer, SpendStats> byCategory) {
+        try (Cursor cursor = dao.streamExpenses(from, to)) {
+            while (cursor.moveToNext()) {
+                statsOf(byCategory, cursor.isNull(1) ? 0 : cursor.getInt(1)).add(cursor.getLong(2));
+            }
+        }
+        for (Transaction row : dao.getArchivedEdgeRows(from, to)) {
+            if (TransactionType.EXPENSE_NAME.equals(row.getType())) {
+                statsOf(byCategory, categoryIdOf(row)).add(row.getAmountMinor());
+            }
+        }
+    }
+
+    private static SpendStats statsOf(Map<Integer, SpendStats> byCategory, int category) {
+        SpendStats stats = byCategory.get(category);
+        if (stats == null) {
+            stats = new SpendStats();
+            byCategory.put(category, stats);
+        }
+        return stats;
+    }
+
+    private static int categoryIdOf(Transaction row) {
+        Integer id = CategoryDictionary.idOf(row.getCategory());
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Collects rows one month at a time, as the cursor delivers them in date
+     * order, and stores a month when the next one starts. Archived rows of a
+     * month are added just before it is stored; archived months without hot
+     * rows are stored at the end.
+     */
+    private static final class MonthWriter {
+        private final TransactionDao dao;
+        private final long seq;
+        private final Set<Integer> archivedMonths;
+        private int monthKey;
+        private Map<Integer, SpendStats> byCategory;
+
+        MonthWriter(TransactionDao dao, long seq, Set<Integer> archivedMonths) {
+            this.dao = dao;
+            this.seq = seq;
+            this.archivedMonths = archivedMonths;
+        }
+
+        void add(int monthKey, int category, long amountMinor) {
+            if (byCategory == null || monthKey != this.monthKey) {
+                flush();
+                this.monthKey = monthKey;
+                byCategory = new HashMap<>();
+            }
+            statsOf(byCategory, category).add(amountMinor);
+        }
+
+        void finish() {
+            flush();
+            for (int month : new ArrayList<>(archivedMonths)) {
+                monthKey = month;
+                byCategory = new HashMap<>();
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (byCategory == null) {
+                return;
+            }
+            if (archivedMonths.remove(monthKey)) {
+                ArchivedMonth archived = dao.getArchivedMonth(monthKey);
+                if (archived != null) {
+                    for (Transaction row : ArchiveCodec.decode(archived)) {
+                        if (TransactionType.EXPENSE_NAME.equals(row.getType())) {
+                            statsOf(byCategory, categoryIdOf(row)).add(row.getAmountMinor());
+                        }
+                    }
+                }
+            }
+            List<CategoryMonthStats> rows = new ArrayList<>(byCategory.size());
+            for (Map.Entry<Integer, SpendStats> entry : byCategory.entrySet()) {
+                rows.add(new CategoryMonthStats(monthKey, entry.getKey(), seq, entry.getValue()));
+            }
+            if (!rows.isEmpty()) {
+                dao.upsertCategoryMonthStats(rows);
+            }
+            byCategory = null;
+        }
+    }
+
+    public static final class Summary {
+        // All categories together
+        public final SpendStats total;
+        public final List<CategoryStats> categories;
+
+        Summary(SpendStats total, List<CategoryStats> categories) {
+            this.total = total;
+            this.categories = categories;
+        }
+    }
+
+    public static final class CategoryStats {
+        public final String category;
+        public final SpendStats stats;
+
+        CategoryStats(String category, SpendStats stats) {
+            this.category = category;
+            this.stats = stats;
+        }
+    }
+}
@@ -15,4 +15,5 @@ public class SupabaseConfig {
     // API endpoints
     public static final String TRANSACTIONS_ENDPOINT = SUPABASE_URL + "/rest/v1/" + TABLE_TRANSACTIONS;
     public static final String CATEGORIES_ENDPOINT = SUPABASE_URL + "/rest/v1/" + TABLE_CATEGORIES;
+    public static final String BUDGETS_ENDPOINT = SUPABASE_URL + "/rest/v1/" + TABLE_BUDGETS;
 }
\ No newline at end of file
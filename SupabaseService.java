@@ -3,22 +3,30 @@ package com.example.personal_finance_manager.service;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
 import android.widget.Toast;
 
 import com.example.personal_finance_manager.config.SupabaseConfig;
 import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.PeriodCache;
 import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.Budget;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TimeOrderedId;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.repository.BudgetTracker;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +42,9 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 
 public class SupabaseService {
+    private static final String TAG = "SupabaseService";
+    private static final int SYNC_BATCH_SIZE = 100;
+
     private static final ExecutorService executor = Executors.newSingleThreadExecutor();
     private static final OkHttpClient client = new OkHttpClient();
     private static final Gson gson = new Gson();
@@ -54,18 +65,33 @@ public class SupabaseService {
         executor.execute(() -> {
             try {
                 boolean allSynced = true;
+                String userId = "user_" + android.provider.Settings.Secure.getString(
+                        context.getContentResolver(),
+                        android.provider.Settings.Secure.ANDROID_ID);
 
+                List<Transaction> pending = new ArrayList<>();
                 for (Transaction transaction : transactions) {
                     if (!transaction.isSynced()) {
+                        pending.add(transaction);
+                    }
+                }
+
+                // PostgREST accepts a JSON array, so each batch is one request. A batch is marked synced locally as soon
+                // as the server has it; rows sent by a run that died before that are sent again, and the upsert
+                // takes them instead of failing the whole batch on the duplicate id.
+                DatabaseClient databaseClient = DatabaseClient.getInstance(context);
+                for (int from = 0; from < pending.size(); from += SYNC_BATCH_SIZE) {
+                    List<Transaction> batch = pending.subList(from, Math.min(from + SYNC_BATCH_SIZE, pending.size()));
+
+                    JSONArray rows = new JSONArray();
+                    for (Transaction transaction : batch) {
                         JSONObject json = new JSONObject();
                         try {
-                            json.put("id", transaction.getId());
-                            json.put("user_id", "user_" + android.provider.Settings.Secure.getString(
-                                    context.getContentResolver(),
-                                    android.provider.Settings.Secure.ANDROID_ID));
+                            json.put("id", transaction.getSyncId());
+                            json.put("user_id", userId);
                             json.put("title", transaction.getTitle());
                             json.put("description", transaction.getDescription());
-                            json.put("amount", transaction.getAmount());
+                            json.put("amount", Money.toDecimal(transaction.getAmountMinor()));
                             json.put("type", transaction.getType());
                             json.put("category", transaction.getCategory());
                             json.put("date", dateFormat.format(transaction.getDate()));
@@ -73,35 +99,43 @@ public class SupabaseService {
                         } catch (JSONException e) {
                             e.printStackTrace();
                         }
+                        rows.put(json);
+                    }
 
-                        RequestBody body = RequestBody.create(
-                                json.toString(),
-                                MediaType.parse("application/json")
-                        );
-
-                        Request request = new Request.Builder()
-                                .url(SupabaseConfig.TRANSACTIONS_ENDPOINT)
-                                .post(body)
-                                .addHeader("apikey", SupabaseConfig.SUPABASE_KEY)
-                                .addHeader("Authorization", "Bearer " + SupabaseConfig.SUPABASE_KEY)
-                                .addHeader("Content-Type", "application/json")
-                                .addHeader("Prefer", "return=minimal")
-                                .build();
-
-                        try (Response response = client.newCall(request).execute()) {
-                            if (response.isSuccessful()) {
-                                transaction.setSynced(true);
-                                DatabaseClient.getInstance(context)
-                                        .getAppDatabase()
-                                        .transactionDao()
-                                        .update(transaction);
-                            } else {
-                                allSynced = false;
-                            }
-                        } catch (IOException e) {
-                            allSynced = false;
-                            e.printStackTrace();
+                    RequestBody body = RequestBody.create(
+                            rows.toString(),
+                            MediaType.parse("application/json")
+                    );
+
+                    Request request = new Request.Builder()
+                            .url(SupabaseConfig.TRANSACTIONS_ENDPOINT)
+                            .post(body)
+                            .addHeader("apikey", SupabaseConfig.SUPABASE_KEY)
+                            .addHeader("Authorization", "Bearer " + SupabaseConfig.SUPABASE_KEY)
+                            .addHeader("Content-Type", "application/json")
+                            .addHeader("Prefer", "resolution=merge-duplicates,return=minimal")
+                            .build();
+
+                    boolean sent;
+                    try (Response response = client.newCall(request).execute()) {
+                        sent = response.isSuccessful();
+                    } catch (IOException e) {
+                        sent = false;
+                        e.printStackTrace();
+                    }
+                    if (sent) {
+                        List<Long> syncedIds = new ArrayList<>(batch.size());
+                        for (Transaction transaction : batch) {
+                            transaction.setSynced(true);
+                            syncedIds.add(transaction.getId());
                         }
+                        // Through the single writer, and committed before the next batch goes out
+                        databaseClient.getWriteExecutor().submit(() -> {
+                            databaseClient.getAppDatabase().transactionDao().markSynced(syncedIds);
+                            PeriodCache.getInstance().bump();
+                        }).get();
+                    } else {
+                        allSynced = false;
                     }
                 }
 
@@ -122,6 +156,108 @@ public class SupabaseService {
         });
     }
 
+    // Budget settings only; what is spent is derived from the transactions on every device.
+    // Deleted budgets are sent as deletions and purged locally once the server has them.
+    public static void syncBudgets(Context context, List<Budget> budgets, SyncCallback callback) {
+        executor.execute(() -> {
+            try {
+                String userId = "user_" + android.provider.Settings.Secure.getString(
+                        context.getContentResolver(),
+                        android.provider.Settings.Secure.ANDROID_ID);
+
+                JSONArray rows = new JSONArray();
+                List<Long> upsertIds = new ArrayList<>();
+                StringBuilder deleteFilter = new StringBuilder();
+                List<Long> deleteIds = new ArrayList<>();
+                for (Budget budget : budgets) {
+                    String syncId = TimeOrderedId.toUuid(budget.getId());
+                    if (budget.isDeleted()) {
+                        deleteFilter.append(deleteFilter.length() == 0 ? "" : ",").append(syncId);
+                        deleteIds.add(budget.getId());
+                        continue;
+                    }
+                    JSONObject json = new JSONObject();
+                    try {
+                        json.put("id", syncId);
+                        json.put("user_id", userId);
+                        json.put("category", budget.getCategory() != null ? budget.getCategory() : JSONObject.NULL);
+                        json.put("period", budget.getPeriod() == Budget.WEEKLY ? "weekly" : "monthly");
+                        json.put("limit_amount", Money.toDecimal(budget.getLimitMinor()));
+                        json.put("alert_percent", budget.getAlertPercent());
+                        json.put("updated_at", dateFormat.format(new Date(budget.getUpdatedAt())));
+                    } catch (JSONException e) {
+                        e.printStackTrace();
+                    }
+                    rows.put(json);
+                    upsertIds.add(budget.getId());
+                }
+
+                List<Long> syncedIds = new ArrayList<>();
+                boolean allSynced = true;
+                if (rows.length() > 0) {
+                    Request request = budgetRequest(SupabaseConfig.BUDGETS_ENDPOINT)
+                            .post(RequestBody.create(rows.toString(), MediaType.parse("application/json")))
+                            // Edited budgets keep their id, so a repeat is an update
+                            .addHeader("Prefer", "resolution=merge-duplicates,return=minimal")
+                            .build();
+                    if (execute(request)) {
+                        syncedIds.addAll(upsertIds);
+                    } else {
+                        allSynced = false;
+                    }
+                }
+                if (!deleteIds.isEmpty()) {
+                    Request request = budgetRequest(SupabaseConfig.BUDGETS_ENDPOINT + "?id=in.(" + deleteFilter + ")")
+                            .delete()
+                            .build();
+                    if (execute(request)) {
+                        syncedIds.addAll(deleteIds);
+                    } else {
+                        allSynced = false;
+                    }
+                }
+
+                final boolean finalAllSynced = allSynced;
+                DatabaseClient client = DatabaseClient.getInstance(context);
+                client.getWriteExecutor().execute(() -> {
+                    if (!syncedIds.isEmpty()) {
+                        client.getAppDatabase().budgetDao().markSynced(syncedIds);
+                    }
+
+                    new Handler(Looper.getMainLooper()).post(() -> {
+                        if (finalAllSynced) {
+                            callback.onSuccess();
+                        } else {
+                            callback.onError("Some budgets failed to sync");
+                        }
+                    });
+                });
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                new Handler(Looper.getMainLooper()).post(() ->
+                        callback.onError(e.getMessage()));
+            }
+        });
+    }
+
+    private static Request.Builder budgetRequest(String url) {
+        return new Request.Builder()
+                .url(url)
+                .addHeader("apikey", SupabaseConfig.SUPABASE_KEY)
+                .addHeader("Authorization", "Bearer " + SupabaseConfig.SUPABASE_KEY)
+                .addHeader("Content-Type", "application/json");
+    }
+
+    private static boolean execute(Request request) {
+        try (Response response = client.newCall(request).execute()) {
+            return response.isSuccessful();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     public static void fetchTransactions(Context context, Date startDate, Date endDate,
                                          FetchCallback callback) {
         executor.execute(() -> {
@@ -141,24 +277,55 @@ public class SupabaseService {
                 try (Response response = client.newCall(request).execute()) {
                     if (response.isSuccessful()) {
                         String jsonResponse = response.body().string();
-                        Type listType = new TypeToken<List<Transaction>>(){}.getType();
-                        List<Transaction> transactions = gson.fromJson(jsonResponse, listType);
+                        JsonArray rows = gson.fromJson(jsonResponse, JsonArray.class);
+                        List<Transaction> transactions = new ArrayList<>(rows.size());
+                        for (JsonElement row : rows) {
+                            // The server keys rows by UUID; map it onto the local id instead of letting Gson read it
+                            JsonObject json = row.getAsJsonObject();
+                            JsonElement syncId = json.remove("id");
+                            // The server keeps a decimal amount; convert it exactly instead of through a double
+                            JsonElement amount = json.remove("amount");
+                            // The owning device, so an id minted on two devices can be told apart on insert
+                            JsonElement owner = json.remove("user_id");
+                            Transaction transaction = gson.fromJson(json, Transaction.class);
+                            if (syncId != null && !syncId.isJsonNull()) {
+                                transaction.setSyncId(syncId.getAsString());
+                            }
+                            if (amount != null && !amount.isJsonNull()) {
+                                transaction.setAmountMinor(Money.parse(amount.getAsString()));
+                            }
+                            if (owner != null && !owner.isJsonNull()) {
+                                transaction.setUserId(owner.getAsString());
+                            }
+                            transactions.add(transaction);
+                        }
 
                         // Mark as synced and save to local database
-                        TransactionDao dao = DatabaseClient.getInstance(context)
-                                .getAppDatabase()
-                                .transactionDao();
+                        DatabaseClient client = DatabaseClient.getInstance(context);
+                        TransactionDao dao = client.getAppDatabase().transactionDao();
 
+                        // Hot rows with the same id or remote id are skipped by the insert itself; rows already
+                        // archived are not in the hot table, so those are filtered out against their month's block
                         for (Transaction t : transactions) {
                             t.setSynced(true);
-                            Transaction existing = dao.getById(t.getId());
-                            if (existing == null) {
-                                dao.insert(t);
-                            }
                         }
+                        String deviceUserId = "user_" + android.provider.Settings.Secure.getString(
+                                context.getContentResolver(),
+                                android.provider.Settings.Secure.ANDROID_ID);
+                        client.getWriteExecutor().execute(() -> {
+                            List<Transaction> rekeyed = dao.insertFetchedInBatches(
+                                    dao.withoutArchived(transactions), deviceUserId);
+                            for (Transaction t : rekeyed) {
+                                Log.w(TAG, "Id " + t.getSyncId()
+                                        + " from " + t.getUserId() + " collides with a local row; stored as " + t.getId());
+                            }
+                            PeriodCache.getInstance().bump();
+                            // The triggers counted the pulled expenses; BudgetTracker only sees them on a reload
+                            BudgetTracker.getInstance(context).invalidate();
 
-                        new Handler(Looper.getMainLooper()).post(() ->
-                                callback.onSuccess(transactions));
+                            new Handler(Looper.getMainLooper()).post(() ->
+                                    callback.onSuccess(transactions));
+                        });
                     } else {
                         new Handler(Looper.getMainLooper()).post(() ->
                                 callback.onError("Failed to fetch: " + response.code()));
@@ -0,0 +1,86 @@
+package com.example.personal_finance_manager.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 64-bit transaction ids that sort by creation time: 48 bits of epoch millis
+ * followed by a 15-bit sequence. Stored as the table's INTEGER PRIMARY KEY they
+ * are the rowid itself, so new rows append to the right edge of the B-tree and
+ * every secondary index carries an 8-byte key instead of a 36-character string.
+ *
+ * Towards the server an id is spelled as a UUIDv7 carrying the same bits, so
+ * it can be turned back into the local id when the row is fetched again.
+ *
+ * Ids are only unique per device. Two devices hand out the same id when they
+ * mint within the same millisecond and draw the same sequence start, about one
+ * in 2^14 for such a pair; a legacy row's local id can likewise equal an id
+ * minted elsewhere. The fetch path checks for this (see
+ * TransactionDao.insertFetchedInBatches) rather than the generator.
+ */
+public final class TimeOrderedId {
+    public static final long NONE = 0L;
+
+    private static final int SEQUENCE_BITS = 15;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // A fresh millisecond starts somewhere in the lower half so the sequence rarely has to borrow the next one
+    private static final int SEQUENCE_START_RANGE = 1 << (SEQUENCE_BITS - 1);
+    // Low bits of rand_b that are always zero in UUIDs minted here; random UUIDv7s practically never match
+    private static final long UUID_MARKER_MASK = (1L << 59) - 1;
+
+    private static final Generator DEFAULT = new Generator();
+
+    private TimeOrderedId() {}
+
+    public static long next() {
+        return DEFAULT.next(System.currentTimeMillis());
+    }
+
+    public static long millisOf(long id) {
+        return id >>> SEQUENCE_BITS;
+    }
+
+    public static String toUuid(long id) {
+        long millis = id >>> SEQUENCE_BITS;
+        long sequence = id & SEQUENCE_MASK;
+        long msb = (millis << 16) | (0x7L << 12) | (sequence >>> 3);
+        long lsb = (0x2L << 62) | ((sequence & 0x7L) << 59);
+        return new UUID(msb, lsb).toString();
+    }
+
+    // The local id a UUID was minted from, or NONE for UUIDs created elsewhere (e.g. legacy random ids)
+    public static long fromUuid(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return NONE;
+        }
+        long lsb = uuid.getLeastSignificantBits();
+        if (uuid.version() != 7 || uuid.variant() != 2 || (lsb & UUID_MARKER_MASK) != 0) {
+            return NONE;
+        }
+        long msb = uuid.getMostSignificantBits();
+        long millis = msb >>> 16;
+        long sequence = ((msb & 0xFFFL) << 3) | ((lsb >>> 59) & 0x7L);
+        return (millis << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Hands out strictly increasing ids. The clock going backwards or more than
+     * 2^15 ids within one millisecond never produce a duplicate; the sequence
+     * just carries into the next millisecond.
+     */
+    public static final class Generator {
+        private long last = NONE;
+
+        public synchronized long next(long nowMillis) {
+            long floor = (nowMillis << SEQUENCE_BITS) | ThreadLocalRandom.current().nextInt(SEQUENCE_START_RANGE);
+            last = Math.max(floor, last + 1);
+            return last;
+        }
+    }
+}
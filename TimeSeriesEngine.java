@@ -0,0 +1,287 @@
+package com.example.personal_finance_manager.repository;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.example.personal_finance_manager.database.AppDatabase;
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.DailySummary;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TransactionType;
+import com.example.personal_finance_manager.model.TrendSeries;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Income, expense and net per day, week, month or year for the trend charts
+ * in AnalysisActivity, served from memory.
+ *
+ * The first query reads daily_summary once (one row per day and type) and the
+ * archived months from archive_summary. After that, each query asks the
+ * daily_summary_change journal which days changed since the previous one and
+ * re-reads only those, so new transactions extend the cached series instead of
+ * recomputing history. Month totals are kept next to the days and moved by the
+ * same deltas; weeks and years are summed from days and months on request, so
+ * a 5-year monthly trend is 60 array reads whatever the row count.
+ *
+ * Buckets follow the UTC days of daily_summary. Archived months only have
+ * monthly totals, so they show up at month and year resolution.
+ */
+public final class TimeSeriesEngine {
+    private static final String TAG = "TimeSeriesEngine";
+
+    // Past this many changed days one full read is cheaper, and the day list stays under SQLite's 999 variables
+    private static final int MAX_INCREMENTAL_DAYS = 500;
+
+    // Days outside 1900..2199 are typos; keeping them would size the day arrays by centuries
+    private static final long MIN_DAY = DailySummary.firstDayOfMonth((1900 - 1970) * 12);
+    private static final long MAX_DAY = DailySummary.firstDayOfMonth((2200 - 1970) * 12) - 1;
+
+    private static volatile TimeSeriesEngine instance;
+
+    private final AppDatabase database;
+    private final AtomicBoolean archiveChanged = new AtomicBoolean(true);
+
+    // Guarded by this
+    private boolean loaded;
+    private long seq;
+    private final Buckets days = new Buckets();
+    private final Buckets months = new Buckets();
+    private final Buckets archivedMonths = new Buckets();
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong fullLoads = new AtomicLong();
+    private final AtomicLong incrementalLoads = new AtomicLong();
+    private final AtomicLong daysReread = new AtomicLong();
+    private volatile long lastQueryMicros;
+
+    private TimeSeriesEngine(AppDatabase database) {
+        this.database = database;
+        // Hot days are tracked through the journal; archive_summary only changes when months are archived
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("archive_summary") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                archiveChanged.set(true);
+            }
+        });
+    }
+
+    public static TimeSeriesEngine getInstance(AppDatabase database) {
+        TimeSeriesEngine engine = instance;
+        if (engine == null) {
+            synchronized (TimeSeriesEngine.class) {
+                if (instance == null) {
+                    instance = new TimeSeriesEngine(database);
+                }
+                engine = instance;
+            }
+        }
+        return engine;
+    }
+
+    // The last `count` buckets up to and including the one holding nowMillis, oldest first. Call off the main thread.
+    public TrendSeries query(TrendSeries.Resolution resolution, int count, long nowMillis) {
+        long started = System.nanoTime();
+        TransactionDao dao = database.transactionDao();
+        TrendSeries series;
+        synchronized (this) {
+            refresh(dao);
+            series = build(resolution, count, DailySummary.epochDayOf(nowMillis));
+        }
+        queries.incrementAndGet();
+        lastQueryMicros = (System.nanoTime() - started) / 1000;
+        Log.d(TAG, resolution + "×" + count + " in " + lastQueryMicros + " µs; " + getStats());
+        return series;
+    }
+
+    private void refresh(TransactionDao dao) {
+        if (archiveChanged.getAndSet(false)) {
+            try {
+                archivedMonths.clear();
+                for (TransactionDao.SeriesTotal total : dao.getArchivedMonthlyTotals()) {
+                    archivedMonths.add(total.bucket, total.type, total.totalMinor);
+                }
+            } catch (RuntimeException e) {
+                archiveChanged.set(true);
+                throw e;
+            }
+        }
+
+        // Read before the totals: a write landing in between is journalled past `latest` and re-read next time
+        long latest = dao.getSummaryChangeSeq();
+        if (loaded && latest == seq) {
+            return;
+        }
+        try {
+            List<Long> changed = loaded ? dao.getChangedSummaryDays(seq, latest) : null;
+            if (changed == null || changed.size() > MAX_INCREMENTAL_DAYS) {
+                loadAll(dao);
+            } else {
+                reread(dao, changed);
+            }
+            seq = latest;
+            loaded = true;
+        } catch (RuntimeException e) {
+            // Partly applied; start over on the next query
+            loaded = false;
+            throw e;
+        }
+    }
+
+    private void loadAll(TransactionDao dao) {
+        days.clear();
+        months.clear();
+        for (TransactionDao.SeriesTotal total : dao.getDailyTotals()) {
+            setDay(total.bucket, total.type, total.totalMinor);
+        }
+        fullLoads.incrementAndGet();
+    }
+
+    private void reread(TransactionDao dao, List<Long> changed) {
+        // Zeroed first, since a day whose rows are all gone has nothing left to read
+        for (long day : changed) {
+            setDay(day, TransactionType.INCOME, 0);
+            setDay(day, TransactionType.EXPENSE, 0);
+        }
+        for (TransactionDao.SeriesTotal total : dao.getDailyTotals(changed)) {
+            setDay(total.bucket, total.type, total.totalMinor);
+        }
+        incrementalLoads.incrementAndGet();
+        daysReread.addAndGet(changed.size());
+    }
+
+    private void setDay(long day, int type, long totalMinor) {
+        if (day < MIN_DAY || day > MAX_DAY) {
+            return;
+        }
+        long delta = Money.subtract(totalMinor, days.get(day, type));
+        if (delta != 0) {
+            days.add(day, type, delta);
+            months.add(DailySummary.monthKeyOfDay(day), type, delta);
+        }
+    }
+
+    private TrendSeries build(TrendSeries.Resolution resolution, int count, long today) {
+        long[] startDays = new long[count];
+        long[] income = new long[count];
+        long[] expense = new long[count];
+        for (int i = 0; i < count; i++) {
+            int back = count - 1 - i;
+            switch (resolution) {
+                case DAY: {
+                    long day = today - back;
+                    startDays[i] = day;
+                    income[i] = days.get(day, TransactionType.INCOME);
+                    expense[i] = days.get(day, TransactionType.EXPENSE);
+                    break;
+                }
+                case WEEK: {
+                    // Weeks start on Monday; epoch day 0 was a Thursday
+                    long start = (Math.floorDiv(today + 3, 7) - back) * 7 - 3;
+                    startDays[i] = start;
+                    for (long day = start; day < start + 7; day++) {
+                        income[i] = Money.add(income[i], days.get(day, TransactionType.INCOME));
+                        expense[i] = Money.add(expense[i], days.get(day, TransactionType.EXPENSE));
+                    }
+                    break;
+                }
+                case MONTH: {
+                    int month = DailySummary.monthKeyOfDay(today) - back;
+                    startDays[i] = DailySummary.firstDayOfMonth(month);
+                    income[i] = monthTotal(month, TransactionType.INCOME);
+                    expense[i] = monthTotal(month, TransactionType.EXPENSE);
+                    break;
+                }
+                case YEAR: {
+                    int firstMonth = (Math.floorDiv(DailySummary.monthKeyOfDay(today), 12) - back) * 12;
+                    startDays[i] = DailySummary.firstDayOfMonth(firstMonth);
+                    for (int month = firstMonth; month < firstMonth + 12; month++) {
+                        income[i] = Money.add(income[i], monthTotal(month, TransactionType.INCOME));
+                        expense[i] = Money.add(expense[i], monthTotal(month, TransactionType.EXPENSE));
+                    }
+                    break;
+                }
+            }
+        }
+        return new TrendSeries(resolution, startDays, income, expense);
+    }
+
+    private long monthTotal(int month, int type) {
+        return Money.add(months.get(month, type), archivedMonths.get(month, type));
+    }
+
+    public String getStats() {
+        return "queries=" + queries.get()
+                + " fullLoads=" + fullLoads.get()
+                + " incremental=" + incrementalLoads.get()
+                + " daysReread=" + daysReread.get()
+                + " lastQuery=" + lastQueryMicros + "µs";
+    }
+
+    /**
+     * Income and expense totals for a contiguous run of keys (epoch days or
+     * month keys). Grows by doubling towards the side a new key falls on, so
+     * appending one day at a time is amortised O(1).
+     */
+    private static final class Buckets {
+        private long first;
+        private long[] income = new long[0];
+        private long[] expense = new long[0];
+
+        void clear() {
+            income = new long[0];
+            expense = new long[0];
+        }
+
+        long get(long key, int type) {
+            long[] totals = totals(type);
+            long index = key - first;
+            return totals != null && index >= 0 && index < totals.length ? totals[(int) index] : 0;
+        }
+
+        void add(long key, int type, long delta) {
+            if (totals(type) == null) {
+                return;
+            }
+            ensure(key);
+            long[] totals = totals(type);
+            int index = (int) (key - first);
+            totals[index] = Money.add(totals[index], delta);
+        }
+
+        private long[] totals(int type) {
+            if (type == TransactionType.INCOME) {
+                return income;
+            }
+            return type == TransactionType.EXPENSE ? expense : null;
+        }
+
+        private void ensure(long key) {
+            int size = income.length;
+            if (size == 0) {
+                first = key;
+                income = new long[16];
+                expense = new long[16];
+                return;
+            }
+            if (key >= first && key < first + size) {
+                return;
+            }
+            int capacity = (int) Math.max(Math.max(first + size, key + 1) - Math.min(first, key), size * 2L);
+            long newFirst = key < first ? first + size - capacity : first;
+            int offset = (int) (first - newFirst);
+            long[] newIncome = new long[capacity];
+            long[] newExpense = new long[capacity];
+            System.arraycopy(income, 0, newIncome, offset, size);
+            System.arraycopy(expense, 0, newExpense, offset, size);
+            first = newFirst;
+            income = newIncome;
+            expense = newExpense;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.personal_finance_manager.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LiveData that re-runs a query only when Room reports a change to one of its
+ * tables. Reloads go through a ReloadScheduler, so a burst of invalidations or
+ * refreshes collapses into one query, a query made stale by a newer change is
+ * cancelled, and only the newest result is posted. Changes made while nobody
+ * observes are remembered and applied once on the next activation instead of
+ * on every resume.
+ *
+ * The tracker observer lives as long as this object, so owners call
+ * {@link #close()} when they are done with it.
+ */
+public class TrackedQueryLiveData<T> extends LiveData<T> {
+    private static final String TAG = "TrackedQuery";
+
+    private final AppDatabase database;
+    private final ReloadScheduler scheduler;
+    private final ReloadScheduler.Load<T> query;
+    private final InvalidationTracker.Observer observer;
+
+    // Data may be stale and has to be queried again
+    private final AtomicBoolean invalid = new AtomicBoolean(true);
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Numbers every reload and publish; a reload result older than the last publish is dropped on delivery
+    private final AtomicLong generation = new AtomicLong();
+    // Main thread only
+    private long publishedGeneration;
+
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    // The executor should be a serial lane; see ReloadScheduler
+    public TrackedQueryLiveData(AppDatabase database, Executor executor, ReloadScheduler.Load<T> query, String... tables) {
+        this.database = database;
+        this.scheduler = new ReloadScheduler(executor);
+        this.query = query;
+
+        observer = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changed) {
+                invalidations.incrementAndGet();
+                invalid.set(true);
+                if (hasActiveObservers()) {
+                    scheduleReload();
+                } else {
+                    deferred.incrementAndGet();
+                }
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+    }
+
+    @Override
+    protected void onActive() {
+        if (invalid.get()) {
+            scheduleReload();
+        }
+    }
+
+    // Re-runs the query regardless of table changes, e.g. after its parameters changed
+    public void refresh() {
+        invalid.set(true);
+        if (hasActiveObservers()) {
+            scheduleReload();
+        }
+    }
+
+    // Shows a value derived locally, e.g. a write applied ahead of its commit. A reload scheduled before this
+    // read the table before that write: it is cancelled if still running, and dropped on delivery if its result
+    // was already on its way. The write's own invalidation (or a refresh() if it failed) brings the stored
+    // value back.
+    @MainThread
+    public void publish(T value) {
+        publishedGeneration = generation.incrementAndGet();
+        scheduler.cancel();
+        invalid.set(true);
+        setValue(value);
+    }
+
+    public void close() {
+        database.getInvalidationTracker().removeObserver(observer);
+        scheduler.cancel();
+    }
+
+    private void scheduleReload() {
+        invalid.set(false);
+        long reloadGeneration = generation.incrementAndGet();
+        scheduler.submit(signal -> {
+            try {
+                return query.run(signal);
+            } catch (OperationCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                invalid.set(true);
+                throw e;
+            }
+        }, value -> mainHandler.post(() -> {
+            if (reloadGeneration < publishedGeneration) {
+                discarded.incrementAndGet();
+                return;
+            }
+            setValue(value);
+            Log.d(TAG, getStats());
+        }));
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public long getReloadCount() {
+        return scheduler.getDeliveredCount();
+    }
+
+    // Reloads superseded before they ran, e.g. by a burst of invalidations
+    public long getCoalescedCount() {
+        return scheduler.getDroppedCount();
+    }
+
+    // Reloads cancelled mid-query because a newer one was requested
+    public long getCancelledCount() {
+        return scheduler.getCancelledCount();
+    }
+
+    // Invalidations that arrived while inactive and were folded into the next activation
+    public long getDeferredCount() {
+        return deferred.get();
+    }
+
+    // Reload results that arrived after a publish() had replaced what they were read for
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    public String getStats() {
+        return "invalidations=" + invalidations.get()
+                + " reloads=" + scheduler.getDeliveredCount()
+                + " coalesced=" + scheduler.getDroppedCount()
+                + " cancelled=" + scheduler.getCancelledCount()
+                + " discarded=" + discarded.get()
+                + " deferred=" + deferred.get();
+    }
+}
@@ -1,22 +1,40 @@
 package com.example.personal_finance_manager.model;
 
-import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+
+import com.example.personal_finance_manager.database.CategoryConverter;
+import com.example.personal_finance_manager.database.TransactionTypeConverter;
 
 import java.util.Date;
-import java.util.UUID;
 
-@Entity(tableName = "transaction")
+@Entity(tableName = "transaction",
+        indices = {
+                // id is the rowid, which every index already ends with, so this is the (date, id) keyset order
+                @Index(value = {"date"}),
+                @Index(value = {"type", "date"}),
+                @Index(value = {"type", "category", "date"}),
+                // Unsynced rows cluster at the head of this index, so getUnsynced() never scans synced history
+                @Index(value = {"isSynced", "date"}),
+                @Index(value = {"remoteId"}, unique = true)
+        })
 public class Transaction {
+    // Time-ordered, see TimeOrderedId
     @PrimaryKey
-    @NonNull
-    private String id;
+    private long id;
+    // Server UUID of rows whose id was not minted here (legacy random ids); null otherwise
+    private String remoteId;
     private String userId;
     private String title;
     private String description;
-    private double amount;
+    // Minor units (sen), see Money
+    private long amountMinor;
+    // Stored as TransactionType codes and category ids; callers only ever see the names
+    @TypeConverters(TransactionTypeConverter.class)
     private String type; // "income" or "expense"
+    @TypeConverters(CategoryConverter.class)
     private String category;
     private Date date;
     private Date createdAt;
@@ -24,24 +42,42 @@ public class Transaction {
 
     // Constructors
     public Transaction() {
-        this.id = UUID.randomUUID().toString();
+        this.id = TimeOrderedId.next();
         this.createdAt = new Date();
         this.isSynced = false;
     }
 
-    public Transaction(String title, double amount, String type, String category, Date date) {
+    public Transaction(String title, long amountMinor, String type, String category, Date date) {
         this();
         this.title = title;
-        this.amount = amount;
+        this.amountMinor = amountMinor;
         this.type = type;
         this.category = category;
         this.date = date;
     }
 
     // Getters and Setters
-    @NonNull
-    public String getId() { return id; }
-    public void setId(@NonNull String id) { this.id = id; }
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getRemoteId() { return remoteId; }
+    public void setRemoteId(String remoteId) { this.remoteId = remoteId; }
+
+    // The key this row has on the server
+    public String getSyncId() {
+        return remoteId != null ? remoteId : TimeOrderedId.toUuid(id);
+    }
+
+    // Adopt a server key: UUIDs minted from a local id map back to it, anything else is kept as remoteId
+    public void setSyncId(String syncId) {
+        long local = TimeOrderedId.fromUuid(syncId);
+        if (local != TimeOrderedId.NONE) {
+            id = local;
+            remoteId = null;
+        } else {
+            remoteId = syncId;
+        }
+    }
 
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
@@ -52,8 +88,8 @@ public class Transaction {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(long amountMinor) { this.amountMinor = amountMinor; }
 
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
@@ -9,32 +9,55 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.personal_finance_manager.R;
-import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.example.personal_finance_manager.model.TransactionRowModel;
 
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
 import java.util.List;
-import java.util.Locale;
 
-public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.ViewHolder> {
+// Rows arrive as TransactionRowModels formatted in the background, so binding only assigns fields.
+// Pages are diffed off the main thread by PagingDataAdapter; a sync-status flip only rebinds the indicator.
+public class TransactionAdapter extends PagingDataAdapter<TransactionRowModel, TransactionAdapter.ViewHolder> {
+
+    private static final Object PAYLOAD_SYNC = new Object();
+
+    private static final int COLOR_INCOME = Color.parseColor("#4CAF50");
+    private static final int COLOR_EXPENSE = Color.parseColor("#F44336");
+    private static final int COLOR_SYNCED = Color.parseColor("#4CAF50");
+    private static final int COLOR_PENDING = Color.parseColor("#FF9800");
+
+    private static final DiffUtil.ItemCallback<TransactionRowModel> DIFF_CALLBACK = new DiffUtil.ItemCallback<TransactionRowModel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TransactionRowModel oldItem, @NonNull TransactionRowModel newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TransactionRowModel oldItem, @NonNull TransactionRowModel newItem) {
+            return oldItem.sameText(newItem) && oldItem.synced == newItem.synced;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull TransactionRowModel oldItem, @NonNull TransactionRowModel newItem) {
+            return oldItem.sameText(newItem) ? PAYLOAD_SYNC : null;
+        }
+    };
 
-    private List<Transaction> transactions;
     private OnItemClickListener listener;
     private Context context;
 
     public TransactionAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
     }
 
-    public void setTransactions(List<Transaction> transactions) {
-        this.transactions = transactions;
-        notifyDataSetChanged();
-    }
-
     public void setOnItemClickListener(OnItemClickListener listener) {
         this.listener = listener;
     }
@@ -44,69 +67,86 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_transaction, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+
+        // Click listeners are set once per holder and look up the row at click time,
+        // so a payload-only rebind never leaves them holding a stale row
+        holder.cardView.setOnClickListener(v -> {
+            TransactionRowModel model = itemAt(holder);
+            if (listener != null && model != null) {
+                listener.onItemClick(model.row);
+            }
+        });
+
+        holder.cardView.setOnLongClickListener(v -> {
+            TransactionRowModel model = itemAt(holder);
+            if (listener != null && model != null) {
+                listener.onItemLongClick(model.row);
+                return true;
+            }
+            return false;
+        });
+        return holder;
     }
 
-    @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Transaction transaction = transactions.get(position);
+    @Nullable
+    private TransactionRowModel itemAt(ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : peek(position);
+    }
 
-        // Set data
-        holder.tvTitle.setText(transaction.getTitle());
-        holder.tvCategory.setText(transaction.getCategory());
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SYNC) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        TransactionRowModel model = getItem(position);
+        if (model != null) {
+            bindSyncStatus(holder, model);
+        }
+    }
 
-        // Format date
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-        holder.tvDate.setText(sdf.format(transaction.getDate()));
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        TransactionRowModel model = getItem(position);
+        if (model == null) {
+            return;
+        }
 
-        // Format amount
-        NumberFormat format = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
-        String amount = format.format(transaction.getAmount());
+        holder.tvTitle.setText(model.title);
+        holder.tvCategory.setText(model.category);
+        holder.tvDate.setText(model.dateText);
+        holder.tvAmount.setText(model.amountText);
 
-        if ("income".equals(transaction.getType())) {
-            holder.tvAmount.setText("+" + amount);
-            holder.tvAmount.setTextColor(Color.parseColor("#4CAF50"));
+        if (model.income) {
+            holder.tvAmount.setTextColor(COLOR_INCOME);
             holder.icon.setImageResource(R.drawable.ic_income);
         } else {
-            holder.tvAmount.setText("-" + amount);
-            holder.tvAmount.setTextColor(Color.parseColor("#F44336"));
+            holder.tvAmount.setTextColor(COLOR_EXPENSE);
             holder.icon.setImageResource(R.drawable.ic_expense);
         }
 
         // Set description if exists
-        if (transaction.getDescription() != null && !transaction.getDescription().isEmpty()) {
-            holder.tvDescription.setText(transaction.getDescription());
+        if (model.description != null) {
+            holder.tvDescription.setText(model.description);
             holder.tvDescription.setVisibility(View.VISIBLE);
         } else {
             holder.tvDescription.setVisibility(View.GONE);
         }
 
-        // Sync status indicator
-        if (transaction.isSynced()) {
-            holder.syncIndicator.setBackgroundColor(Color.parseColor("#4CAF50"));
-        } else {
-            holder.syncIndicator.setBackgroundColor(Color.parseColor("#FF9800"));
-        }
-
-        // Click listener
-        holder.cardView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onItemClick(transaction);
-            }
-        });
-
-        holder.cardView.setOnLongClickListener(v -> {
-            if (listener != null) {
-                listener.onItemLongClick(transaction);
-                return true;
-            }
-            return false;
-        });
+        bindSyncStatus(holder, model);
     }
 
-    @Override
-    public int getItemCount() {
-        return transactions != null ? transactions.size() : 0;
+    // Sync status indicator
+    private void bindSyncStatus(ViewHolder holder, TransactionRowModel model) {
+        holder.syncIndicator.setBackgroundColor(model.synced ? COLOR_SYNCED : COLOR_PENDING);
     }
 
     public class ViewHolder extends RecyclerView.ViewHolder {
@@ -129,7 +169,7 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     }
 
     public interface OnItemClickListener {
-        void onItemClick(Transaction transaction);
-        void onItemLongClick(Transaction transaction);
+        void onItemClick(TransactionListRow transaction);
+        void onItemLongClick(TransactionListRow transaction);
     }
 }
\ No newline at end of file
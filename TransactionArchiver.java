@@ -0,0 +1,47 @@
+package com.example.personal_finance_manager.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.personal_finance_manager.config.AppConfig;
+import com.example.personal_finance_manager.database.AppDatabase;
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.ArchivedMonth;
+
+/**
+ * Moves synced history past the configured horizon out of the hot
+ * `transaction` table, one month per transaction (see TransactionDao#archiveMonth).
+ * Runs as the first step of DatabaseMaintenanceJobService, on the write executor.
+ */
+public class TransactionArchiver {
+    private static final String TAG = "TransactionArchiver";
+
+    private TransactionArchiver() {}
+
+    public static int getHorizonMonths(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("finance_prefs", Context.MODE_PRIVATE);
+        return prefs.getInt(AppConfig.PREF_ARCHIVE_HORIZON_MONTHS, AppConfig.DEFAULT_ARCHIVE_HORIZON_MONTHS);
+    }
+
+    // Archives every whole month that ended more than horizonMonths months before now; returns the rows moved
+    public static int archive(AppDatabase database, int horizonMonths, long nowMillis) {
+        if (horizonMonths <= 0) {
+            return 0;
+        }
+        TransactionDao dao = database.transactionDao();
+        int horizon = ArchivedMonth.monthKeyOf(nowMillis) - horizonMonths;
+        Long oldest = dao.getOldestArchivableDate(ArchivedMonth.startOf(horizon));
+        if (oldest == null) {
+            return 0;
+        }
+        int moved = 0;
+        for (int monthKey = ArchivedMonth.monthKeyOf(oldest); monthKey < horizon; monthKey++) {
+            moved += dao.archiveMonth(monthKey);
+        }
+        if (moved > 0) {
+            Log.d(TAG, "Archived " + moved + " transactions older than " + horizonMonths + " months");
+        }
+        return moved;
+    }
+}
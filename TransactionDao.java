@@ -1,62 +1,777 @@
 package com.example.personal_finance_manager.database.dao;
 
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.TypeConverters;
 import androidx.room.Update;
+import androidx.room.Upsert;
 import androidx.room.Delete;
 
+import com.example.personal_finance_manager.database.ArchiveCodec;
+import com.example.personal_finance_manager.database.CategoryConverter;
+import com.example.personal_finance_manager.database.CategoryDictionary;
+import com.example.personal_finance_manager.database.TransactionTypeConverter;
+import com.example.personal_finance_manager.model.ArchiveSummary;
+import com.example.personal_finance_manager.model.ArchivedMonth;
+import com.example.personal_finance_manager.model.Category;
+import com.example.personal_finance_manager.model.CategoryEntry;
+import com.example.personal_finance_manager.model.CategoryMonthStats;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.DailySummary;
+import com.example.personal_finance_manager.model.DashboardSnapshot;
+import com.example.personal_finance_manager.model.Money;
+import com.example.personal_finance_manager.model.TimeOrderedId;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionFts;
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.example.personal_finance_manager.model.TransactionType;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
 
+// Amounts and totals are long counts of minor units (see Money), so every SUM here is an exact integer sum
 @Dao
 public interface TransactionDao {
+    // SQLite's default SQLITE_MAX_VARIABLE_NUMBER is 999; stay below it for IN (...) lists
+    int MAX_BIND_ARGS = 900;
+    int WRITE_BATCH_SIZE = 500;
+
+    // Every write that stores a category name goes through a default method that registers the name
+    // first, in its own committed statement, so CategoryConverter always finds an id for it.
+    default long insert(Transaction transaction) {
+        registerCategories(Collections.singletonList(transaction));
+        return insertRow(transaction);
+    }
+
+    default List<Long> insertAll(List<Transaction> transactions) {
+        registerCategories(transactions);
+        return insertAllRows(transactions);
+    }
+
+    default void upsertAll(List<Transaction> transactions) {
+        registerCategories(transactions);
+        upsertAllRows(transactions);
+    }
+
+    default void update(Transaction transaction) {
+        registerCategories(Collections.singletonList(transaction));
+        updateRow(transaction);
+    }
+
     @Insert
-    long insert(Transaction transaction);
+    long insertRow(Transaction transaction);
+
+    // Rows whose id already exists are skipped (rowId -1). IGNORE rather than REPLACE: REPLACE deletes
+    // without firing delete triggers, which would corrupt daily_summary and the FTS index.
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertAllRows(List<Transaction> transactions);
+
+    @Upsert
+    void upsertAllRows(List<Transaction> transactions);
 
     @Update
-    void update(Transaction transaction);
+    void updateRow(Transaction transaction);
+
+    default void registerCategories(List<Transaction> transactions) {
+        List<String> names = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            names.add(transaction.getCategory());
+        }
+        List<String> unknown = CategoryDictionary.unknownNames(names);
+        if (unknown.isEmpty()) {
+            return;
+        }
+        List<CategoryEntry> entries = new ArrayList<>(unknown.size());
+        for (String name : unknown) {
+            entries.add(new CategoryEntry(name));
+        }
+        insertCategories(entries);
+        for (int from = 0; from < unknown.size(); from += MAX_BIND_ARGS) {
+            for (CategoryEntry entry : getCategoriesByName(unknown.subList(from, Math.min(from + MAX_BIND_ARGS, unknown.size())))) {
+                CategoryDictionary.register(entry);
+            }
+        }
+    }
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertCategories(List<CategoryEntry> entries);
+
+    // Stores a user-created category; false if the name already belongs to a predefined category or the other type
+    @androidx.room.Transaction
+    default boolean addCustomCategory(String name, int type) {
+        Category known = CategoryRegistry.byName(name);
+        if (known != null && !known.isCustom()) {
+            return false;
+        }
+        insertCategories(Collections.singletonList(new CategoryEntry(name)));
+        markCustomCategory(name, type);
+        List<CategoryEntry> stored = getCategoriesByName(Collections.singletonList(name));
+        if (stored.isEmpty() || !Integer.valueOf(type).equals(stored.get(0).getCustomType())) {
+            return false;
+        }
+        CategoryDictionary.register(stored.get(0));
+        return true;
+    }
+
+    // A name already used by synced rows can become a category; one claimed by the other type stays as it is
+    @Query("UPDATE category SET customType = :type WHERE name = :name AND customType IS NULL")
+    void markCustomCategory(String name, int type);
+
+    @Query("SELECT * FROM category WHERE name IN (:names)")
+    List<CategoryEntry> getCategoriesByName(List<String> names);
+
+    // One commit per WRITE_BATCH_SIZE rows instead of one per row
+    default void insertAllInBatches(List<Transaction> transactions) {
+        for (int from = 0; from < transactions.size(); from += WRITE_BATCH_SIZE) {
+            insertAll(transactions.subList(from, Math.min(from + WRITE_BATCH_SIZE, transactions.size())));
+        }
+    }
+
+    // Like insertAllInBatches, for rows fetched from the server. A row skipped because its id is already taken
+    // by a different transaction (another device minted the same id, see TimeOrderedId) is re-keyed instead of
+    // dropped: it gets a fresh local id and keeps the server's key as remoteId. The rows re-keyed are returned.
+    // deviceUserId is the owner of rows minted here, which are stored without a userId.
+    default List<Transaction> insertFetchedInBatches(List<Transaction> transactions, String deviceUserId) {
+        List<Transaction> rekeyed = new ArrayList<>();
+        for (int from = 0; from < transactions.size(); from += WRITE_BATCH_SIZE) {
+            List<Transaction> batch = transactions.subList(from, Math.min(from + WRITE_BATCH_SIZE, transactions.size()));
+            List<Long> rowIds = insertAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                if (rowIds.get(i) != -1) {
+                    continue;
+                }
+                Transaction fetched = batch.get(i);
+                Transaction stored = getById(fetched.getId());
+                // No row under the id means the remoteId matched: the row is already here
+                if (stored == null || isSameRow(stored, fetched, deviceUserId)
+                        || getByRemoteId(fetched.getSyncId()) != null) {
+                    continue;
+                }
+                fetched.setRemoteId(fetched.getSyncId());
+                fetched.setId(TimeOrderedId.next());
+                insertAll(Collections.singletonList(fetched));
+                rekeyed.add(fetched);
+            }
+        }
+        return rekeyed;
+    }
+
+    static boolean isSameRow(Transaction stored, Transaction fetched, String deviceUserId) {
+        String storedOwner = stored.getUserId() != null ? stored.getUserId() : deviceUserId;
+        return stored.getSyncId().equals(fetched.getSyncId())
+                && (fetched.getUserId() == null || fetched.getUserId().equals(storedOwner));
+    }
+
+    @Query("SELECT * FROM 'transaction' WHERE remoteId = :remoteId")
+    Transaction getByRemoteId(String remoteId);
+
+    @Query("UPDATE 'transaction' SET isSynced = 1 WHERE id IN (:ids)")
+    void markSyncedChunk(List<Long> ids);
+
+    @androidx.room.Transaction
+    default void markSynced(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += MAX_BIND_ARGS) {
+            markSyncedChunk(ids.subList(from, Math.min(from + MAX_BIND_ARGS, ids.size())));
+        }
+    }
 
     @Delete
     void delete(Transaction transaction);
 
+    @Query("DELETE FROM 'transaction' WHERE id = :id")
+    void deleteById(long id);
+
     @Query("SELECT * FROM 'transaction' ORDER BY date DESC")
     List<Transaction> getAll();
 
     @Query("SELECT * FROM 'transaction' WHERE type = :type ORDER BY date DESC")
-    List<Transaction> getByType(String type);
+    List<Transaction> getByType(@TypeConverters(TransactionTypeConverter.class) String type);
 
     @Query("SELECT * FROM 'transaction' WHERE date BETWEEN :start AND :end ORDER BY date DESC")
     List<Transaction> getByDateRange(Date start, Date end);
 
+    // Same range as getByDateRange, as list rows instead of full entities, including archived months
+    @androidx.room.Transaction
+    default List<TransactionListRow> getRowsByDateRange(Date start, Date end) {
+        List<TransactionListRow> rows = getHotRowsByDateRange(start, end);
+        List<TransactionListRow> archived = getArchivedRows(start.getTime(), end.getTime());
+        if (archived.isEmpty()) {
+            return rows;
+        }
+        rows.addAll(archived);
+        Collections.sort(rows, Comparator.comparingLong(TransactionListRow::getDate).reversed());
+        return rows;
+    }
+
+    @Query("SELECT " + TransactionListRow.COLUMNS + " FROM 'transaction' WHERE date BETWEEN :start AND :end ORDER BY date DESC")
+    List<TransactionListRow> getHotRowsByDateRange(Date start, Date end);
+
+    // Keyset pages over (date, id), newest first. Each query seeks the index and reads at most :limit rows.
+    // The signal lets the paging source abandon a page load that Paging no longer waits for.
+    @Query("SELECT " + TransactionListRow.COLUMNS + " FROM 'transaction' WHERE date BETWEEN :start AND :end "
+            + "ORDER BY date DESC, id DESC LIMIT :limit")
+    List<TransactionListRow> getFirstPage(Date start, Date end, int limit, CancellationSignal signal);
+
+    @Query("SELECT " + TransactionListRow.COLUMNS + " FROM 'transaction' WHERE date BETWEEN :start AND :date AND (date < :date OR id < :id) "
+            + "ORDER BY date DESC, id DESC LIMIT :limit")
+    List<TransactionListRow> getPageOlderThan(Date start, long date, long id, int limit, CancellationSignal signal);
+
+    @Query("SELECT " + TransactionListRow.COLUMNS + " FROM 'transaction' WHERE date BETWEEN :start AND :date AND (date < :date OR id <= :id) "
+            + "ORDER BY date DESC, id DESC LIMIT :limit")
+    List<TransactionListRow> getPageStartingAt(Date start, long date, long id, int limit, CancellationSignal signal);
+
+    // Ascending so the LIMIT keeps the rows closest to the key; callers reverse the result
+    @Query("SELECT " + TransactionListRow.COLUMNS + " FROM 'transaction' WHERE date BETWEEN :date AND :end AND (date > :date OR id > :id) "
+            + "ORDER BY date ASC, id ASC LIMIT :limit")
+    List<TransactionListRow> getPageNewerThan(Date end, long date, long id, int limit, CancellationSignal signal);
+
     @Query("SELECT * FROM 'transaction' WHERE isSynced = 0")
     List<Transaction> getUnsynced();
 
-    @Query("SELECT SUM(amount) FROM 'transaction' WHERE type = 'income' AND date BETWEEN :start AND :end")
-    double getTotalIncome(Date start, Date end);
+    // Period totals read whole days from daily_summary and only touch raw rows on the two partial edge days;
+    // archived months add their archive_summary totals
+    @androidx.room.Transaction
+    default long getTotalIncome(Date start, Date end) {
+        return Money.add(sumByType(TransactionType.INCOME, start.getTime(), end.getTime()),
+                sumArchivedByType(TransactionType.INCOME, start.getTime(), end.getTime()));
+    }
 
-    @Query("SELECT SUM(amount) FROM 'transaction' WHERE type = 'expense' AND date BETWEEN :start AND :end")
-    double getTotalExpense(Date start, Date end);
+    @androidx.room.Transaction
+    default long getTotalExpense(Date start, Date end) {
+        return Money.add(sumByType(TransactionType.EXPENSE, start.getTime(), end.getTime()),
+                sumArchivedByType(TransactionType.EXPENSE, start.getTime(), end.getTime()));
+    }
+
+    @Query("SELECT COALESCE((SELECT SUM(totalMinor) FROM daily_summary WHERE type = " + TransactionType.INCOME + "), 0)"
+            + " + COALESCE((SELECT SUM(totalMinor) FROM archive_summary WHERE type = " + TransactionType.INCOME + "), 0)")
+    long getTotalIncome();
+
+    @Query("SELECT COALESCE((SELECT SUM(totalMinor) FROM daily_summary WHERE type = " + TransactionType.EXPENSE + "), 0)"
+            + " + COALESCE((SELECT SUM(totalMinor) FROM archive_summary WHERE type = " + TransactionType.EXPENSE + "), 0)")
+    long getTotalExpense();
+
+    // Everything the dashboard shows for a range: one statement over the rollup plus edge days, then the archive
+    default DashboardSnapshot getDashboardSnapshot(Date start, Date end) {
+        return getDashboardSnapshot(start, end, null);
+    }
+
+    // A cancelled signal aborts the running statement with OperationCanceledException
+    @androidx.room.Transaction
+    default DashboardSnapshot getDashboardSnapshot(Date start, Date end, CancellationSignal signal) {
+        DashboardSnapshot snapshot = getHotDashboardSnapshot(start.getTime(), end.getTime(), signal);
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+        return snapshot.plus(getArchivedDashboardSnapshot(start.getTime(), end.getTime()));
+    }
 
-    @Query("SELECT SUM(amount) FROM 'transaction' WHERE type = 'income'")
-    double getTotalIncome();
+    default DashboardSnapshot getHotDashboardSnapshot(long from, long to, CancellationSignal signal) {
+        long startDay = DailySummary.epochDayOf(from);
+        long endDay = DailySummary.epochDayOf(to);
+        if (endDay - startDay < 2) {
+            // No whole day inside the range: the first edge covers it all and the second is empty
+            return getDashboardSnapshotRolledUp(startDay, endDay, from, to + 1, to + 1, to, signal);
+        }
+        return getDashboardSnapshotRolledUp(startDay, endDay, from,
+                (startDay + 1) * DailySummary.DAY_MILLIS, endDay * DailySummary.DAY_MILLIS, to, signal);
+    }
+
+    // type leads the rollup's primary key, so naming the two counted types turns the day range into a seek per type
+    @Query("SELECT COALESCE(SUM(CASE WHEN type = " + TransactionType.INCOME + " THEN totalMinor END), 0) AS totalIncomeMinor, "
+            + "COALESCE(SUM(CASE WHEN type = " + TransactionType.EXPENSE + " THEN totalMinor END), 0) AS totalExpenseMinor, "
+            + "COALESCE(SUM(CASE WHEN type = " + TransactionType.INCOME + " THEN entryCount END), 0) AS incomeCount, "
+            + "COALESCE(SUM(CASE WHEN type = " + TransactionType.EXPENSE + " THEN entryCount END), 0) AS expenseCount, "
+            + "(SELECT MIN(date) FROM 'transaction' WHERE date BETWEEN :from AND :to) AS firstDate, "
+            + "(SELECT MAX(date) FROM 'transaction' WHERE date BETWEEN :from AND :to) AS lastDate "
+            + "FROM ("
+            + "SELECT type, totalMinor, entryCount FROM daily_summary WHERE type IN (" + TransactionType.INCOME + ", "
+            + TransactionType.EXPENSE + ") AND epochDay > :startDay AND epochDay < :endDay"
+            + " UNION ALL SELECT type, amountMinor AS totalMinor, 1 AS entryCount FROM 'transaction' WHERE date >= :from AND date < :firstFullDay"
+            + " UNION ALL SELECT type, amountMinor AS totalMinor, 1 AS entryCount FROM 'transaction' WHERE date >= :lastDay AND date <= :to"
+            + ")")
+    DashboardSnapshot getDashboardSnapshotRolledUp(long startDay, long endDay,
+                                                   long from, long firstFullDay, long lastDay, long to,
+                                                   CancellationSignal signal);
+
+    @androidx.room.Transaction
+    default List<CategorySummary> getExpenseByCategory(Date start, Date end) {
+        List<CategorySummary> hot = getHotExpenseByCategory(start.getTime(), end.getTime());
+        List<CategorySummary> archived = getArchivedExpenseByCategory(start.getTime(), end.getTime());
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<String, CategorySummary> byName = new LinkedHashMap<>();
+        for (List<CategorySummary> part : Arrays.asList(hot, archived)) {
+            for (CategorySummary summary : part) {
+                CategorySummary merged = byName.get(summary.category);
+                if (merged == null) {
+                    byName.put(summary.category, summary);
+                } else {
+                    merged.totalMinor = Money.add(merged.totalMinor, summary.totalMinor);
+                }
+            }
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    default List<CategorySummary> getHotExpenseByCategory(long from, long to) {
+        long startDay = DailySummary.epochDayOf(from);
+        long endDay = DailySummary.epochDayOf(to);
+        if (endDay - startDay < 2) {
+            return getExpenseByCategoryRaw(from, to);
+        }
+        return getExpenseByCategoryRolledUp(startDay, endDay, from,
+                (startDay + 1) * DailySummary.DAY_MILLIS, endDay * DailySummary.DAY_MILLIS, to);
+    }
+
+    default long sumByType(int type, long from, long to) {
+        long startDay = DailySummary.epochDayOf(from);
+        long endDay = DailySummary.epochDayOf(to);
+        if (endDay - startDay < 2) {
+            return sumByTypeRaw(type, from, to);
+        }
+        return sumByTypeRolledUp(type, startDay, endDay, from,
+                (startDay + 1) * DailySummary.DAY_MILLIS, endDay * DailySummary.DAY_MILLIS, to);
+    }
+
+    @Query("SELECT COALESCE(SUM(amountMinor), 0) FROM 'transaction' WHERE type = :type AND date BETWEEN :from AND :to")
+    long sumByTypeRaw(int type, long from, long to);
+
+    @Query("SELECT COALESCE((SELECT SUM(totalMinor) FROM daily_summary WHERE type = :type AND epochDay > :startDay AND epochDay < :endDay), 0)"
+            + " + COALESCE((SELECT SUM(amountMinor) FROM 'transaction' WHERE type = :type AND date >= :from AND date < :firstFullDay), 0)"
+            + " + COALESCE((SELECT SUM(amountMinor) FROM 'transaction' WHERE type = :type AND date >= :lastDay AND date <= :to), 0)")
+    long sumByTypeRolledUp(int type, long startDay, long endDay,
+                             long from, long firstFullDay, long lastDay, long to);
+
+    @Query("SELECT COALESCE(category, 0) AS category, SUM(amountMinor) AS totalMinor FROM 'transaction' WHERE type = " + TransactionType.EXPENSE + " AND date BETWEEN :from AND :to GROUP BY 1")
+    List<CategorySummary> getExpenseByCategoryRaw(long from, long to);
+
+    @Query("SELECT category, SUM(totalMinor) AS totalMinor FROM ("
+            + "SELECT category, totalMinor FROM daily_summary WHERE type = " + TransactionType.EXPENSE + " AND epochDay > :startDay AND epochDay < :endDay"
+            + " UNION ALL SELECT COALESCE(category, 0) AS category, amountMinor AS totalMinor FROM 'transaction' WHERE type = " + TransactionType.EXPENSE + " AND date >= :from AND date < :firstFullDay"
+            + " UNION ALL SELECT COALESCE(category, 0) AS category, amountMinor AS totalMinor FROM 'transaction' WHERE type = " + TransactionType.EXPENSE + " AND date >= :lastDay AND date <= :to"
+            + ") GROUP BY category")
+    List<CategorySummary> getExpenseByCategoryRolledUp(long startDay, long endDay,
+                                                       long from, long firstFullDay, long lastDay, long to);
+
+    // Prefix full-text search inside a date range, plus rows whose category name matches; title hits rank first
+    default List<TransactionListRow> search(String query, Date start, Date end, int limit) {
+        return search(query, start, end, limit, null);
+    }
 
-    @Query("SELECT SUM(amount) FROM 'transaction' WHERE type = 'expense'")
-    double getTotalExpense();
+    @androidx.room.Transaction
+    default List<TransactionListRow> search(String query, Date start, Date end, int limit, CancellationSignal signal) {
+        String match = TransactionFts.toPrefixQuery(query, null);
+        if (match == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = TransactionFts.tokenize(query);
+        List<Integer> categoryIds = CategoryDictionary.idsMatching(tokens);
+        List<TransactionListRow> rows = searchFts(match, TransactionFts.toPrefixQuery(query, "title"), categoryIds, start, end, limit, signal);
+        if (rows.size() < limit) {
+            // Archived matches follow the hot ones, newest month first
+            rows.addAll(searchArchive(tokens, start.getTime(), end.getTime(), limit - rows.size(), signal));
+        }
+        return rows;
+    }
 
-    @Query("SELECT category, SUM(amount) as total FROM 'transaction' WHERE type = 'expense' AND date BETWEEN :start AND :end GROUP BY category")
-    List<CategorySummary> getExpenseByCategory(Date start, Date end);
+    @Query("SELECT t.id, t.title, t.category, t.date, t.amountMinor, t.type, t.description, t.isSynced "
+            + "FROM 'transaction' t "
+            + "WHERE (t.rowid IN (SELECT rowid FROM transaction_fts WHERE transaction_fts MATCH :match) OR t.category IN (:categoryIds)) "
+            + "AND t.date BETWEEN :start AND :end "
+            + "ORDER BY (t.rowid IN (SELECT rowid FROM transaction_fts WHERE transaction_fts MATCH :titleMatch)) DESC, t.date DESC "
+            + "LIMIT :limit")
+    List<TransactionListRow> searchFts(String match, String titleMatch, List<Integer> categoryIds, Date start, Date end, int limit,
+                                       CancellationSignal signal);
 
     @Query("SELECT * FROM 'transaction' WHERE id = :id")
-    Transaction getById(String id);
+    Transaction getById(long id);
+
+    @androidx.room.Transaction
+    default void deleteAll() {
+        deleteAllRows();
+        clearArchive();
+        clearArchiveSummary();
+        clearCategoryMonthStats();
+    }
 
     @Query("DELETE FROM 'transaction'")
-    void deleteAll();
+    void deleteAllRows();
+
+    // Cold-history archive: whole months of synced rows past the horizon, one compressed block per month.
+    // Unsynced rows stay in the hot table until they are synced, whatever their date.
+    @Query("SELECT MIN(date) FROM 'transaction' WHERE isSynced = 1 AND date < :before")
+    Long getOldestArchivableDate(long before);
+
+    @Query("SELECT * FROM 'transaction' WHERE isSynced = 1 AND date >= :from AND date < :to")
+    List<Transaction> getArchivableRows(long from, long to);
+
+    @Query("DELETE FROM 'transaction' WHERE isSynced = 1 AND date >= :from AND date < :to")
+    int deleteArchivableRows(long from, long to);
+
+    @Query("SELECT * FROM transaction_archive WHERE monthKey = :monthKey")
+    ArchivedMonth getArchivedMonth(int monthKey);
+
+    @Query("SELECT monthKey FROM transaction_archive WHERE lastDate >= :from AND firstDate <= :to ORDER BY monthKey DESC")
+    List<Integer> getArchivedMonthKeys(long from, long to);
+
+    @Upsert
+    void upsertArchivedMonth(ArchivedMonth month);
+
+    @Query("SELECT * FROM archive_summary WHERE monthKey = :monthKey")
+    List<ArchiveSummary> getArchiveSummaries(int monthKey);
+
+    @Upsert
+    void upsertArchiveSummaries(List<ArchiveSummary> summaries);
+
+    @Query("DELETE FROM transaction_archive")
+    void clearArchive();
+
+    @Query("DELETE FROM archive_summary")
+    void clearArchiveSummary();
+
+    // Moves the month's archivable rows into its block, merging with rows archived earlier. Deleting the
+    // hot rows lets the triggers take them out of daily_summary and the FTS index. Returns the rows moved.
+    @androidx.room.Transaction
+    default int archiveMonth(int monthKey) {
+        long from = ArchivedMonth.startOf(monthKey);
+        long to = ArchivedMonth.startOf(monthKey + 1);
+        List<Transaction> rows = getArchivableRows(from, to);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        ArchivedMonth existing = getArchivedMonth(monthKey);
+        List<Transaction> all = existing != null ? ArchiveCodec.decode(existing) : new ArrayList<>();
+        // A row already in the block (e.g. fetched again by sync) is only dropped from the hot table
+        Set<String> archivedIds = new HashSet<>();
+        for (Transaction row : all) {
+            archivedIds.add(row.getSyncId());
+        }
+        List<Transaction> added = new ArrayList<>(rows.size());
+        for (Transaction row : rows) {
+            if (archivedIds.add(row.getSyncId())) {
+                added.add(row);
+            }
+        }
+        if (!added.isEmpty()) {
+            all.addAll(added);
+            upsertArchivedMonth(ArchiveCodec.encode(monthKey, all));
+        }
+
+        Map<Long, ArchiveSummary> summaries = new HashMap<>();
+        for (ArchiveSummary summary : getArchiveSummaries(monthKey)) {
+            summaries.put(((long) summary.getType() << 32) | summary.getCategory(), summary);
+        }
+        for (Transaction row : added) {
+            Integer type = TransactionType.codeOf(row.getType());
+            Integer category = CategoryDictionary.idOf(row.getCategory());
+            int typeCode = type != null ? type : 0;
+            int categoryId = category != null ? category : 0;
+            long key = ((long) typeCode << 32) | categoryId;
+            ArchiveSummary summary = summaries.get(key);
+            if (summary == null) {
+                summary = new ArchiveSummary(monthKey, typeCode, categoryId);
+                summaries.put(key, summary);
+            }
+            summary.add(row.getAmountMinor());
+        }
+        upsertArchiveSummaries(new ArrayList<>(summaries.values()));
+
+        deleteArchivableRows(from, to);
+        return rows.size();
+    }
+
+    // Fetched rows minus those an archived month already holds. Archived rows are gone from the hot table, so the
+    // IGNORE insert cannot see them; inserted again they would be counted by both daily_summary and archive_summary.
+    // Only the archived months the rows fall in are decoded, once each.
+    default List<Transaction> withoutArchived(List<Transaction> rows) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Transaction row : rows) {
+            if (row.getDate() != null) {
+                first = Math.min(first, row.getDate().getTime());
+                last = Math.max(last, row.getDate().getTime());
+            }
+        }
+        if (first > last) {
+            return rows;
+        }
+        Set<Integer> archivedMonths = new HashSet<>(getArchivedMonthKeys(ArchivedMonth.startOf(ArchivedMonth.monthKeyOf(first)),
+                ArchivedMonth.startOf(ArchivedMonth.monthKeyOf(last) + 1) - 1));
+        if (archivedMonths.isEmpty()) {
+            return rows;
+        }
+        Map<Integer, Set<String>> archivedIds = new HashMap<>();
+        List<Transaction> kept = new ArrayList<>(rows.size());
+        for (Transaction row : rows) {
+            int monthKey = row.getDate() != null ? ArchivedMonth.monthKeyOf(row.getDate().getTime()) : Integer.MIN_VALUE;
+            if (!archivedMonths.contains(monthKey)) {
+                kept.add(row);
+                continue;
+            }
+            Set<String> ids = archivedIds.get(monthKey);
+            if (ids == null) {
+                ids = new HashSet<>();
+                ArchivedMonth month = getArchivedMonth(monthKey);
+                if (month != null) {
+                    for (Transaction archived : ArchiveCodec.decode(month)) {
+                        ids.add(archived.getSyncId());
+                    }
+                }
+                archivedIds.put(monthKey, ids);
+            }
+            if (!ids.contains(row.getSyncId())) {
+                kept.add(row);
+            }
+        }
+        return kept;
+    }
+
+    // Archived totals for [from, to]: whole months from archive_summary, the partial edge months decoded
+    default DashboardSnapshot getArchivedDashboardSnapshot(long from, long to) {
+        DashboardSnapshot snapshot = getArchiveSummarySnapshot(ArchivedMonth.firstFullMonth(from), ArchivedMonth.lastFullMonth(to));
+        for (Transaction row : getArchivedEdgeRows(from, to)) {
+            snapshot = snapshot.plus(row);
+        }
+        return snapshot;
+    }
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN type = " + TransactionType.INCOME + " THEN totalMinor END), 0) AS totalIncomeMinor, "
+            + "COALESCE(SUM(CASE WHEN type = " + TransactionType.EXPENSE + " THEN totalMinor END), 0) AS totalExpenseMinor, "
+            + "COALESCE(SUM(CASE WHEN type = " + TransactionType.INCOME + " THEN entryCount END), 0) AS incomeCount, "
+            + "COALESCE(SUM(CASE WHEN type = " + TransactionType.EXPENSE + " THEN entryCount END), 0) AS expenseCount, "
+            + "(SELECT MIN(firstDate) FROM transaction_archive WHERE monthKey BETWEEN :firstMonth AND :lastMonth) AS firstDate, "
+            + "(SELECT MAX(lastDate) FROM transaction_archive WHERE monthKey BETWEEN :firstMonth AND :lastMonth) AS lastDate "
+            + "FROM archive_summary WHERE monthKey BETWEEN :firstMonth AND :lastMonth")
+    DashboardSnapshot getArchiveSummarySnapshot(int firstMonth, int lastMonth);
+
+    default long sumArchivedByType(int type, long from, long to) {
+        long total = sumArchiveSummaryByType(type, ArchivedMonth.firstFullMonth(from), ArchivedMonth.lastFullMonth(to));
+        String typeName = TransactionType.nameOf(type);
+        for (Transaction row : getArchivedEdgeRows(from, to)) {
+            if (typeName.equals(row.getType())) {
+                total = Money.add(total, row.getAmountMinor());
+            }
+        }
+        return total;
+    }
+
+    @Query("SELECT COALESCE(SUM(totalMinor), 0) FROM archive_summary WHERE type = :type AND monthKey BETWEEN :firstMonth AND :lastMonth")
+    long sumArchiveSummaryByType(int type, int firstMonth, int lastMonth);
+
+    default List<CategorySummary> getArchivedExpenseByCategory(long from, long to) {
+        List<CategorySummary> summaries = getArchiveSummaryExpenseByCategory(ArchivedMonth.firstFullMonth(from), ArchivedMonth.lastFullMonth(to));
+        List<Transaction> edgeRows = getArchivedEdgeRows(from, to);
+        if (edgeRows.isEmpty()) {
+            return summaries;
+        }
+        Map<String, CategorySummary> byName = new LinkedHashMap<>();
+        for (CategorySummary summary : summaries) {
+            byName.put(summary.category, summary);
+        }
+        for (Transaction row : edgeRows) {
+            if (!TransactionType.EXPENSE_NAME.equals(row.getType())) {
+                continue;
+            }
+            CategorySummary summary = byName.get(row.getCategory());
+            if (summary == null) {
+                summary = new CategorySummary();
+                summary.category = row.getCategory();
+                byName.put(row.getCategory(), summary);
+            }
+            summary.totalMinor = Money.add(summary.totalMinor, row.getAmountMinor());
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    @Query("SELECT category, SUM(totalMinor) AS totalMinor FROM archive_summary WHERE type = " + TransactionType.EXPENSE
+            + " AND monthKey BETWEEN :firstMonth AND :lastMonth GROUP BY category")
+    List<CategorySummary> getArchiveSummaryExpenseByCategory(int firstMonth, int lastMonth);
+
+    // One archived row, found in the block of the month its date falls in
+    default Transaction getArchivedById(long id, long date) {
+        ArchivedMonth month = getArchivedMonth(ArchivedMonth.monthKeyOf(date));
+        if (month == null) {
+            return null;
+        }
+        for (Transaction row : ArchiveCodec.decode(month)) {
+            if (row.getId() == id) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    // Decoded rows inside [from, to] from the (at most two) archived months the range only partly covers
+    default List<Transaction> getArchivedEdgeRows(long from, long to) {
+        List<Transaction> rows = new ArrayList<>();
+        int firstMonth = ArchivedMonth.monthKeyOf(from);
+        int lastMonth = ArchivedMonth.monthKeyOf(to);
+        List<Integer> edges = new ArrayList<>(2);
+        if (firstMonth < ArchivedMonth.firstFullMonth(from)) {
+            edges.add(firstMonth);
+        }
+        if (lastMonth > ArchivedMonth.lastFullMonth(to) && !edges.contains(lastMonth)) {
+            edges.add(lastMonth);
+        }
+        for (int monthKey : edges) {
+            ArchivedMonth month = getArchivedMonth(monthKey);
+            if (month == null) {
+                continue;
+            }
+            for (Transaction row : ArchiveCodec.decode(month)) {
+                long date = row.getDate().getTime();
+                if (date >= from && date <= to) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    default List<TransactionListRow> getArchivedRows(long from, long to) {
+        List<TransactionListRow> rows = new ArrayList<>();
+        for (int monthKey : getArchivedMonthKeys(from, to)) {
+            for (Transaction row : ArchiveCodec.decode(getArchivedMonth(monthKey))) {
+                long date = row.getDate().getTime();
+                if (date >= from && date <= to) {
+                    rows.add(TransactionListRow.of(row));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Same matching rule as search(): every token prefixes a word of the title or description, or of the category
+    default List<TransactionListRow> searchArchive(List<String> tokens, long from, long to, int limit, CancellationSignal signal) {
+        List<TransactionListRow> rows = new ArrayList<>();
+        for (int monthKey : getArchivedMonthKeys(from, to)) {
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            List<Transaction> decoded = ArchiveCodec.decode(getArchivedMonth(monthKey));
+            for (int i = decoded.size() - 1; i >= 0; i--) {
+                Transaction row = decoded.get(i);
+                long date = row.getDate().getTime();
+                if (date < from || date > to) {
+                    continue;
+                }
+                if (TransactionFts.matchesAll(tokens, row.getTitle(), row.getDescription())
+                        || (row.getCategory() != null && TransactionFts.matchesAll(tokens, row.getCategory()))) {
+                    rows.add(TransactionListRow.of(row));
+                    if (rows.size() >= limit) {
+                        return rows;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Trend series (see TimeSeriesEngine): per-day and per-archived-month totals by type, and the change journal
+    @Query("SELECT COALESCE(MAX(seq), 0) FROM daily_summary_change")
+    long getSummaryChangeSeq();
+
+    @Query("SELECT epochDay FROM daily_summary_change WHERE seq > :afterSeq AND seq <= :upToSeq")
+    List<Long> getChangedSummaryDays(long afterSeq, long upToSeq);
+
+    @Query("SELECT epochDay AS bucket, type, SUM(totalMinor) AS totalMinor FROM daily_summary "
+            + "WHERE type IN (" + TransactionType.INCOME + ", " + TransactionType.EXPENSE + ") GROUP BY epochDay, type")
+    List<SeriesTotal> getDailyTotals();
+
+    @Query("SELECT epochDay AS bucket, type, SUM(totalMinor) AS totalMinor FROM daily_summary "
+            + "WHERE type IN (" + TransactionType.INCOME + ", " + TransactionType.EXPENSE + ") AND epochDay IN (:days) "
+            + "GROUP BY epochDay, type")
+    List<SeriesTotal> getDailyTotals(List<Long> days);
+
+    @Query("SELECT monthKey AS bucket, type, SUM(totalMinor) AS totalMinor FROM archive_summary "
+            + "WHERE type IN (" + TransactionType.INCOME + ", " + TransactionType.EXPENSE + ") GROUP BY monthKey, type")
+    List<SeriesTotal> getArchivedMonthlyTotals();
+
+    // Expense statistics (see SpendingStatistics): raw rows streamed in date order, and the stored month sketches
+    @Query("SELECT date, category, amountMinor FROM 'transaction' WHERE type = " + TransactionType.EXPENSE
+            + " AND date BETWEEN :from AND :to ORDER BY date")
+    Cursor streamExpenses(long from, long to);
+
+    @Query("SELECT monthKey FROM transaction_archive WHERE monthKey BETWEEN :firstMonth AND :lastMonth")
+    List<Integer> getArchivedMonthKeysBetween(int firstMonth, int lastMonth);
+
+    @Query("SELECT * FROM category_month_stats WHERE monthKey BETWEEN :firstMonth AND :lastMonth")
+    List<CategoryMonthStats> getCategoryMonthStats(int firstMonth, int lastMonth);
+
+    // Null until stats were first built
+    @Query("SELECT MAX(builtSeq) FROM category_month_stats")
+    Long getCategoryMonthStatsSeq();
+
+    @Upsert
+    void upsertCategoryMonthStats(List<CategoryMonthStats> stats);
+
+    @Query("UPDATE category_month_stats SET builtSeq = :seq")
+    void markCategoryMonthStatsBuilt(long seq);
+
+    @Query("DELETE FROM category_month_stats WHERE monthKey = :monthKey")
+    void deleteCategoryMonthStats(int monthKey);
+
+    @Query("DELETE FROM category_month_stats")
+    void clearCategoryMonthStats();
+
+    // daily_summary maintenance
+    @Query("DELETE FROM daily_summary")
+    void clearDailySummary();
+
+    @Query("INSERT INTO daily_summary (type, epochDay, category, totalMinor, entryCount) "
+            + "SELECT COALESCE(type, 0), " + DailySummary.EPOCH_DAY_OF_DATE + ", COALESCE(category, 0), SUM(amountMinor), COUNT(*) "
+            + "FROM 'transaction' WHERE date IS NOT NULL GROUP BY 1, 2, 3")
+    void populateDailySummary();
+
+    @androidx.room.Transaction
+    default void rebuildDailySummary() {
+        clearDailySummary();
+        populateDailySummary();
+    }
+
+    // Rollup rows that are missing or whose sum/count no longer match the raw rows
+    @Query("SELECT COUNT(*) FROM ("
+            + "SELECT COALESCE(type, 0) AS type, " + DailySummary.EPOCH_DAY_OF_DATE + " AS epochDay, COALESCE(category, 0) AS category, "
+            + "SUM(amountMinor) AS totalMinor, COUNT(*) AS entryCount FROM 'transaction' WHERE date IS NOT NULL GROUP BY 1, 2, 3) r "
+            + "LEFT JOIN daily_summary s ON s.type = r.type AND s.epochDay = r.epochDay AND s.category = r.category "
+            + "WHERE s.epochDay IS NULL OR s.entryCount != r.entryCount OR s.totalMinor != r.totalMinor")
+    int countStaleDailySummaries();
+
+    // Rollup rows left behind after all of their raw rows are gone
+    @Query("SELECT COUNT(*) FROM daily_summary s WHERE NOT EXISTS (SELECT 1 FROM 'transaction' t "
+            + "WHERE t.date >= s.epochDay * 86400000 AND t.date < (s.epochDay + 1) * 86400000 "
+            + "AND COALESCE(t.type, 0) = s.type AND COALESCE(t.category, 0) = s.category)")
+    int countOrphanDailySummaries();
+
+    default boolean isDailySummaryConsistent() {
+        return countStaleDailySummaries() == 0 && countOrphanDailySummaries() == 0;
+    }
+
+    // Epoch day or month key, depending on the query
+    static class SeriesTotal {
+        public long bucket;
+        public int type;
+        public long totalMinor;
+    }
 
     static class CategorySummary {
+        @TypeConverters(CategoryConverter.class)
         public String category;
-        public double total;
+        public long totalMinor;
     }
 }
\ No newline at end of file
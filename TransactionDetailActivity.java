@@ -10,11 +10,14 @@ import android.widget.Toast;
 
 import com.example.personal_finance_manager.database.AppDatabase;
 import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.PeriodCache;
+import com.example.personal_finance_manager.model.Category;
+import com.example.personal_finance_manager.model.CategoryRegistry;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.TimeOrderedId;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.repository.BudgetTracker;
 
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
 
 public class TransactionDetailActivity extends AppCompatActivity {
 
@@ -23,6 +26,8 @@ public class TransactionDetailActivity extends AppCompatActivity {
 
     private AppDatabase database;
     private Transaction transaction;
+    // Archived rows are shown read-only; deleting them would only touch the hot table
+    private boolean archived;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -31,14 +36,14 @@ public class TransactionDetailActivity extends AppCompatActivity {
 
         database = DatabaseClient.getInstance(this).getAppDatabase();
 
-        String transactionId = getIntent().getStringExtra("transaction_id");
-        if (transactionId == null) {
+        long transactionId = getIntent().getLongExtra("transaction_id", TimeOrderedId.NONE);
+        if (transactionId == TimeOrderedId.NONE) {
             finish();
             return;
         }
 
         initViews();
-        loadTransaction(transactionId);
+        loadTransaction(transactionId, getIntent().getLongExtra("transaction_date", Long.MIN_VALUE));
         setupListeners();
     }
 
@@ -55,11 +60,22 @@ public class TransactionDetailActivity extends AppCompatActivity {
         btnBack = findViewById(R.id.btnBack);
     }
 
-    private void loadTransaction(String transactionId) {
-        new Thread(() -> {
-            transaction = database.transactionDao().getById(transactionId);
-            runOnUiThread(this::updateUI);
-        }).start();
+    private void loadTransaction(long transactionId, long date) {
+        DatabaseClient.getInstance(this).getReadExecutor().execute(() -> {
+            Transaction row = database.transactionDao().getById(transactionId);
+            boolean fromArchive = false;
+            if (row == null && date != Long.MIN_VALUE) {
+                row = database.transactionDao().getArchivedById(transactionId, date);
+                fromArchive = row != null;
+            }
+            Transaction loaded = row;
+            boolean loadedFromArchive = fromArchive;
+            runOnUiThread(() -> {
+                transaction = loaded;
+                archived = loadedFromArchive;
+                updateUI();
+            });
+        });
     }
 
     private void updateUI() {
@@ -71,23 +87,22 @@ public class TransactionDetailActivity extends AppCompatActivity {
 
         tvTitle.setText(transaction.getTitle());
 
-        NumberFormat format = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
-        String amount = format.format(transaction.getAmount());
-
         if ("income".equals(transaction.getType())) {
-            tvAmount.setText("+" + amount);
+            tvAmount.setText(DisplayFormat.formatSignedRupiah('+', transaction.getAmountMinor()));
             tvAmount.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
             tvType.setText("Pemasukan");
         } else {
-            tvAmount.setText("-" + amount);
+            tvAmount.setText(DisplayFormat.formatSignedRupiah('-', transaction.getAmountMinor()));
             tvAmount.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
             tvType.setText("Pengeluaran");
         }
 
+        // The stored name is shown as is; the icon comes from the registry, or its fallback for unknown names
+        Category category = CategoryRegistry.resolve(transaction.getType(), transaction.getCategory());
         tvCategory.setText(transaction.getCategory());
+        tvCategory.setCompoundDrawablesRelativeWithIntrinsicBounds(category.getIconResId(), 0, 0, 0);
 
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
-        tvDate.setText(sdf.format(transaction.getDate()));
+        tvDate.setText(DisplayFormat.formatDateTime(transaction.getDate().getTime()));
 
         if (transaction.getDescription() != null && !transaction.getDescription().isEmpty()) {
             tvDescription.setText(transaction.getDescription());
@@ -100,6 +115,12 @@ public class TransactionDetailActivity extends AppCompatActivity {
         tvSyncStatus.setTextColor(transaction.isSynced() ?
                 getResources().getColor(android.R.color.holo_green_dark) :
                 getResources().getColor(android.R.color.holo_orange_dark));
+
+        if (archived) {
+            tvSyncStatus.setText("Diarsipkan");
+            btnEdit.setVisibility(View.GONE);
+            btnDelete.setVisibility(View.GONE);
+        }
     }
 
     private void setupListeners() {
@@ -112,14 +133,16 @@ public class TransactionDetailActivity extends AppCompatActivity {
         });
 
         btnDelete.setOnClickListener(v -> {
-            new Thread(() -> {
+            DatabaseClient.getInstance(this).getWriteExecutor().execute(() -> {
                 database.transactionDao().delete(transaction);
+                PeriodCache.getInstance().bump();
+                BudgetTracker.getInstance(this).record(transaction, -1);
                 runOnUiThread(() -> {
                     Toast.makeText(this, "Transaksi dihapus", Toast.LENGTH_SHORT).show();
                     setResult(RESULT_OK);
                     finish();
                 });
-            }).start();
+            });
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * External-content FTS4 index over the searchable text of `transaction`.
+ * Room installs the content-sync triggers for fresh databases; the migrations
+ * install the same ones for upgraded databases. Categories are ids now, so
+ * they are matched through CategoryDictionary instead of this index.
+ */
+@Fts4(contentEntity = Transaction.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "transaction_fts")
+public class TransactionFts {
+    private String title;
+    private String description;
+
+    /**
+     * Turns free user input into an FTS prefix query ("mak sia" -> "mak* sia*"),
+     * optionally scoped to one column. Returns null when nothing searchable is left.
+     */
+    public static String toPrefixQuery(String input, String column) {
+        StringBuilder match = new StringBuilder();
+        for (String token : tokenize(input)) {
+            if (match.length() > 0) match.append(' ');
+            if (column != null) match.append(column).append(':');
+            match.append(token).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    // Splits input on anything that is not a letter or digit, like the unicode61 tokenizer
+    public static List<String> tokenize(String input) {
+        List<String> tokens = new ArrayList<>();
+        if (input == null) return tokens;
+        for (String token : input.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    // Whether every token is a prefix of some word in the texts, the same rule a prefix MATCH applies
+    public static boolean matchesAll(List<String> tokens, String... texts) {
+        for (String token : tokens) {
+            String prefix = token.toLowerCase(Locale.ROOT);
+            boolean found = false;
+            for (String text : texts) {
+                if (text != null && hasWordWithPrefix(text, prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasWordWithPrefix(String text, String prefix) {
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    // Getters and Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+}
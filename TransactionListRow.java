@@ -0,0 +1,70 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.room.TypeConverters;
+
+import com.example.personal_finance_manager.database.CategoryConverter;
+import com.example.personal_finance_manager.database.TransactionTypeConverter;
+
+/**
+ * Slim projection of a transaction for lists and exports: only the columns
+ * those screens render, with the date kept as epoch millis instead of a Date.
+ * The full entity is loaded only where it is edited or shown in detail.
+ */
+public class TransactionListRow {
+    // Column list shared by every query that returns this projection
+    public static final String COLUMNS = "id, title, category, date, amountMinor, type, description, isSynced";
+
+    private long id;
+    private String title;
+    @TypeConverters(CategoryConverter.class)
+    private String category;
+    private long date;
+    private long amountMinor;
+    @TypeConverters(TransactionTypeConverter.class)
+    private String type;
+    private String description;
+    private boolean isSynced;
+
+    // Rows that do not come from a query, e.g. decoded from the archive
+    public static TransactionListRow of(Transaction transaction) {
+        TransactionListRow row = new TransactionListRow();
+        row.id = transaction.getId();
+        row.title = transaction.getTitle();
+        row.category = transaction.getCategory();
+        row.date = transaction.getDate() != null ? transaction.getDate().getTime() : 0L;
+        row.amountMinor = transaction.getAmountMinor();
+        row.type = transaction.getType();
+        row.description = transaction.getDescription();
+        row.isSynced = transaction.isSynced();
+        return row;
+    }
+
+    public boolean isIncome() { return TransactionType.INCOME_NAME.equals(type); }
+
+    public boolean hasDescription() { return description != null && !description.isEmpty(); }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public long getDate() { return date; }
+    public void setDate(long date) { this.date = date; }
+
+    public long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(long amountMinor) { this.amountMinor = amountMinor; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public boolean isSynced() { return isSynced; }
+    public void setSynced(boolean synced) { isSynced = synced; }
+}
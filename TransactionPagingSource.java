@@ -0,0 +1,137 @@
+package com.example.personal_finance_manager.repository;
+
+import android.os.CancellationSignal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.example.personal_finance_manager.database.AppDatabase;
+import com.example.personal_finance_manager.database.PeriodCache;
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyset-paginated view of the transactions in a date range, newest first.
+ * Pages are addressed by the (date, id) of their boundary row instead of an
+ * OFFSET, so every page load is an index seek no matter how deep the user scrolls.
+ */
+public class TransactionPagingSource extends ListenableFuturePagingSource<TransactionPagingSource.Key, TransactionListRow> {
+
+    public static final class Key {
+        final long date;
+        final long id;
+        // Only refresh keys include their own row; append/prepend keys point at the last row already shown
+        final boolean inclusive;
+
+        Key(long date, long id, boolean inclusive) {
+            this.date = date;
+            this.id = id;
+            this.inclusive = inclusive;
+        }
+
+        static Key of(TransactionListRow row, boolean inclusive) {
+            return new Key(row.getDate(), row.getId(), inclusive);
+        }
+    }
+
+    private final AppDatabase database;
+    private final TransactionDao transactionDao;
+    private final Date start;
+    private final Date end;
+    private final InvalidationTracker.Observer observer;
+
+    public TransactionPagingSource(AppDatabase database, Date start, Date end) {
+        this.database = database;
+        this.transactionDao = database.transactionDao();
+        this.start = start;
+        this.end = end;
+
+        observer = new InvalidationTracker.Observer("transaction") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            database.getInvalidationTracker().removeObserver(observer);
+            return kotlin.Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, TransactionListRow>> loadFuture(@NonNull LoadParams<Key> params) {
+        // Paging cancels the future of a load it no longer needs (range changed, list invalidated):
+        // a task that has not started never runs, and a running query is interrupted through the signal
+        CancellationSignal signal = new CancellationSignal();
+        ListenableFutureTask<LoadResult<Key, TransactionListRow>> task =
+                ListenableFutureTask.create(() -> load(params, signal));
+        task.addListener(() -> {
+            if (task.isCancelled()) {
+                signal.cancel();
+            }
+        }, MoreExecutors.directExecutor());
+        database.getQueryExecutor().execute(task);
+        return task;
+    }
+
+    private LoadResult<Key, TransactionListRow> load(LoadParams<Key> params, CancellationSignal signal) {
+        try {
+            Key key = params.getKey();
+            int limit = params.getLoadSize();
+
+            if (params instanceof LoadParams.Prepend) {
+                List<TransactionListRow> newer = transactionDao.getPageNewerThan(end, key.date, key.id, limit, signal);
+                Collections.reverse(newer);
+                Key prevKey = newer.size() < limit ? null : Key.of(newer.get(0), false);
+                Key nextKey = newer.isEmpty() ? null : Key.of(newer.get(newer.size() - 1), false);
+                return new LoadResult.Page<>(newer, prevKey, nextKey);
+            }
+
+            List<TransactionListRow> older;
+            if (key == null) {
+                // The first page of a period is what every period switch shows; reuse it until the data changes
+                older = PeriodCache.getInstance().get("firstPage:" + limit, start.getTime(), end.getTime(),
+                        () -> transactionDao.getFirstPage(start, end, limit, signal));
+            } else if (key.inclusive) {
+                older = transactionDao.getPageStartingAt(start, key.date, key.id, limit, signal);
+            } else {
+                older = transactionDao.getPageOlderThan(start, key.date, key.id, limit, signal);
+            }
+
+            // Nothing is newer than the first page; a refresh from an anchor may have rows above it
+            Key prevKey = (key == null || older.isEmpty()) ? null : Key.of(older.get(0), false);
+            Key nextKey = older.size() < limit ? null : Key.of(older.get(older.size() - 1), false);
+            return new LoadResult.Page<>(older, prevKey, nextKey);
+        } catch (Exception e) {
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, TransactionListRow> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        PagingSource.LoadResult.Page<Key, TransactionListRow> page = state.closestPageToPosition(anchorPosition);
+        if (page == null || page.getData().isEmpty()) {
+            return null;
+        }
+        return Key.of(page.getData().get(0), true);
+    }
+}
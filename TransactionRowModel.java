@@ -0,0 +1,53 @@
+package com.example.personal_finance_manager.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * What one row of the transaction list shows, formatted ahead of time on a
+ * background thread as pages arrive, so binding a row during a fling is
+ * plain field assignment. Keeps the source row for click handlers.
+ */
+public final class TransactionRowModel {
+    public final TransactionListRow row;
+    public final long id;
+    public final String title;
+    public final String category;
+    public final String dateText;
+    // Signed, e.g. "+Rp15.000,00"
+    public final String amountText;
+    // Null when the row has no description, so the view stays hidden
+    @Nullable
+    public final String description;
+    public final boolean income;
+    public final boolean synced;
+
+    private TransactionRowModel(TransactionListRow row) {
+        this.row = row;
+        this.id = row.getId();
+        this.title = row.getTitle();
+        this.category = row.getCategory();
+        this.dateText = DisplayFormat.formatDate(row.getDate());
+        this.income = row.isIncome();
+        this.amountText = DisplayFormat.formatSignedRupiah(income ? '+' : '-', row.getAmountMinor());
+        this.description = row.hasDescription() ? row.getDescription() : null;
+        this.synced = row.isSynced();
+    }
+
+    @NonNull
+    public static TransactionRowModel of(@NonNull TransactionListRow row) {
+        return new TransactionRowModel(row);
+    }
+
+    // Everything except the sync flag, which the list rebinds on its own
+    public boolean sameText(TransactionRowModel other) {
+        return income == other.income
+                && Objects.equals(title, other.title)
+                && Objects.equals(category, other.category)
+                && dateText.equals(other.dateText)
+                && amountText.equals(other.amountText)
+                && Objects.equals(description, other.description);
+    }
+}
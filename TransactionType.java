@@ -0,0 +1,31 @@
+package com.example.personal_finance_manager.model;
+
+/**
+ * Integer codes stored in the `type` columns. The rest of the app keeps
+ * working with the "income"/"expense" names; TransactionTypeConverter maps
+ * between the two at the Room boundary.
+ */
+public final class TransactionType {
+    public static final String INCOME_NAME = "income";
+    public static final String EXPENSE_NAME = "expense";
+
+    public static final int INCOME = 1;
+    public static final int EXPENSE = 2;
+
+    private TransactionType() {}
+
+    public static Integer codeOf(String name) {
+        if (INCOME_NAME.equals(name)) return INCOME;
+        if (EXPENSE_NAME.equals(name)) return EXPENSE;
+        return null;
+    }
+
+    public static String nameOf(Integer code) {
+        if (code == null) return null;
+        switch (code) {
+            case INCOME: return INCOME_NAME;
+            case EXPENSE: return EXPENSE_NAME;
+            default: return null;
+        }
+    }
+}
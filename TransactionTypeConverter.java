@@ -0,0 +1,18 @@
+package com.example.personal_finance_manager.database;
+
+import androidx.room.TypeConverter;
+
+import com.example.personal_finance_manager.model.TransactionType;
+
+// Field-level converter: "income"/"expense" in Java, 1/2 in the `type` columns
+public class TransactionTypeConverter {
+    @TypeConverter
+    public static Integer toCode(String name) {
+        return TransactionType.codeOf(name);
+    }
+
+    @TypeConverter
+    public static String toName(Integer code) {
+        return TransactionType.nameOf(code);
+    }
+}
@@ -1,64 +1,124 @@
 package com.example.personal_finance_manager.viewmodel;
 
 import android.app.Application;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 
 import com.example.personal_finance_manager.database.AppDatabase;
 import com.example.personal_finance_manager.database.DatabaseClient;
+import com.example.personal_finance_manager.database.PeriodCache;
+import com.example.personal_finance_manager.database.ReloadScheduler;
+import com.example.personal_finance_manager.database.SerialExecutor;
+import com.example.personal_finance_manager.database.TrackedQueryLiveData;
 import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.Budget;
+import com.example.personal_finance_manager.model.DashboardSnapshot;
+import com.example.personal_finance_manager.model.DisplayFormat;
+import com.example.personal_finance_manager.model.PeriodRange;
 import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.example.personal_finance_manager.model.TransactionRowModel;
+import com.example.personal_finance_manager.repository.BudgetTracker;
+import com.example.personal_finance_manager.repository.TransactionPagingSource;
 
-import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public class TransactionViewModel extends AndroidViewModel {
 
+    private static final int SEARCH_LIMIT = 200;
+    private static final int PAGE_SIZE = 50;
+
+    // Prefetch a full page ahead of the scroll position and drop pages far behind it
+    private static final PagingConfig PAGING_CONFIG =
+            new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, PAGE_SIZE * 6);
+
+    // What the transaction list currently shows: a date range, optionally narrowed by a search
+    private static final class ListQuery {
+        final Date start;
+        final Date end;
+        final String search;
+
+        ListQuery(Date start, Date end, String search) {
+            this.start = start;
+            this.end = end;
+            this.search = search;
+        }
+
+        boolean isRange(Date start, Date end) {
+            return search == null && this.start.equals(start) && this.end.equals(end);
+        }
+    }
+
     private final AppDatabase database;
     private final TransactionDao transactionDao;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-
-    private final MutableLiveData<List<Transaction>> transactions = new MutableLiveData<>();
-    private final MutableLiveData<Double> totalIncome = new MutableLiveData<>(0.0);
-    private final MutableLiveData<Double> totalExpense = new MutableLiveData<>(0.0);
-    private final MutableLiveData<Double> balance = new MutableLiveData<>(0.0);
+    // Reads run in order on this ViewModel's lanes of the shared read pool; writes go to the single writer
+    private final Executor executor;
+    private final Executor writeExecutor;
+    private final Executor displayExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Only the newest search runs; an older one still in flight is cancelled
+    private final ReloadScheduler searchScheduler;
+
+    // Query state is only changed on the main thread, so it never races the background loads that read it
+    private final MutableLiveData<ListQuery> listQuery = new MutableLiveData<>();
+    private final LiveData<PagingData<TransactionRowModel>> transactions;
+    private final TrackedQueryLiveData<DashboardSnapshot> dashboard;
+    // Range the dashboard query reads, replaced as a whole before the dashboard is refreshed
+    private volatile ListQuery dashboardRange;
     private final MutableLiveData<String> period = new MutableLiveData<>("Bulan Ini");
     private final MutableLiveData<Date> startDate = new MutableLiveData<>();
     private final MutableLiveData<Date> endDate = new MutableLiveData<>();
+    // Threshold alerts raised by this ViewModel's writes, cleared once shown
+    private final MutableLiveData<String> budgetAlert = new MutableLiveData<>();
+    private final BudgetTracker budgetTracker;
 
     public TransactionViewModel(@NonNull Application application) {
         super(application);
-        database = DatabaseClient.getInstance(application).getAppDatabase();
+        DatabaseClient client = DatabaseClient.getInstance(application);
+        database = client.getAppDatabase();
+        executor = new SerialExecutor(client.getReadExecutor());
+        writeExecutor = client.getWriteExecutor();
+        displayExecutor = client.getReadExecutor();
+        searchScheduler = new ReloadScheduler(new SerialExecutor(client.getReadExecutor()));
         transactionDao = database.transactionDao();
+        budgetTracker = BudgetTracker.getInstance(application);
+        transactions = Transformations.switchMap(listQuery, query ->
+                query.search == null ? pageRange(query) : searchResults(query));
+
+        // Totals are re-queried only when the transaction table changes or the range moves
+        dashboard = new TrackedQueryLiveData<>(database, new SerialExecutor(client.getReadExecutor()),
+                this::queryDashboard, "transaction");
 
         // Set default date range (current month)
         setDateRange("Bulan Ini");
     }
 
     // LiveData getters
-    public LiveData<List<Transaction>> getTransactions() {
+    public LiveData<PagingData<TransactionRowModel>> getTransactions() {
         return transactions;
     }
 
-    public LiveData<Double> getTotalIncome() {
-        return totalIncome;
-    }
-
-    public LiveData<Double> getTotalExpense() {
-        return totalExpense;
-    }
-
-    public LiveData<Double> getBalance() {
-        return balance;
+    // Income, expense, balance and counts for the active range, always published together
+    public LiveData<DashboardSnapshot> getDashboard() {
+        return dashboard;
     }
 
     public LiveData<String> getPeriod() {
@@ -73,151 +133,179 @@ public class TransactionViewModel extends AndroidViewModel {
         return endDate;
     }
 
-    // Format currency
-    public String formatCurrency(double amount) {
-        NumberFormat format = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
-        return format.format(amount);
+    public LiveData<String> getBudgetAlert() {
+        return budgetAlert;
     }
 
-    // Load all data
-    public void loadData() {
-        executor.execute(() -> {
-            try {
-                Date start = startDate.getValue();
-                Date end = endDate.getValue();
-
-                if (start != null && end != null) {
-                    // Load transactions
-                    List<Transaction> transactionList = transactionDao.getByDateRange(start, end);
-                    transactions.postValue(transactionList);
-
-                    // Calculate totals
-                    double income = transactionDao.getTotalIncome(start, end);
-                    double expense = transactionDao.getTotalExpense(start, end);
-                    double bal = income - expense;
-
-                    totalIncome.postValue(income);
-                    totalExpense.postValue(expense);
-                    balance.postValue(bal);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+    @MainThread
+    public void consumeBudgetAlert() {
+        budgetAlert.setValue(null);
     }
 
-    // Set date range and reload data
-    public void setDateRange(String periodType) {
-        executor.execute(() -> {
-            Calendar cal = Calendar.getInstance();
-            Date end = cal.getTime();
-
-            Calendar startCal = Calendar.getInstance();
-
-            switch (periodType) {
-                case "Hari Ini":
-                    startCal.set(Calendar.HOUR_OF_DAY, 0);
-                    startCal.set(Calendar.MINUTE, 0);
-                    startCal.set(Calendar.SECOND, 0);
-                    startCal.set(Calendar.MILLISECOND, 0);
-                    break;
-                case "Minggu Ini":
-                    startCal.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
-                    break;
-                case "Bulan Ini":
-                    startCal.set(Calendar.DAY_OF_MONTH, 1);
-                    break;
-                case "Tahun Ini":
-                    startCal.set(Calendar.MONTH, Calendar.JANUARY);
-                    startCal.set(Calendar.DAY_OF_MONTH, 1);
-                    break;
-                case "Semua":
-                    startCal.set(1970, Calendar.JANUARY, 1);
-                    break;
-            }
+    // Format an amount in minor units as currency
+    public String formatCurrency(long amountMinor) {
+        return DisplayFormat.formatRupiah(amountMinor);
+    }
 
-            Date start = startCal.getTime();
+    // Invalidation counters of the dashboard query, for checking that reloads stay bounded
+    public String getReloadStats() {
+        return dashboard.getStats();
+    }
 
-            startDate.postValue(start);
-            endDate.postValue(end);
-            period.postValue(periodType);
+    // Go back from search results to the plain list of the active range
+    public void clearSearch() {
+        Date start = startDate.getValue();
+        Date end = endDate.getValue();
 
-            // Reload data dengan range baru
-            loadDataWithRange(start, end);
-        });
+        // The paged list follows table changes by itself; only restart it when leaving a search
+        ListQuery current = listQuery.getValue();
+        if (start != null && end != null && (current == null || !current.isRange(start, end))) {
+            listQuery.setValue(new ListQuery(start, end, null));
+        }
+    }
+
+    // Re-anchor the active period to the current time, e.g. on pull-to-refresh
+    public void refresh() {
+        String current = period.getValue();
+        setDateRange(current != null ? current : "Bulan Ini");
+    }
+
+    // Set date range and reload data. Runs on the main thread: a burst of taps only replaces the query state,
+    // and the schedulers behind the list and the dashboard collapse it into one load for the last tap.
+    public void setDateRange(String periodType) {
+        PeriodRange range = PeriodRange.resolve(periodType);
+        Date start = range.start;
+        Date end = range.end;
+
+        startDate.setValue(start);
+        endDate.setValue(end);
+        period.setValue(periodType);
+
+        // Reload data dengan range baru
+        loadDataWithRange(start, end);
     }
 
     private void loadDataWithRange(Date start, Date end) {
-        executor.execute(() -> {
-            try {
-                // Load transactions
-                List<Transaction> transactionList = transactionDao.getByDateRange(start, end);
-                transactions.postValue(transactionList);
-
-                // Calculate totals
-                double income = transactionDao.getTotalIncome(start, end);
-                double expense = transactionDao.getTotalExpense(start, end);
-                double bal = income - expense;
-
-                totalIncome.postValue(income);
-                totalExpense.postValue(expense);
-                balance.postValue(bal);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        // Restart the paged list; Paging cancels the loads of the list it replaces
+        ListQuery query = new ListQuery(start, end, null);
+        listQuery.setValue(query);
+
+        // Totals for the new range
+        dashboardRange = query;
+        dashboard.refresh();
+    }
+
+    // Served from PeriodCache while no write has landed since the range was last loaded
+    private DashboardSnapshot queryDashboard(CancellationSignal signal) throws Exception {
+        ListQuery range = dashboardRange;
+        if (range == null) {
+            return DashboardSnapshot.empty();
+        }
+        return PeriodCache.getInstance().get("dashboard", range.start.getTime(), range.end.getTime(),
+                () -> transactionDao.getDashboardSnapshot(range.start, range.end, signal));
     }
 
     // Add new transaction
     public void addTransaction(Transaction transaction) {
-        executor.execute(() -> {
-            try {
-                transactionDao.insert(transaction);
-                loadData(); // Reload data setelah insert
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        applyWrite(snapshot -> withRow(snapshot, transaction, 1), () -> {
+            transactionDao.insert(transaction);
+            reportBudgetAlerts(budgetTracker.record(transaction, 1));
         });
     }
 
     // Delete transaction
     public void deleteTransaction(Transaction transaction) {
-        executor.execute(() -> {
-            try {
-                transactionDao.delete(transaction);
-                loadData(); // Reload data setelah delete
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        applyWrite(snapshot -> withRow(snapshot, transaction, -1), () -> {
+            transactionDao.delete(transaction);
+            budgetTracker.record(transaction, -1);
         });
     }
 
-    // Update transaction
-    public void updateTransaction(Transaction transaction) {
-        executor.execute(() -> {
-            try {
-                transactionDao.update(transaction);
-                loadData(); // Reload data setelah update
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+    // Delete a list row, which carries everything the totals need without loading the full entity
+    public void deleteTransaction(TransactionListRow row) {
+        applyWrite(snapshot -> withRow(snapshot, row.getType(), row.getDate(), row.getAmountMinor(), -1),
+                () -> {
+                    transactionDao.deleteById(row.getId());
+                    budgetTracker.record(row.getType(), row.getCategory(), row.getDate(), row.getAmountMinor(), -1);
+                });
+    }
+
+    // Update transaction; the stored version is needed to take its old amount out of the totals
+    public void updateTransaction(Transaction previous, Transaction updated) {
+        applyWrite(snapshot -> withRow(withRow(snapshot, previous, -1), updated, 1),
+                () -> {
+                    transactionDao.update(updated);
+                    budgetTracker.record(previous, -1);
+                    reportBudgetAlerts(budgetTracker.record(updated, 1));
+                });
     }
 
     // Clear all data
     public void clearAllData() {
-        executor.execute(() -> {
+        applyWrite(snapshot -> DashboardSnapshot.empty(), () -> {
+            transactionDao.deleteAll();
+            budgetTracker.invalidate();
+        });
+    }
+
+    // Shows a write's effect on the dashboard immediately, as a delta on the snapshot on screen, then commits it.
+    // The invalidation from the commit reloads the stored totals; a failed write puts the old snapshot back.
+    @MainThread
+    private void applyWrite(Function<DashboardSnapshot, DashboardSnapshot> delta, Runnable write) {
+        DashboardSnapshot before = dashboard.getValue();
+        DashboardSnapshot after = before == null ? null : delta.apply(before);
+        if (after != null && after != before) {
+            dashboard.publish(after);
+        }
+        writeExecutor.execute(() -> {
             try {
-                transactionDao.deleteAll();
-                loadData(); // Reload data (akan kosong)
+                write.run();
+                PeriodCache.getInstance().bump();
             } catch (Exception e) {
                 e.printStackTrace();
+                mainHandler.post(() -> {
+                    if (after != null && dashboard.getValue() == after) {
+                        dashboard.publish(before);
+                    }
+                    dashboard.refresh();
+                });
             }
         });
     }
 
+    // Counters were already moved by BudgetTracker.record(); only the wording is left to do
+    private void reportBudgetAlerts(List<BudgetTracker.Status> crossed) {
+        if (crossed.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (BudgetTracker.Status status : crossed) {
+            if (message.length() > 0) {
+                message.append('\n');
+            }
+            message.append(BudgetTracker.alertMessage(status));
+        }
+        budgetAlert.postValue(message.toString());
+    }
+
+    private DashboardSnapshot withRow(DashboardSnapshot snapshot, Transaction transaction, int sign) {
+        if (transaction.getDate() == null) {
+            return snapshot;
+        }
+        return withRow(snapshot, transaction.getType(), transaction.getDate().getTime(), transaction.getAmountMinor(), sign);
+    }
+
+    // Rows outside the range the dashboard shows leave it unchanged
+    private DashboardSnapshot withRow(DashboardSnapshot snapshot, String type, long date, long amountMinor, int sign) {
+        ListQuery range = dashboardRange;
+        if (range == null || date < range.start.getTime() || date > range.end.getTime()) {
+            return snapshot;
+        }
+        return snapshot.withRow(type, date, amountMinor, sign);
+    }
+
     // Get transaction by ID
-    public LiveData<Transaction> getTransactionById(String id) {
+    public LiveData<Transaction> getTransactionById(long id) {
         MutableLiveData<Transaction> result = new MutableLiveData<>();
         executor.execute(() -> {
             Transaction transaction = transactionDao.getById(id);
@@ -226,28 +314,57 @@ public class TransactionViewModel extends AndroidViewModel {
         return result;
     }
 
-    // Search transactions
+    // Search transactions within the active date range
     public void searchTransactions(String query) {
-        executor.execute(() -> {
-            try {
-                // Implement search logic
-                List<Transaction> allTransactions = transactionDao.getAll();
-                List<Transaction> filtered = allTransactions.stream()
-                        .filter(t -> t.getTitle().toLowerCase().contains(query.toLowerCase()) ||
-                                t.getCategory().toLowerCase().contains(query.toLowerCase()) ||
-                                (t.getDescription() != null &&
-                                        t.getDescription().toLowerCase().contains(query.toLowerCase())))
-                        .collect(java.util.stream.Collectors.toList());
-                transactions.postValue(filtered);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        Date start = startDate.getValue();
+        Date end = endDate.getValue();
+
+        if (start != null && end != null) {
+            listQuery.setValue(new ListQuery(start, end, query));
+        }
+    }
+
+    // Unsynced rows straight from the database; call from a background thread
+    public List<Transaction> getUnsyncedTransactions() {
+        return transactionDao.getUnsynced();
+    }
+
+    public List<Budget> getUnsyncedBudgets() {
+        return database.budgetDao().getUnsynced();
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
-        executor.shutdown();
+        dashboard.close();
+        searchScheduler.cancel();
+    }
+
+    private LiveData<PagingData<TransactionRowModel>> pageRange(ListQuery query) {
+        // Leaving a search: its results are no longer wanted
+        searchScheduler.cancel();
+        Pager<TransactionPagingSource.Key, TransactionListRow> pager = new Pager<>(PAGING_CONFIG,
+                () -> new TransactionPagingSource(database, query.start, query.end));
+        // Rows are formatted for display on the read pool as each page arrives, and cached with the pages
+        LiveData<PagingData<TransactionRowModel>> models = Transformations.map(PagingLiveData.getLiveData(pager),
+                rows -> PagingDataTransforms.map(rows, displayExecutor, TransactionRowModel::of));
+        return PagingLiveData.cachedIn(models, this);
+    }
+
+    // Search results are already capped by SEARCH_LIMIT, so they are handed to the adapter as one static page
+    private LiveData<PagingData<TransactionRowModel>> searchResults(ListQuery query) {
+        MutableLiveData<PagingData<TransactionRowModel>> result = new MutableLiveData<>();
+        searchScheduler.submit(
+                signal -> toRowModels(transactionDao.search(query.search, query.start, query.end, SEARCH_LIMIT, signal)),
+                models -> result.postValue(PagingData.from(models)));
+        return result;
+    }
+
+    private static List<TransactionRowModel> toRowModels(List<TransactionListRow> rows) {
+        List<TransactionRowModel> models = new ArrayList<>(rows.size());
+        for (TransactionListRow row : rows) {
+            models.add(TransactionRowModel.of(row));
+        }
+        return models;
     }
 }
\ No newline at end of file
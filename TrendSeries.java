@@ -0,0 +1,59 @@
+package com.example.personal_finance_manager.model;
+
+/**
+ * Income and expense per bucket of a trend chart, oldest bucket first, as
+ * built by TimeSeriesEngine. Labels are formatted here, off the main thread,
+ * so the chart only has to hand them to its axis.
+ */
+public final class TrendSeries {
+    public enum Resolution { DAY, WEEK, MONTH, YEAR }
+
+    private static final String[] MONTH_NAMES =
+            {"Jan", "Feb", "Mar", "Apr", "Mei", "Jun", "Jul", "Agu", "Sep", "Okt", "Nov", "Des"};
+
+    public final Resolution resolution;
+    // UTC epoch day each bucket starts on
+    public final long[] startDays;
+    // Minor units, see Money
+    public final long[] incomeMinor;
+    public final long[] expenseMinor;
+    public final String[] labels;
+
+    public TrendSeries(Resolution resolution, long[] startDays, long[] incomeMinor, long[] expenseMinor) {
+        this.resolution = resolution;
+        this.startDays = startDays;
+        this.incomeMinor = incomeMinor;
+        this.expenseMinor = expenseMinor;
+        this.labels = new String[startDays.length];
+        for (int i = 0; i < startDays.length; i++) {
+            labels[i] = label(resolution, startDays[i]);
+        }
+    }
+
+    public int size() {
+        return startDays.length;
+    }
+
+    public long netMinor(int index) {
+        return Money.subtract(incomeMinor[index], expenseMinor[index]);
+    }
+
+    // "05/03" for days and weeks, "Mar 24" for months, "2024" for years
+    private static String label(Resolution resolution, long startDay) {
+        int monthKey = DailySummary.monthKeyOfDay(startDay);
+        int year = 1970 + Math.floorDiv(monthKey, 12);
+        int month = Math.floorMod(monthKey, 12);
+        switch (resolution) {
+            case YEAR:
+                return Integer.toString(year);
+            case MONTH:
+                return MONTH_NAMES[month] + " " + (char) ('0' + year / 10 % 10) + (char) ('0' + year % 10);
+            default:
+                int day = (int) (startDay - DailySummary.firstDayOfMonth(monthKey)) + 1;
+                return new StringBuilder(5)
+                        .append((char) ('0' + day / 10)).append((char) ('0' + day % 10)).append('/')
+                        .append((char) ('0' + (month + 1) / 10)).append((char) ('0' + (month + 1) % 10))
+                        .toString();
+        }
+    }
+}
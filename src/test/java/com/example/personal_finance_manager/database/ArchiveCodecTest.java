@@ -0,0 +1,127 @@
+package com.example.personal_finance_manager.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.personal_finance_manager.model.ArchivedMonth;
+import com.example.personal_finance_manager.model.CategoryEntry;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class ArchiveCodecTest {
+    private static final long DAY = 86_400_000L;
+    // 2023-03-01T00:00:00Z
+    private static final long MARCH_2023 = 1_677_628_800_000L;
+    private static final int MARCH_2023_KEY = (2023 - 1970) * 12 + 2;
+
+    @Before
+    public void setUp() {
+        register(1, "Makanan");
+        register(2, "Gaji");
+    }
+
+    @Test
+    public void roundTripKeepsEveryField() {
+        Transaction lunch = row(11L, "Makan siang", 2_500_000L, TransactionType.EXPENSE_NAME, "Makanan", MARCH_2023 + 3 * DAY);
+        lunch.setDescription("Nasi padang");
+        lunch.setUserId("user_device");
+        Transaction salary = row(7L, "Gaji", 1_500_000_000L, TransactionType.INCOME_NAME, "Gaji", MARCH_2023);
+        salary.setRemoteId("2b0f3c9e-7a51-4d7e-9a43-5f0c1d6e8a01");
+        Transaction untyped = row(12L, null, -5L, null, null, MARCH_2023 + 3 * DAY);
+        untyped.setCreatedAt(null);
+        untyped.setSynced(false);
+
+        List<Transaction> decoded = ArchiveCodec.decode(ArchiveCodec.encode(MARCH_2023_KEY, Arrays.asList(lunch, untyped, salary)));
+
+        // Oldest first, ties by id
+        assertEquals(3, decoded.size());
+        assertSameRow(salary, decoded.get(0));
+        assertSameRow(lunch, decoded.get(1));
+        assertSameRow(untyped, decoded.get(2));
+        assertNull(decoded.get(2).getCreatedAt());
+    }
+
+    @Test
+    public void blockDescribesItsMonth() {
+        ArchivedMonth month = ArchiveCodec.encode(MARCH_2023_KEY, Arrays.asList(
+                row(2L, "B", 100L, TransactionType.EXPENSE_NAME, "Makanan", MARCH_2023 + 20 * DAY),
+                row(1L, "A", 100L, TransactionType.EXPENSE_NAME, "Makanan", MARCH_2023 + DAY)));
+        assertEquals(MARCH_2023_KEY, month.getMonthKey());
+        assertEquals(ArchiveCodec.VERSION, month.getCodecVersion());
+        assertEquals(2, month.getEntryCount());
+        assertEquals(MARCH_2023 + DAY, month.getFirstDate());
+        assertEquals(MARCH_2023 + 20 * DAY, month.getLastDate());
+    }
+
+    @Test
+    public void emptyMonthRoundTrips() {
+        ArchivedMonth month = ArchiveCodec.encode(MARCH_2023_KEY, Collections.emptyList());
+        assertEquals(ArchivedMonth.startOf(MARCH_2023_KEY), month.getFirstDate());
+        assertTrue(ArchiveCodec.decode(month).isEmpty());
+    }
+
+    @Test
+    public void similarRowsCompress() {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(row(1_000_000L + i, "Makan siang", 2_500_000L, TransactionType.EXPENSE_NAME, "Makanan",
+                    MARCH_2023 + i * 60_000L));
+        }
+        ArchivedMonth month = ArchiveCodec.encode(MARCH_2023_KEY, rows);
+        // Uncompressed each of these rows takes 55 bytes
+        assertTrue(month.getPayload().length + " bytes", month.getPayload().length < 20 * rows.size());
+        assertEquals(rows.size(), ArchiveCodec.decode(month).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unknownVersionIsRejected() {
+        ArchivedMonth month = ArchiveCodec.encode(MARCH_2023_KEY, Collections.emptyList());
+        month.setCodecVersion(ArchiveCodec.VERSION + 1);
+        ArchiveCodec.decode(month);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void corruptBlockIsRejected() {
+        ArchivedMonth month = ArchiveCodec.encode(MARCH_2023_KEY, Collections.emptyList());
+        month.setPayload(new byte[]{1, 2, 3});
+        ArchiveCodec.decode(month);
+    }
+
+    private static void register(int id, String name) {
+        CategoryEntry entry = new CategoryEntry(name);
+        entry.setId(id);
+        CategoryDictionary.register(entry);
+    }
+
+    private static Transaction row(long id, String title, long amountMinor, String type, String category, long date) {
+        Transaction row = new Transaction(title, amountMinor, type, category, new Date(date));
+        row.setId(id);
+        row.setCreatedAt(new Date(date + 1_000L));
+        row.setSynced(true);
+        return row;
+    }
+
+    private static void assertSameRow(Transaction expected, Transaction actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAmountMinor(), actual.getAmountMinor());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.isSynced(), actual.isSynced());
+        assertEquals(expected.getRemoteId(), actual.getRemoteId());
+        assertEquals(expected.getUserId(), actual.getUserId());
+    }
+}
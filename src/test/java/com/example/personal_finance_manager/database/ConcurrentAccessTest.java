@@ -0,0 +1,137 @@
+package com.example.personal_finance_manager.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.DashboardSnapshot;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Readers on the read pool keep taking dashboard snapshots while the single
+ * writer commits batches, as DatabaseClient sets them up. Every batch adds
+ * the same income and expense rows, so a snapshot that saw part of a batch,
+ * or the rollup and the raw edge days at different points, shows up as
+ * totals that do not fit the counts.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ConcurrentAccessTest {
+    private static final String NAME = "concurrent-test";
+    private static final int READERS = 4;
+    private static final int BATCHES = 200;
+    private static final int PAIRS_PER_BATCH = 5;
+    private static final long INCOME_MINOR = 2_000L;
+    private static final long EXPENSE_MINOR = 1_000L;
+    private static final long DAY = 86_400_000L;
+    private static final long BASE = 1_700_000_000_000L;
+
+    private Context context;
+    private ExecutorService readExecutor;
+    private ExecutorService writeExecutor;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        readExecutor = Executors.newFixedThreadPool(READERS);
+        writeExecutor = Executors.newSingleThreadExecutor();
+        db = Room.databaseBuilder(context, AppDatabase.class, NAME)
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(readExecutor)
+                .setTransactionExecutor(writeExecutor)
+                .addCallback(DatabaseClient.SCHEMA_CALLBACK)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        readExecutor.shutdownNow();
+        writeExecutor.shutdownNow();
+        db.close();
+        context.deleteDatabase(NAME);
+    }
+
+    @Test
+    public void snapshotsNeverSeePartialBatches() throws Exception {
+        TransactionDao dao = db.transactionDao();
+        // Ten days, so snapshots read whole days from the rollup and the two edge days from raw rows
+        Date start = new Date(BASE);
+        Date end = new Date(BASE + 10 * DAY);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicInteger reads = new AtomicInteger();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(readExecutor.submit(() -> {
+                int lastCount = 0;
+                while (writing.get() && failure.get() == null) {
+                    DashboardSnapshot snapshot = dao.getDashboardSnapshot(start, end);
+                    int count = snapshot.getExpenseCount();
+                    if (count % PAIRS_PER_BATCH != 0 || snapshot.getIncomeCount() != count
+                            || snapshot.getTotalExpenseMinor() != count * EXPENSE_MINOR
+                            || snapshot.getTotalIncomeMinor() != count * INCOME_MINOR
+                            || count < lastCount) {
+                        failure.compareAndSet(null, "Inconsistent snapshot after " + lastCount + " expenses: "
+                                + snapshot.getIncomeCount() + "/" + snapshot.getTotalIncomeMinor() + " income, "
+                                + count + "/" + snapshot.getTotalExpenseMinor() + " expense");
+                    }
+                    lastCount = count;
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+
+        Future<?> writer = writeExecutor.submit(() -> {
+            int n = 0;
+            for (int b = 0; b < BATCHES; b++) {
+                List<Transaction> batch = new ArrayList<>(2 * PAIRS_PER_BATCH);
+                for (int i = 0; i < PAIRS_PER_BATCH; i++, n++) {
+                    Date date = new Date(BASE + (n % 10) * DAY + DAY / 2);
+                    batch.add(new Transaction("Gaji " + n, INCOME_MINOR, TransactionType.INCOME_NAME, "Gaji", date));
+                    batch.add(new Transaction("Makan " + n, EXPENSE_MINOR, TransactionType.EXPENSE_NAME, "Makanan", date));
+                }
+                dao.insertAllInBatches(batch);
+            }
+        });
+        try {
+            writer.get(60, TimeUnit.SECONDS);
+        } finally {
+            writing.set(false);
+        }
+        for (Future<?> reader : readers) {
+            reader.get(10, TimeUnit.SECONDS);
+        }
+
+        assertNull(failure.get());
+        assertTrue(reads.get() > 0);
+        DashboardSnapshot last = readExecutor.submit(() -> dao.getDashboardSnapshot(start, end)).get();
+        assertEquals(BATCHES * PAIRS_PER_BATCH, last.getExpenseCount());
+        assertEquals(BATCHES * PAIRS_PER_BATCH * EXPENSE_MINOR, last.getTotalExpenseMinor());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.personal_finance_manager.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.TimeOrderedId;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * TransactionDao.insertFetchedInBatches: rows coming back from the server are
+ * skipped when they are already here, and re-keyed instead of dropped when
+ * another device minted the same id.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FetchedRowsTest {
+    private static final String DEVICE = "user_device";
+    private static final String OTHER_DEVICE = "user_other";
+
+    private AppDatabase db;
+    private TransactionDao dao;
+    private Transaction local;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        dao = db.transactionDao();
+        local = expense("Makan siang");
+        dao.insert(local);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void ownRowComingBackIsSkipped() {
+        Transaction fetched = fetched(local.getSyncId(), DEVICE, "Makan siang");
+        assertTrue(dao.insertFetchedInBatches(Collections.singletonList(fetched), DEVICE).isEmpty());
+        assertEquals(1, dao.getAll().size());
+    }
+
+    @Test
+    public void sameIdFromAnotherDeviceIsRekeyed() {
+        Transaction fetched = fetched(local.getSyncId(), OTHER_DEVICE, "Bensin");
+        List<Transaction> rekeyed = dao.insertFetchedInBatches(Collections.singletonList(fetched), DEVICE);
+
+        assertEquals(1, rekeyed.size());
+        assertNotEquals(local.getId(), rekeyed.get(0).getId());
+        assertEquals("Bensin", dao.getByRemoteId(local.getSyncId()).getTitle());
+        assertEquals("Makan siang", dao.getById(local.getId()).getTitle());
+
+        // The next fetch finds the re-keyed copy by its server key
+        Transaction again = fetched(local.getSyncId(), OTHER_DEVICE, "Bensin");
+        assertTrue(dao.insertFetchedInBatches(Collections.singletonList(again), DEVICE).isEmpty());
+        assertEquals(2, dao.getAll().size());
+    }
+
+    @Test
+    public void mintedIdClashingWithLegacyRowIsRekeyed() {
+        Transaction legacy = expense("Pulsa");
+        legacy.setRemoteId("2b0f3c9e-7a51-4d7e-9a43-5f0c1d6e8a01");
+        dao.insert(legacy);
+
+        Transaction fetched = fetched(TimeOrderedId.toUuid(legacy.getId()), OTHER_DEVICE, "Parkir");
+        assertEquals(1, dao.insertFetchedInBatches(Collections.singletonList(fetched), DEVICE).size());
+        assertEquals("Pulsa", dao.getById(legacy.getId()).getTitle());
+        assertEquals(3, dao.getAll().size());
+    }
+
+    @Test
+    public void legacyRowAlreadyHereIsSkipped() {
+        Transaction legacy = expense("Pulsa");
+        legacy.setRemoteId("2b0f3c9e-7a51-4d7e-9a43-5f0c1d6e8a01");
+        dao.insert(legacy);
+
+        // A legacy UUID is not a local id, so the copy gets a fresh id and only its remoteId clashes
+        Transaction fetched = fetched(legacy.getRemoteId(), OTHER_DEVICE, "Pulsa");
+        assertTrue(dao.insertFetchedInBatches(Collections.singletonList(fetched), DEVICE).isEmpty());
+        assertEquals(2, dao.getAll().size());
+    }
+
+    private static Transaction expense(String title) {
+        return new Transaction(title, 2_500_000L, TransactionType.EXPENSE_NAME, "Makanan", new Date(1_700_000_000_000L));
+    }
+
+    // What SupabaseService builds from a fetched JSON row
+    private static Transaction fetched(String syncId, String owner, String title) {
+        Transaction transaction = expense(title);
+        transaction.setSyncId(syncId);
+        transaction.setUserId(owner);
+        transaction.setSynced(true);
+        return transaction;
+    }
+}
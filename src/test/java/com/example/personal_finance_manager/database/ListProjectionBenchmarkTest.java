@@ -0,0 +1,108 @@
+package com.example.personal_finance_manager.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cursor-to-list cost of the list screen's range query: TransactionListRow
+ * against full Transaction entities over the same rows. Prints time and bytes
+ * allocated per row for both and fails if the projection stops being the
+ * cheaper of the two. Timings on the JVM only rank the two; allocation counts
+ * carry over to the device.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ListProjectionBenchmarkTest {
+    private static final int ROWS = 5_000;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+    private static final long BASE = 1_700_000_000_000L;
+
+    private AppDatabase db;
+    private TransactionDao dao;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+        dao = db.transactionDao();
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Transaction row = new Transaction("Belanja " + i, 10_000L + i, TransactionType.EXPENSE_NAME,
+                    "Makanan", new Date(BASE + i * 60_000L));
+            row.setDescription("Catatan transaksi nomor " + i);
+            row.setUserId("user_benchmark");
+            rows.add(row);
+        }
+        dao.insertAllInBatches(rows);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void projectionIsCheaperThanEntities() {
+        Date start = new Date(BASE);
+        Date end = new Date(BASE + ROWS * 60_000L);
+        assertEquals(ROWS, dao.getHotRowsByDateRange(start, end).size());
+
+        Result rows = measure(() -> dao.getHotRowsByDateRange(start, end).size());
+        Result entities = measure(() -> dao.getByDateRange(start, end).size());
+        System.out.println("list rows:  " + rows);
+        System.out.println("entities:   " + entities);
+
+        assertTrue(rows + " vs " + entities, rows.bytesPerRow < entities.bytesPerRow);
+    }
+
+    private static Result measure(Load load) {
+        for (int i = 0; i < WARMUP; i++) {
+            load.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long startNanos = System.nanoTime();
+        long loaded = 0;
+        for (int i = 0; i < RUNS; i++) {
+            loaded += load.run();
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        return new Result(nanos / (double) loaded, bytes / (double) loaded);
+    }
+
+    private interface Load {
+        int run();
+    }
+
+    private static final class Result {
+        final double nanosPerRow;
+        final double bytesPerRow;
+
+        Result(double nanosPerRow, double bytesPerRow) {
+            this.nanosPerRow = nanosPerRow;
+            this.bytesPerRow = bytesPerRow;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.0f ns/row, %.0f B/row", nanosPerRow, bytesPerRow);
+        }
+    }
+}
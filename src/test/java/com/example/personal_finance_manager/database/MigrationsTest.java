@@ -0,0 +1,152 @@
+package com.example.personal_finance_manager.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.personal_finance_manager.database.dao.TransactionDao;
+import com.example.personal_finance_manager.model.TimeOrderedId;
+import com.example.personal_finance_manager.model.Transaction;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds a database as version 1 shipped it and opens it through the whole
+ * migration chain. Room validates every table against the entities on open;
+ * the tests add what it does not check: the converted rows, and the triggers
+ * and indices a fresh install gets.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MigrationsTest {
+    private static final String NAME = "migration-test";
+    private static final long DAY = 86_400_000L;
+    private static final long BASE = 1_700_000_000_000L;
+
+    private Context context;
+    private AppDatabase migrated;
+    private AppDatabase fresh;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        File file = context.getDatabasePath(NAME);
+        file.getParentFile().mkdirs();
+        try (SQLiteDatabase v1 = SQLiteDatabase.openOrCreateDatabase(file, null)) {
+            // The table Room generated for the version 1 entity
+            v1.execSQL("CREATE TABLE IF NOT EXISTS `transaction` (`id` TEXT NOT NULL, `userId` TEXT, `title` TEXT, "
+                    + "`description` TEXT, `amount` REAL NOT NULL, `type` TEXT, `category` TEXT, `date` INTEGER, "
+                    + "`createdAt` INTEGER, `isSynced` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            insertV1(v1, "2b0f3c9e-7a51-4d7e-9a43-5f0c1d6e8a01", "Gaji", 1_500_000.0, "income", "Gaji", BASE, BASE + 5, true);
+            insertV1(v1, "9c4e1a7b-2d38-4f60-8b15-a7e3c2f9d402", "Makan siang", 12_500.5, "expense", "Makanan", BASE + DAY, BASE + 3, false);
+            insertV1(v1, "5e8d2f6a-1c47-4b93-a0d8-3b6f9e2c7103", "Ojek", 99.99, "expense", "Transportasi", BASE + 2 * DAY, BASE + 9, true);
+            v1.setVersion(1);
+        }
+
+        migrated = Room.databaseBuilder(context, AppDatabase.class, NAME)
+                .addMigrations(Migrations.ALL)
+                .addCallback(DatabaseClient.SCHEMA_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        fresh = TestDatabases.inMemory();
+    }
+
+    @After
+    public void tearDown() {
+        migrated.close();
+        fresh.close();
+        context.deleteDatabase(NAME);
+    }
+
+    @Test
+    public void rowsSurviveConversion() {
+        TransactionDao dao = migrated.transactionDao();
+        List<Transaction> rows = dao.getAll();
+        assertEquals(3, rows.size());
+
+        Transaction salary = find(rows, "Gaji");
+        assertEquals(150_000_000L, salary.getAmountMinor());
+        assertEquals(TransactionType.INCOME_NAME, salary.getType());
+        assertEquals("Gaji", salary.getCategory());
+        // Synced rows keep their server UUID; unsynced ones are sent again under their new id
+        assertEquals("2b0f3c9e-7a51-4d7e-9a43-5f0c1d6e8a01", salary.getRemoteId());
+        assertNull(find(rows, "Makan siang").getRemoteId());
+
+        assertEquals(1_250_050L, find(rows, "Makan siang").getAmountMinor());
+        assertEquals(9_999L, find(rows, "Ojek").getAmountMinor());
+        assertEquals("Transportasi", find(rows, "Ojek").getCategory());
+    }
+
+    @Test
+    public void idsFollowCreatedAt() {
+        List<Transaction> rows = migrated.transactionDao().getAll();
+        long lunch = find(rows, "Makan siang").getId();
+        long salary = find(rows, "Gaji").getId();
+        long ride = find(rows, "Ojek").getId();
+        assertTrue(lunch < salary && salary < ride);
+        assertEquals(BASE + 5, TimeOrderedId.millisOf(salary));
+    }
+
+    @Test
+    public void rollupMatchesRowsAndKeepsUp() {
+        TransactionDao dao = migrated.transactionDao();
+        assertEquals(0, dao.countStaleDailySummaries());
+        assertEquals(0, dao.countOrphanDailySummaries());
+
+        // The frozen triggers keep maintaining the rollup after the upgrade
+        dao.insert(new Transaction("Bensin", 3_000_000L, TransactionType.EXPENSE_NAME, "Transportasi", new Date(BASE + 2 * DAY)));
+        dao.deleteById(find(dao.getAll(), "Makan siang").getId());
+        assertEquals(0, dao.countStaleDailySummaries());
+        assertEquals(0, dao.countOrphanDailySummaries());
+    }
+
+    @Test
+    public void schemaObjectsMatchFreshInstall() {
+        assertEquals(names(fresh, "trigger"), names(migrated, "trigger"));
+        assertEquals(names(fresh, "index"), names(migrated, "index"));
+    }
+
+    private static void insertV1(SQLiteDatabase db, String id, String title, double amount, String type,
+                                 String category, long date, long createdAt, boolean synced) {
+        db.execSQL("INSERT INTO `transaction` (id, title, amount, type, category, date, createdAt, isSynced) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", new Object[]{id, title, amount, type, category, date, createdAt, synced ? 1 : 0});
+    }
+
+    private static Transaction find(List<Transaction> rows, String title) {
+        for (Transaction row : rows) {
+            if (title.equals(row.getTitle())) {
+                return row;
+            }
+        }
+        throw new AssertionError("No row titled " + title);
+    }
+
+    // Room's own bookkeeping is left out; it differs between a created and an upgraded file
+    private static Set<String> names(AppDatabase db, String type) {
+        Set<String> names = new TreeSet<>();
+        try (Cursor cursor = db.getOpenHelper().getWritableDatabase().query(
+                "SELECT name FROM sqlite_master WHERE type = ? AND name NOT LIKE 'room_master%'", new Object[]{type})) {
+            while (cursor.moveToNext()) {
+                names.add(cursor.getString(0));
+            }
+        }
+        return names;
+    }
+}
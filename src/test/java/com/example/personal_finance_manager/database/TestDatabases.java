@@ -0,0 +1,34 @@
+package com.example.personal_finance_manager.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+
+/**
+ * Opens AppDatabase with the schema DatabaseClient creates (entities plus
+ * triggers), without its executors, for Robolectric tests.
+ */
+final class TestDatabases {
+    private TestDatabases() {}
+
+    static AppDatabase inMemory() {
+        return Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), AppDatabase.class)
+                .addCallback(DatabaseClient.SCHEMA_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    // EXPLAIN QUERY PLAN of a statement, one detail line per step
+    static String explain(AppDatabase db, String sql, Object... args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.personal_finance_manager.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.personal_finance_manager.model.TransactionListRow;
+import com.example.personal_finance_manager.model.TransactionType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * The filters TransactionDao runs on every screen must seek an index rather
+ * than scan the table. Statements are copied from the DAO with their bind
+ * arguments; plan wording differs between SQLite versions, so only the index
+ * name and the absence of a scan or sort are checked.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TransactionIndexTest {
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        db = TestDatabases.inMemory();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void dateRangeSeeksDateIndex() {
+        assertSeeks("index_transaction_date",
+                "SELECT * FROM 'transaction' WHERE date BETWEEN ? AND ? ORDER BY date DESC", 0L, 1L);
+    }
+
+    @Test
+    public void keysetPageNeedsNoSort() {
+        String plan = assertSeeks("index_transaction_date",
+                "SELECT " + TransactionListRow.COLUMNS + " FROM 'transaction' WHERE date BETWEEN ? AND ? "
+                        + "AND (date < ? OR id < ?) ORDER BY date DESC, id DESC LIMIT ?", 0L, 1L, 1L, 1L, 50);
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void typeAndDateSeekTypeDateIndex() {
+        assertSeeks("index_transaction_type_date",
+                "SELECT COALESCE(SUM(amountMinor), 0) FROM 'transaction' WHERE type = ? AND date BETWEEN ? AND ?",
+                TransactionType.EXPENSE, 0L, 1L);
+    }
+
+    @Test
+    public void unsyncedSeeksSyncIndex() {
+        assertSeeks("index_transaction_isSynced_date", "SELECT * FROM 'transaction' WHERE isSynced = 0");
+    }
+
+    @Test
+    public void archivableRowsSeekSyncIndex() {
+        assertSeeks("index_transaction_isSynced_date",
+                "SELECT * FROM 'transaction' WHERE isSynced = 1 AND date >= ? AND date < ?", 0L, 1L);
+    }
+
+    @Test
+    public void remoteIdSeeksUniqueIndex() {
+        assertSeeks("index_transaction_remoteId", "SELECT * FROM 'transaction' WHERE remoteId = ?", "x");
+    }
+
+    @Test
+    public void rollupDayRangeSeeksPrimaryKey() {
+        String plan = TestDatabases.explain(db, "SELECT SUM(totalMinor) FROM daily_summary WHERE type IN ("
+                + TransactionType.INCOME + ", " + TransactionType.EXPENSE + ") AND epochDay > ? AND epochDay < ?", 0L, 1L);
+        assertTrue(plan, plan.contains("epochDay>? AND epochDay<?"));
+        assertFalse(plan, plan.contains("SCAN"));
+    }
+
+    private String assertSeeks(String index, String sql, Object... args) {
+        String plan = TestDatabases.explain(db, sql, args);
+        assertTrue(plan, plan.contains("INDEX " + index + " "));
+        assertFalse(plan, plan.contains("SCAN"));
+        return plan;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.personal_finance_manager.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DisplayFormat against the NumberFormat and SimpleDateFormat calls it
+ * replaced, formatting one list row (amount and date) per operation. Rows
+ * are sorted by date as the list loads them. Run main() from the test
+ * classpath; the GC profiler reports the bytes allocated per row next to
+ * the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayFormatBenchmark {
+    private static final int ROWS = 1_024;
+
+    private final long[] amounts = new long[ROWS];
+    private final long[] dates = new long[ROWS];
+    private final StringBuilder out = new StringBuilder(64);
+    private NumberFormat currency;
+    private SimpleDateFormat dateFormat;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Jakarta"));
+        Random random = new Random(19);
+        long date = 1_672_531_200_000L;
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = 1_000_00L + random.nextInt(50_000_000);
+            date += random.nextInt(7_200_000);
+            dates[i] = date;
+        }
+        currency = NumberFormat.getCurrencyInstance(new Locale("in", "ID"));
+        dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+    }
+
+    @Benchmark
+    public int appendRow() {
+        int i = next++ & (ROWS - 1);
+        out.setLength(0);
+        DisplayFormat.appendRupiah(out, amounts[i]);
+        DisplayFormat.appendDate(out.append(' '), dates[i]);
+        return out.length();
+    }
+
+    @Benchmark
+    public int formatRow() {
+        int i = next++ & (ROWS - 1);
+        return DisplayFormat.formatRupiah(amounts[i]).length() + DisplayFormat.formatDate(dates[i]).length();
+    }
+
+    @Benchmark
+    public int formatRowWithFormatters() {
+        int i = next++ & (ROWS - 1);
+        return currency.format(Money.toUnits(amounts[i])).length() + dateFormat.format(new Date(dates[i])).length();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DisplayFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
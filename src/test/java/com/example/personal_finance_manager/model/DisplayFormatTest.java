@@ -0,0 +1,106 @@
+package com.example.personal_finance_manager.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class DisplayFormatTest {
+    private static final Locale INDONESIA = new Locale("in", "ID");
+
+    private TimeZone zone;
+
+    @Before
+    public void setUp() {
+        zone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(zone);
+    }
+
+    @Test
+    public void rupiahMatchesCurrencyFormat() {
+        NumberFormat currency = NumberFormat.getCurrencyInstance(INDONESIA);
+        Random random = new Random(19);
+        long[] fixed = {0L, 1L, -1L, 99L, 100L, -500_00L, 1_000_00L, 123_456_789L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long amount : fixed) {
+            assertEquals(currency.format(BigDecimal.valueOf(amount, 2)), DisplayFormat.formatRupiah(amount));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            long amount = random.nextLong() >> random.nextInt(64);
+            assertEquals(currency.format(BigDecimal.valueOf(amount, 2)), DisplayFormat.formatRupiah(amount));
+        }
+    }
+
+    @Test
+    public void signedRupiahKeepsTheSign() {
+        assertEquals("+Rp15.000,00", DisplayFormat.formatSignedRupiah('+', 1_500_000L));
+        assertEquals("-Rp12,50", DisplayFormat.formatSignedRupiah('-', 1_250L));
+    }
+
+    @Test
+    public void datesMatchSimpleDateFormat() {
+        // Jakarta has no DST; Berlin has a 23- and a 25-hour day every year
+        for (String id : new String[]{"Asia/Jakarta", "Europe/Berlin", "America/Sao_Paulo"}) {
+            TimeZone.setDefault(TimeZone.getTimeZone(id));
+            SimpleDateFormat date = new SimpleDateFormat("dd/MM/yyyy", Locale.ROOT);
+            SimpleDateFormat dateTime = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.ROOT);
+            // Sorted like list rows, with some jumps back as in unsorted exports
+            long millis = 1_672_531_200_000L;
+            Random random = new Random(id.hashCode());
+            for (int i = 0; i < 20_000; i++) {
+                millis += random.nextInt(10) == 0 ? -random.nextInt(864_000_000) : random.nextInt(3_600_000);
+                assertEquals(id, date.format(millis), DisplayFormat.formatDate(millis));
+                assertEquals(id, dateTime.format(millis), DisplayFormat.formatDateTime(millis));
+            }
+        }
+    }
+
+    @Test
+    public void daysWhoseMidnightIsSkippedOrRepeated() {
+        // Sao Paulo moved its DST changes to midnight: 00:00 did not exist on these days, or happened twice
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        SimpleDateFormat dateTime = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.ROOT);
+        for (long day : new long[]{1_318_723_200_000L, 1_541_289_600_000L, 1_550_361_600_000L}) {
+            for (long millis = day - 86_400_000L; millis < day + 2 * 86_400_000L; millis += 300_000L) {
+                assertEquals(dateTime.format(millis), DisplayFormat.formatDateTime(millis));
+            }
+        }
+    }
+
+    @Test
+    public void appendingAllocatesNothing() {
+        StringBuilder out = new StringBuilder(64);
+        long millis = 1_672_531_200_000L;
+        for (int i = 0; i < 50_000; i++) {
+            appendRow(out, i, millis + i);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            appendRow(out, i * 7_919L, millis + i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // Some slack for the counter itself; one allocation per call would be megabytes
+        assertTrue(allocated + " bytes", allocated < 16_384);
+    }
+
+    private static void appendRow(StringBuilder out, long amountMinor, long millis) {
+        out.setLength(0);
+        DisplayFormat.appendRupiah(out, amountMinor);
+        DisplayFormat.appendDate(out.append(' '), millis);
+    }
+}
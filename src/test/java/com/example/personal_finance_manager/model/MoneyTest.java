@@ -0,0 +1,90 @@
+package com.example.personal_finance_manager.model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+public class MoneyTest {
+    private static final long FALLBACK = -1L;
+
+    @Test
+    public void parseIsExact() {
+        assertEquals(1_500_000L, Money.parse("15000"));
+        assertEquals(1_250L, Money.parse("12.5"));
+        assertEquals(1_999L, Money.parse(" 19.99 "));
+        assertEquals(30L, Money.parse("0.30"));
+    }
+
+    @Test
+    public void parseRoundsHalfUp() {
+        assertEquals(1_235L, Money.parse("12.345"));
+        assertEquals(1_234L, Money.parse("12.3449"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseRejectsText() {
+        Money.parse("Rp 15.000");
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void parseRejectsOverflow() {
+        Money.parse("100000000000000000000");
+    }
+
+    @Test
+    public void parseOrDefaultReadsWhatIsBeingTyped() {
+        assertEquals(0L, Money.parseOrDefault("0", FALLBACK));
+        assertEquals(1_500_000L, Money.parseOrDefault("15000", FALLBACK));
+        assertEquals(1_500_000L, Money.parseOrDefault("15000.", FALLBACK));
+        assertEquals(50L, Money.parseOrDefault(".5", FALLBACK));
+        assertEquals(1_235L, Money.parseOrDefault("12.345", FALLBACK));
+        assertEquals(1_234L, Money.parseOrDefault("12.3449", FALLBACK));
+        assertEquals(1_999L, Money.parseOrDefault(" 19.99 ", FALLBACK));
+    }
+
+    @Test
+    public void parseOrDefaultFallsBackInsteadOfThrowing() {
+        assertEquals(FALLBACK, Money.parseOrDefault("", FALLBACK));
+        assertEquals(FALLBACK, Money.parseOrDefault(" ", FALLBACK));
+        assertEquals(FALLBACK, Money.parseOrDefault(".", FALLBACK));
+        assertEquals(FALLBACK, Money.parseOrDefault("-5", FALLBACK));
+        assertEquals(FALLBACK, Money.parseOrDefault("1.2.3", FALLBACK));
+        assertEquals(FALLBACK, Money.parseOrDefault("15.000,00", FALLBACK));
+        assertEquals(FALLBACK, Money.parseOrDefault("100000000000000000000", FALLBACK));
+    }
+
+    @Test
+    public void parseOrDefaultAgreesWithParse() {
+        Random random = new Random(12);
+        for (int i = 0; i < 100_000; i++) {
+            String text = random.nextInt(1_000_000_000) + "." + random.nextInt(100_000);
+            assertEquals(text, Money.parse(text), Money.parseOrDefault(text, FALLBACK));
+        }
+    }
+
+    @Test
+    public void conversionsAtTheEdges() {
+        assertEquals(1_000L, Money.fromUnits(9.999));
+        assertEquals(12.5, Money.toUnits(1_250L), 0.0);
+        assertEquals(new BigDecimal("12.50"), Money.toDecimal(1_250L));
+        assertEquals(new BigDecimal("-0.05"), Money.toDecimal(-5L));
+    }
+
+    @Test
+    public void sumsAreExact() {
+        long total = 0;
+        for (int i = 0; i < 10; i++) {
+            total = Money.add(total, Money.parse("0.10"));
+        }
+        assertEquals(100L, total);
+        assertEquals(90L, Money.subtract(total, 10L));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void addOverflowThrows() {
+        Money.add(Long.MAX_VALUE, 1L);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.personal_finance_manager.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class PeriodRangeTest {
+    private TimeZone zone;
+    private Locale locale;
+
+    @Before
+    public void setUp() {
+        zone = TimeZone.getDefault();
+        locale = Locale.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Jakarta"));
+        Locale.setDefault(new Locale("in", "ID"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(zone);
+        Locale.setDefault(locale);
+    }
+
+    @Test
+    public void everyPeriodEndsWithToday() {
+        long tomorrow = startOfToday().getTimeInMillis() + 86_400_000L;
+        for (String period : new String[]{"Hari Ini", "Minggu Ini", "Bulan Ini", "Tahun Ini", "Semua"}) {
+            assertEquals(period, tomorrow - 1, PeriodRange.resolve(period).end.getTime());
+        }
+    }
+
+    @Test
+    public void todayStartsAtMidnight() {
+        assertEquals(startOfToday().getTimeInMillis(), PeriodRange.resolve("Hari Ini").start.getTime());
+    }
+
+    @Test
+    public void weekStartsOnTheLastSunday() {
+        Calendar start = calendarAt(PeriodRange.resolve("Minggu Ini").start.getTime());
+        long today = startOfToday().getTimeInMillis();
+        assertEquals(Calendar.SUNDAY, start.get(Calendar.DAY_OF_WEEK));
+        assertTrue(start.getTimeInMillis() <= today);
+        assertTrue(start.getTimeInMillis() > today - 7 * 86_400_000L);
+        assertEquals(0, start.get(Calendar.HOUR_OF_DAY));
+    }
+
+    @Test
+    public void monthAndYearStartOnTheFirst() {
+        Calendar month = startOfToday();
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        assertEquals(month.getTimeInMillis(), PeriodRange.resolve("Bulan Ini").start.getTime());
+
+        month.set(Calendar.MONTH, Calendar.JANUARY);
+        assertEquals(month.getTimeInMillis(), PeriodRange.resolve("Tahun Ini").start.getTime());
+    }
+
+    @Test
+    public void everythingStartsAt1970() {
+        Calendar start = calendarAt(PeriodRange.resolve("Semua").start.getTime());
+        assertEquals(1970, start.get(Calendar.YEAR));
+        assertEquals(Calendar.JANUARY, start.get(Calendar.MONTH));
+        assertEquals(1, start.get(Calendar.DAY_OF_MONTH));
+        assertEquals(0, start.get(Calendar.HOUR_OF_DAY));
+    }
+
+    @Test
+    public void sameDayGivesTheSameRange() {
+        // PeriodCache keys on these bounds, so they must not move with the clock
+        PeriodRange first = PeriodRange.resolve("Bulan Ini");
+        PeriodRange second = PeriodRange.resolve("Bulan Ini");
+        assertEquals(first.start, second.start);
+        assertEquals(first.end, second.end);
+    }
+
+    @Test
+    public void unknownPeriodFallsBackToToday() {
+        assertEquals(PeriodRange.resolve("Hari Ini").start, PeriodRange.resolve("Kemarin").start);
+    }
+
+    private static Calendar startOfToday() {
+        Calendar cal = Calendar.getInstance();
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal;
+    }
+
+    private static Calendar calendarAt(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        return cal;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.personal_finance_manager.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+public class TimeOrderedIdTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    public void idsIncreaseStrictly() {
+        long last = TimeOrderedId.NONE;
+        for (int i = 0; i < 100_000; i++) {
+            long id = TimeOrderedId.next();
+            assertTrue(id > last);
+            last = id;
+        }
+    }
+
+    @Test
+    public void idCarriesItsMillisecond() {
+        TimeOrderedId.Generator ids = new TimeOrderedId.Generator();
+        assertEquals(NOW, TimeOrderedId.millisOf(ids.next(NOW)));
+        assertEquals(NOW + 1, TimeOrderedId.millisOf(ids.next(NOW + 1)));
+    }
+
+    @Test
+    public void fullMillisecondCarriesIntoTheNext() {
+        TimeOrderedId.Generator ids = new TimeOrderedId.Generator();
+        long last = TimeOrderedId.NONE;
+        // More than the 2^15 sequence numbers of one millisecond
+        for (int i = 0; i < 40_000; i++) {
+            long id = ids.next(NOW);
+            assertTrue(id > last);
+            last = id;
+        }
+        assertEquals(NOW + 1, TimeOrderedId.millisOf(last));
+    }
+
+    @Test
+    public void clockGoingBackwardsNeverRepeats() {
+        TimeOrderedId.Generator ids = new TimeOrderedId.Generator();
+        long first = ids.next(NOW);
+        assertTrue(ids.next(NOW - 60_000L) > first);
+    }
+
+    @Test
+    public void uuidRoundTrips() {
+        TimeOrderedId.Generator ids = new TimeOrderedId.Generator();
+        for (int i = 0; i < 10_000; i++) {
+            long id = ids.next(NOW + i * 7L);
+            String uuid = TimeOrderedId.toUuid(id);
+            assertEquals(7, UUID.fromString(uuid).version());
+            assertEquals(2, UUID.fromString(uuid).variant());
+            assertEquals(id, TimeOrderedId.fromUuid(uuid));
+        }
+    }
+
+    @Test
+    public void uuidsSortLikeIds() {
+        TimeOrderedId.Generator ids = new TimeOrderedId.Generator();
+        String last = TimeOrderedId.toUuid(ids.next(NOW));
+        for (int i = 0; i < 10_000; i++) {
+            String uuid = TimeOrderedId.toUuid(ids.next(NOW + i / 100));
+            assertTrue(uuid.compareTo(last) > 0);
+            last = uuid;
+        }
+    }
+
+    @Test
+    public void foreignUuidsAreNotLocalIds() {
+        assertEquals(TimeOrderedId.NONE, TimeOrderedId.fromUuid(null));
+        assertEquals(TimeOrderedId.NONE, TimeOrderedId.fromUuid("bukan-uuid"));
+        assertEquals(TimeOrderedId.NONE, TimeOrderedId.fromUuid(UUID.randomUUID().toString()));
+        // A UUIDv7 minted elsewhere fills rand_b with random bits
+        UUID v7 = new UUID((NOW << 16) | (0x7L << 12) | 0x123L, (0x2L << 62) | 0x0123_4567_89ABL);
+        assertEquals(TimeOrderedId.NONE, TimeOrderedId.fromUuid(v7.toString()));
+    }
+}